@@ -0,0 +1,60 @@
+package com.KokoSky.WeatherService.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every benchmark with 1, 8 and 64 threads, reporting throughput (ops/s),
+ * the latency distribution (p99 and friends, ns/op) and bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}).
+ * <p>
+ * System properties: {@code benchmark.include} (regex, defaults to all benchmarks),
+ * {@code benchmark.database} (BIN resource, defaults to the bundled LITE DB3 file) and
+ * {@code benchmark.threads} (comma-separated thread counts, defaults to {@code 1,8,64}).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("benchmark.include", "com\\.KokoSky\\.WeatherService\\..*Benchmark");
+        String database = System.getProperty("benchmark.database");
+        int[] threads = Arrays.stream(System.getProperty("benchmark.threads", "1,8,64").split(","))
+                .map(String::trim)
+                .filter(count -> !count.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        for (int threadCount : threads) {
+            run(include, database, threadCount, Mode.Throughput, TimeUnit.SECONDS);
+            run(include, database, threadCount, Mode.SampleTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void run(String include, String database, int threads, Mode mode, TimeUnit timeUnit)
+            throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .mode(mode)
+                .timeUnit(timeUnit)
+                .threads(threads)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .addProfiler(GCProfiler.class);
+
+        if (database != null) {
+            options.param("database", database);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
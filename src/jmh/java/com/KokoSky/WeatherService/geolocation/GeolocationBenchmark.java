@@ -0,0 +1,189 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
+import com.KokoSky.WeatherService.location.LocationCatalog;
+import com.KokoSky.WeatherService.utility.ClientIPExtractor;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of turning an address into a location: parsing, the raw BIN reader next to the IP2Location
+ * library's reader, and the full {@link GeolocationService} chain with and without the block cache.
+ * <p>
+ * Addresses are public IPv4 addresses mixed with {@code ipv6Percent} IPv6 ones, half native and half
+ * carrying an IPv4 address (6to4 and IPv4-mapped). Databases without IPv6 data fail the native ones,
+ * which is measured too since it is what production traffic does.
+ */
+@State(Scope.Benchmark)
+public class GeolocationBenchmark {
+
+    private static final int ADDRESS_COUNT = 1 << 16;
+
+    @Param("classpath:IP2LOCATION-LITE-DB3.BIN")
+    public String database;
+
+    @Param({"0", "20"})
+    public int ipv6Percent;
+
+    private String[] addresses;
+    private NumericIP[] numericAddresses;
+    private MappedIP2LocationReader reader;
+    private LibraryIP2LocationReader libraryReader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        addresses = new String[ADDRESS_COUNT];
+        numericAddresses = new NumericIP[ADDRESS_COUNT];
+
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            NumericIP ip = random.nextInt(100) < ipv6Percent ? randomIPv6(random) : NumericIP.ofIPv4(randomIPv4(random));
+            numericAddresses[i] = ip;
+            addresses[i] = ip.toString();
+        }
+
+        Resource resource = new DefaultResourceLoader().getResource(database);
+        reader = MappedIP2LocationReader.open(resource);
+        libraryReader = new LibraryIP2LocationReader(resource.getFile().getAbsolutePath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        reader.close();
+        libraryReader.close();
+    }
+
+    @Benchmark
+    public NumericIP parse(Cursor cursor) {
+        return NumericIP.parse(addresses[cursor.next()]);
+    }
+
+    @Benchmark
+    public void readerMatch(Cursor cursor, Blackhole blackhole) {
+        try {
+            blackhole.consume(reader.match(numericAddresses[cursor.next()]));
+        } catch (GeolocationException ex) {
+            blackhole.consume(ex);
+        }
+    }
+
+    @Benchmark
+    public void readerLookup(Cursor cursor, Blackhole blackhole) {
+        lookup(reader, cursor, blackhole);
+    }
+
+    @Benchmark
+    public void libraryReaderLookup(Cursor cursor, Blackhole blackhole) {
+        lookup(libraryReader, cursor, blackhole);
+    }
+
+    @Benchmark
+    public void serviceGetLocation(Cursor cursor, Chain chain, Blackhole blackhole) {
+        try {
+            blackhole.consume(chain.service.getLocation(addresses[cursor.next()]));
+        } catch (GeolocationException ex) {
+            blackhole.consume(ex);
+        }
+    }
+
+    private void lookup(GeolocationReader target, Cursor cursor, Blackhole blackhole) {
+        try {
+            blackhole.consume(target.lookup(addresses[cursor.next()]));
+        } catch (GeolocationException ex) {
+            blackhole.consume(ex);
+        }
+    }
+
+    /**
+     * The resolver chain as wired in the application, minus the catalog-backed code index.
+     */
+    @State(Scope.Benchmark)
+    public static class Chain {
+
+        @Param({"true", "false"})
+        public boolean cache;
+
+        private GeolocationService service;
+
+        @Setup(Level.Trial)
+        public void setUp(GeolocationBenchmark benchmark) throws IOException {
+            LocationCodeIndex locationCodeIndex = new LocationCodeIndex(null, false, new StringDictionary(100));
+            GeolocationCache geolocationCache = new GeolocationCache(cache, 10_000, Duration.ofHours(1), 64);
+            FailedLookupCache failedLookupCache = new FailedLookupCache(cache, 10_000, Duration.ofMinutes(1));
+            LocationTokenResolver locationTokenResolver = new LocationTokenResolver(false, "", Duration.ofMinutes(10),
+                    "X-Location-Token", "location_token", false, locationCodeIndex);
+
+            service = new GeolocationService(
+                    new DefaultResourceLoader().getResource(benchmark.database),
+                    "mapped",
+                    Duration.ofSeconds(1),
+                    List.of(new ReservedAddressResolver(""), locationCodeIndex, geolocationCache),
+                    geolocationCache,
+                    failedLookupCache,
+                    locationCodeIndex,
+                    new ClientIPExtractor(List.of()),
+                    locationTokenResolver,
+                    // Never loaded, so locations keep the (country code, city name) of the BIN row
+                    new LocationCatalog(null, null, null, new StringDictionary(100)),
+                    new HeavyHitters(false, 256, 8, 20, Duration.ZERO, null));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            service.close();
+        }
+    }
+
+    /**
+     * Per-thread position in the address table, so threads do not share a counter.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            position = (int) (Thread.currentThread().getId() * 7919) & (ADDRESS_COUNT - 1);
+        }
+
+        int next() {
+            int current = position;
+            position = (current + 1) & (ADDRESS_COUNT - 1);
+            return current;
+        }
+    }
+
+    private static long randomIPv4(Random random) {
+        long ipv4;
+        do {
+            ipv4 = random.nextInt() & 0xFFFFFFFFL;
+        } while (ReservedAddresses.isReservedIPv4(ipv4));
+        return ipv4;
+    }
+
+    private static NumericIP randomIPv6(Random random) {
+        return switch (random.nextInt(4)) {
+            // 6to4, 2002:AABB:CCDD::/48
+            case 0 -> NumericIP.ofIPv6(0x2002000000000000L | (randomIPv4(random) << 16), random.nextLong());
+            // IPv4-mapped, ::ffff:a.b.c.d
+            case 1 -> NumericIP.ofIPv6(0L, 0xFFFF00000000L | randomIPv4(random));
+            // Native global unicast, 2000::/3
+            default -> NumericIP.ofIPv6(0x2000000000000000L | (random.nextLong() >>> 3), random.nextLong());
+        };
+    }
+}
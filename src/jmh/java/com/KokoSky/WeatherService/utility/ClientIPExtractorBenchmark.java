@@ -0,0 +1,66 @@
+package com.KokoSky.WeatherService.utility;
+
+import com.KokoSky.WeatherService.geolocation.NumericIP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of finding the client address behind our proxies, for X-Forwarded-For chains of
+ * {@code hops} entries mixing IPv4 and IPv6 clients. Each thread gets its own requests.
+ */
+@State(Scope.Thread)
+public class ClientIPExtractorBenchmark {
+
+    private static final int REQUEST_COUNT = 1 << 10;
+
+    @Param({"0", "1", "3", "6"})
+    public int hops;
+
+    private ClientIPExtractor clientIPExtractor;
+    private MockHttpServletRequest[] requests;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clientIPExtractor = new ClientIPExtractor(
+                List.of("127.0.0.0/8", "::1/128", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "fc00::/7"));
+
+        Random random = new Random(42);
+        requests = new MockHttpServletRequest[REQUEST_COUNT];
+
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setRemoteAddr("10.0.0." + (1 + random.nextInt(254)));
+
+            if (hops > 0) {
+                StringBuilder forwardedFor = new StringBuilder();
+                // Client first, then the proxies it went through, the nearest last
+                forwardedFor.append(random.nextInt(5) == 0
+                        ? NumericIP.ofIPv6(0x2a00000000000000L | (random.nextLong() >>> 8), random.nextLong())
+                        : NumericIP.ofIPv4(0x20000000L | random.nextInt(0x10000000)));
+                for (int hop = 1; hop < hops; hop++) {
+                    forwardedFor.append(", 10.").append(random.nextInt(256)).append('.')
+                            .append(random.nextInt(256)).append('.').append(1 + random.nextInt(254));
+                }
+                request.addHeader("X-Forwarded-For", forwardedFor.toString());
+            }
+
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public NumericIP extract() {
+        int current = position;
+        position = (current + 1) & (REQUEST_COUNT - 1);
+        return clientIPExtractor.extract(requests[current]);
+    }
+}
@@ -3,8 +3,13 @@ package com.KokoSky.WeatherService.dailyWeather;
 import com.KokoSky.WeatherService.exceptions.BadRequestException;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
 import com.KokoSky.WeatherService.location.Location;
-import com.KokoSky.WeatherService.utility.CommonUtility;
+import com.KokoSky.WeatherService.responseCache.CachedBody;
+import com.KokoSky.WeatherService.responseCache.RefreshAhead;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +18,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.DAILY;
+
 @RestController
 @RequestMapping("/api/v1/daily")
 public class DailyWeatherController {
@@ -20,39 +27,85 @@ public class DailyWeatherController {
     private final DailyWeatherService dailyWeatherService;
     private final GeolocationService geolocationService;
     private final ModelMapper modelMapper;
+    private final ResponseBodyCache responseBodyCache;
+    private final ObjectMapper objectMapper;
+    private final SingleFlightLoader singleFlightLoader;
 
     public DailyWeatherController(
             DailyWeatherService dailyWeatherService,
             GeolocationService locationService,
-            ModelMapper modelMapper) {
+            ModelMapper modelMapper,
+            ResponseBodyCache responseBodyCache,
+            ObjectMapper objectMapper,
+            SingleFlightLoader singleFlightLoader,
+            RefreshAhead refreshAhead) {
         this.dailyWeatherService = dailyWeatherService;
         this.geolocationService = locationService;
         this.modelMapper = modelMapper;
+        this.responseBodyCache = responseBodyCache;
+        this.objectMapper = objectMapper;
+        this.singleFlightLoader = singleFlightLoader;
+
+        refreshAhead.register(DAILY, code -> {
+            List<DailyWeather> dailyForecast = dailyWeatherService.getByLocationCode(code);
+            return dailyForecast.isEmpty() ? null : CachedBody.of(objectMapper, listEntity2DTO(dailyForecast), null);
+        });
     }
 
     @GetMapping
-    public ResponseEntity<?> listDailyForecastByIPAddress(HttpServletRequest request) {
-        String ipAddress = CommonUtility.getIPAddress(request);
+    public ResponseEntity<?> listDailyForecastByIPAddress(HttpServletRequest request, HttpServletResponse response) {
+        Location locationFromIP = geolocationService.getLocation(request, response);
+
+        CachedBody cached = responseBodyCache.get(DAILY, locationFromIP.getCode());
+
+        if (cached == null) {
+            String key = locationFromIP.getCode() == null ? null : SingleFlightLoader.key(DAILY, locationFromIP.getCode());
 
-        Location locationFromIP = geolocationService.getLocation(ipAddress);
-        List<DailyWeather> dailyForecast = dailyWeatherService.getByLocation(locationFromIP);
+            cached = singleFlightLoader.load(key, () -> {
+                long stamp = responseBodyCache.stamp();
+                List<DailyWeather> dailyForecast = dailyWeatherService.getByLocation(locationFromIP);
 
-        if (dailyForecast.isEmpty()) {
-            return ResponseEntity.noContent().build();
+                if (dailyForecast.isEmpty()) {
+                    return null;
+                }
+
+                CachedBody loaded = CachedBody.of(objectMapper, listEntity2DTO(dailyForecast), null);
+                responseBodyCache.put(DAILY, dailyForecast.get(0).getId().getLocation().getCode(), stamp, loaded);
+                return loaded;
+            });
+
+            if (cached == null) {
+                return ResponseEntity.noContent().build();
+            }
         }
 
-        return ResponseEntity.ok(listEntity2DTO(dailyForecast));
+        return cached.toResponse();
     }
 
     @GetMapping("{locationCode}")
     public ResponseEntity<?> listDailyForecastByLocationCode(@PathVariable("locationCode") String locationCode){
-        List<DailyWeather> dailyForecast = dailyWeatherService.getByLocationCode(locationCode);
+        CachedBody cached = responseBodyCache.get(DAILY, locationCode);
+
+        if (cached == null) {
+            cached = singleFlightLoader.load(SingleFlightLoader.key(DAILY, locationCode), () -> {
+                long stamp = responseBodyCache.stamp();
+                List<DailyWeather> dailyForecast = dailyWeatherService.getByLocationCode(locationCode);
+
+                if (dailyForecast.isEmpty()) {
+                    return null;
+                }
+
+                CachedBody loaded = CachedBody.of(objectMapper, listEntity2DTO(dailyForecast), null);
+                responseBodyCache.put(DAILY, locationCode, stamp, loaded);
+                return loaded;
+            });
 
-        if (dailyForecast.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            if (cached == null) {
+                return ResponseEntity.noContent().build();
+            }
         }
 
-        return ResponseEntity.ok(listEntity2DTO(dailyForecast));
+        return cached.toResponse();
     }
 
     @PutMapping("/{locationCode}")
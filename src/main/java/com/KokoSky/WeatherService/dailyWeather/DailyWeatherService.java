@@ -1,8 +1,14 @@
 package com.KokoSky.WeatherService.dailyWeather;
 
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
 import com.KokoSky.WeatherService.location.Location;
 import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.location.UnknownLocationCache;
+import com.KokoSky.WeatherService.readModel.LocationSnapshot;
+import com.KokoSky.WeatherService.readModel.ReadModel;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -13,20 +19,48 @@ public class DailyWeatherService {
 
     private final DailyWeatherRepository dailyWeatherRepository;
     private final LocationRepository locationRepository;
+    private final ResponseBodyCache responseBodyCache;
+    private final UnknownLocationCache unknownLocationCache;
+    private final ReadModel readModel;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DailyWeatherService(
             DailyWeatherRepository dailyWeatherRepository,
-            LocationRepository locationRepository
+            LocationRepository locationRepository,
+            ResponseBodyCache responseBodyCache,
+            UnknownLocationCache unknownLocationCache,
+            ReadModel readModel,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.dailyWeatherRepository = dailyWeatherRepository;
         this.locationRepository = locationRepository;
+        this.responseBodyCache = responseBodyCache;
+        this.unknownLocationCache = unknownLocationCache;
+        this.readModel = readModel;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<DailyWeather> getByLocation(Location location) {
+        // Resolved through the IP range index, no need to match on country code and city name
+        if (location.getCode() != null) {
+            return getByLocationCode(location.getCode());
+        }
+
         String countryCode = location.getCountryCode();
         String cityName = location.getCityName();
 
-        Location locationInDB = locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
+        if (readModel.isResolvingCities()) {
+            String locationCode = readModel.findCodeByCountryCodeAndCityName(countryCode, cityName);
+
+            if (locationCode == null) {
+                throw new LocationNotFoundException(countryCode, cityName);
+            }
+
+            return getByLocationCode(locationCode);
+        }
+
+        Location locationInDB = unknownLocationCache.findByCountryCodeAndCityName(countryCode, cityName,
+                locationRepository::findByCountryCodeAndCityName);
 
         if (locationInDB == null) {
             throw new LocationNotFoundException(countryCode, cityName);
@@ -35,7 +69,17 @@ public class DailyWeatherService {
     }
 
     public List<DailyWeather> getByLocationCode(String locationCode) {
-        Location location = locationRepository.findByCode(locationCode);
+        if (readModel.isServing(locationCode)) {
+            LocationSnapshot snapshot = readModel.get(locationCode);
+
+            if (snapshot == null) {
+                throw new LocationNotFoundException(locationCode);
+            }
+
+            return snapshot.dailyWeather();
+        }
+
+        Location location = unknownLocationCache.findByCode(locationCode, locationRepository::findByCode);
 
         if (location == null) {
             throw new LocationNotFoundException(locationCode);
@@ -71,6 +115,10 @@ public class DailyWeatherService {
             dailyWeatherInDB.remove(forecastToBeRemoved);
         }
 
-        return (List<DailyWeather>) dailyWeatherRepository.saveAll(dailyWeatherInRequest);
+        List<DailyWeather> updatedDailyWeather = (List<DailyWeather>) dailyWeatherRepository.saveAll(dailyWeatherInRequest);
+        responseBodyCache.invalidate(code);
+        eventPublisher.publishEvent(new WeatherChangedEvent(code));
+
+        return updatedDailyWeather;
     }
 }
@@ -8,4 +8,12 @@ public class GeolocationException extends  RuntimeException {
     public GeolocationException(String message) {
         super(message);
     }
+
+    /**
+     * For expected, high-volume failures such as reserved addresses, where filling in a stack trace
+     * would cost more than the lookup itself.
+     */
+    public GeolocationException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -103,7 +103,8 @@ public class GlobalExceptionHandler {
                 LocalDateTime.now()
         );
 
-        LOGGER.error(exception.getMessage(), exception);
+        // Unknown locations are client errors, often retried by bots: no stack trace
+        LOGGER.warn(exception.getMessage());
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
@@ -158,7 +159,12 @@ public class GlobalExceptionHandler {
                 LocalDateTime.now()
         );
 
-        LOGGER.error(exception.getMessage(), exception);
+        // Unresolvable client addresses are routine, only log a stack trace for real failures
+        if (exception.getCause() != null) {
+            LOGGER.error(exception.getMessage(), exception);
+        } else {
+            LOGGER.warn("{}: {}", request.getRequestURI(), exception.getMessage());
+        }
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
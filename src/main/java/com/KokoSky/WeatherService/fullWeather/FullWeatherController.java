@@ -3,13 +3,20 @@ package com.KokoSky.WeatherService.fullWeather;
 import com.KokoSky.WeatherService.exceptions.BadRequestException;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
 import com.KokoSky.WeatherService.location.Location;
-import com.KokoSky.WeatherService.utility.CommonUtility;
+import com.KokoSky.WeatherService.responseCache.CachedBody;
+import com.KokoSky.WeatherService.responseCache.RefreshAhead;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.FULL;
+
 @RestController
 @RequestMapping("/api/v1/full")
 public class FullWeatherController {
@@ -17,32 +24,65 @@ public class FullWeatherController {
     private final GeolocationService geolocationService;
     private final FullWeatherService fullWeatherService;
     private final ModelMapper modelMapper;
+    private final ResponseBodyCache responseBodyCache;
+    private final ObjectMapper objectMapper;
+    private final SingleFlightLoader singleFlightLoader;
 
     public FullWeatherController(
             GeolocationService locationService,
             FullWeatherService weatherService,
-            ModelMapper modelMapper) {
+            ModelMapper modelMapper,
+            ResponseBodyCache responseBodyCache,
+            ObjectMapper objectMapper,
+            SingleFlightLoader singleFlightLoader,
+            RefreshAhead refreshAhead) {
         this.geolocationService = locationService;
         this.fullWeatherService = weatherService;
         this.modelMapper = modelMapper;
+        this.responseBodyCache = responseBodyCache;
+        this.objectMapper = objectMapper;
+        this.singleFlightLoader = singleFlightLoader;
+
+        refreshAhead.register(FULL,
+                code -> CachedBody.of(objectMapper, entity2DTO(fullWeatherService.get(code)), null));
     }
 
     @GetMapping
-    public ResponseEntity<?> getFullWeatherByIPAddress(HttpServletRequest request) {
-        String ipAddress = CommonUtility.getIPAddress(request);
+    public ResponseEntity<?> getFullWeatherByIPAddress(HttpServletRequest request, HttpServletResponse response) {
+        Location locationFromIP = geolocationService.getLocation(request, response);
 
-        Location locationFromIP = geolocationService.getLocation(ipAddress);
-        Location locationInDB = fullWeatherService.getByLocation(locationFromIP);
+        CachedBody cached = responseBodyCache.get(FULL, locationFromIP.getCode());
 
-        return ResponseEntity.ok(entity2DTO(locationInDB));
+        if (cached == null) {
+            String key = locationFromIP.getCode() == null ? null : SingleFlightLoader.key(FULL, locationFromIP.getCode());
+
+            cached = singleFlightLoader.load(key, () -> {
+                long stamp = responseBodyCache.stamp();
+                Location locationInDB = fullWeatherService.getByLocation(locationFromIP);
+                CachedBody loaded = CachedBody.of(objectMapper, entity2DTO(locationInDB), null);
+                responseBodyCache.put(FULL, locationInDB.getCode(), stamp, loaded);
+                return loaded;
+            });
+        }
+
+        return cached.toResponse();
     }
 
     @GetMapping("/{locationCode}")
     public ResponseEntity<?> getFullWeatherByLocationCode(@PathVariable String locationCode) {
+        CachedBody cached = responseBodyCache.get(FULL, locationCode);
+
+        if (cached == null) {
+            cached = singleFlightLoader.load(SingleFlightLoader.key(FULL, locationCode), () -> {
+                long stamp = responseBodyCache.stamp();
+                Location locationInDB = fullWeatherService.get(locationCode);
+                CachedBody loaded = CachedBody.of(objectMapper, entity2DTO(locationInDB), null);
+                responseBodyCache.put(FULL, locationInDB.getCode(), stamp, loaded);
+                return loaded;
+            });
+        }
 
-        Location locationInDB = fullWeatherService.get(locationCode);
-
-        return ResponseEntity.ok(entity2DTO(locationInDB));
+        return cached.toResponse();
     }
 
     @PutMapping("/{locationCode}")
@@ -2,10 +2,18 @@ package com.KokoSky.WeatherService.fullWeather;
 
 import com.KokoSky.WeatherService.dailyWeather.DailyWeather;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyForecastStore;
 import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
 import com.KokoSky.WeatherService.location.Location;
 import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.location.UnknownLocationCache;
+import com.KokoSky.WeatherService.readModel.LocationSnapshot;
+import com.KokoSky.WeatherService.readModel.ReadModel;
 import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherCache;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -15,16 +23,52 @@ import java.util.List;
 public class FullWeatherService {
 
     private LocationRepository locationRepository;
-
-    public FullWeatherService(LocationRepository locationRepository) {
+    private final RealtimeWeatherCache realtimeWeatherCache;
+    private final ResponseBodyCache responseBodyCache;
+    private final HourlyForecastStore hourlyForecastStore;
+    private final UnknownLocationCache unknownLocationCache;
+    private final ReadModel readModel;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FullWeatherService(
+            LocationRepository locationRepository,
+            RealtimeWeatherCache realtimeWeatherCache,
+            ResponseBodyCache responseBodyCache,
+            HourlyForecastStore hourlyForecastStore,
+            UnknownLocationCache unknownLocationCache,
+            ReadModel readModel,
+            ApplicationEventPublisher eventPublisher
+    ) {
         this.locationRepository = locationRepository;
+        this.realtimeWeatherCache = realtimeWeatherCache;
+        this.responseBodyCache = responseBodyCache;
+        this.hourlyForecastStore = hourlyForecastStore;
+        this.unknownLocationCache = unknownLocationCache;
+        this.readModel = readModel;
+        this.eventPublisher = eventPublisher;
     }
 
     public Location getByLocation(Location locationFromIP) {
+        // Resolved through the IP range index, no need to match on country code and city name
+        if (locationFromIP.getCode() != null) {
+            return get(locationFromIP.getCode());
+        }
+
         String cityName = locationFromIP.getCityName();
         String countryCode = locationFromIP.getCountryCode();
 
-        Location locationInDB = locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
+        if (readModel.isResolvingCities()) {
+            String locationCode = readModel.findCodeByCountryCodeAndCityName(countryCode, cityName);
+
+            if (locationCode == null) {
+                throw new LocationNotFoundException(countryCode, cityName);
+            }
+
+            return get(locationCode);
+        }
+
+        Location locationInDB = unknownLocationCache.findByCountryCodeAndCityName(countryCode, cityName,
+                locationRepository::findByCountryCodeAndCityName);
 
         if (locationInDB == null) {
             throw new LocationNotFoundException(countryCode, cityName);
@@ -34,7 +78,17 @@ public class FullWeatherService {
     }
 
     public Location get(String locationCode) {
-        Location location = locationRepository.findByCode(locationCode);
+        if (readModel.isServing(locationCode)) {
+            LocationSnapshot snapshot = readModel.get(locationCode);
+
+            if (snapshot == null) {
+                throw new LocationNotFoundException(locationCode);
+            }
+
+            return snapshot.location();
+        }
+
+        Location location = unknownLocationCache.findByCode(locationCode, locationRepository::findByCode);
 
         if (location == null) {
             throw new LocationNotFoundException(locationCode);
@@ -77,7 +131,13 @@ public class FullWeatherService {
                 .trashed(locationInDB.isTrashed())
                 .build();
 
-        return locationRepository.save(updatedLocation);
+        Location savedLocation = locationRepository.save(updatedLocation);
+        realtimeWeatherCache.invalidate(locationCode);
+        responseBodyCache.invalidate(locationCode);
+        hourlyForecastStore.invalidate(locationCode);
+        eventPublisher.publishEvent(new WeatherChangedEvent(locationCode));
+
+        return savedLocation;
     }
 
 }
@@ -0,0 +1,68 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.utility.ClientIPExtractor;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Uses the country and city our CDN already computed for the client and sends as request headers.
+ * <p>
+ * The headers are only accepted when the direct peer is a trusted proxy
+ * ({@code geolocation.client-ip.trusted-proxies}), otherwise any client could pick its own location.
+ */
+@Component
+@Order(0)
+public class EdgeHeaderResolver implements GeolocationResolver {
+
+    private final boolean enabled;
+    private final String countryCodeHeader;
+    private final String regionHeader;
+    private final String cityHeader;
+    private final ClientIPExtractor clientIPExtractor;
+
+    public EdgeHeaderResolver(
+            @Value("${geolocation.edge-headers.enabled:false}") boolean enabled,
+            @Value("${geolocation.edge-headers.country-code:X-Client-Country-Code}") String countryCodeHeader,
+            @Value("${geolocation.edge-headers.region:X-Client-Region}") String regionHeader,
+            @Value("${geolocation.edge-headers.city:X-Client-City}") String cityHeader,
+            ClientIPExtractor clientIPExtractor
+    ) {
+        this.enabled = enabled;
+        this.countryCodeHeader = countryCodeHeader;
+        this.regionHeader = regionHeader;
+        this.cityHeader = cityHeader;
+        this.clientIPExtractor = clientIPExtractor;
+    }
+
+    @Override
+    public String name() {
+        return "edge-headers";
+    }
+
+    @Override
+    public Location resolve(NumericIP ip, HttpServletRequest request) {
+        if (!enabled || request == null) {
+            return null;
+        }
+
+        String countryCode = request.getHeader(countryCodeHeader);
+        String cityName = request.getHeader(cityHeader);
+
+        // "XX" and "T1" are what CDNs send for unknown and Tor clients
+        if (countryCode == null || countryCode.length() != 2 || "XX".equals(countryCode) || "T1".equals(countryCode)
+                || cityName == null || cityName.isBlank()) {
+            return null;
+        }
+
+        NumericIP peer = NumericIP.parse(request.getRemoteAddr());
+
+        if (peer == null || !clientIPExtractor.isTrusted(peer)) {
+            return null;
+        }
+
+        return new Location(cityName.trim(), request.getHeader(regionHeader), null, countryCode);
+    }
+}
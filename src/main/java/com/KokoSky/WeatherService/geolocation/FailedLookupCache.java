@@ -0,0 +1,101 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived negative cache of addresses whose lookup failed, so that a client retrying with an
+ * unresolvable address does not hit the BIN file every time.
+ * <p>
+ * Bounded by {@code geolocation.negative-cache.maximum-size}: when full, expired entries are purged and
+ * if that is not enough the cache is cleared, which only costs a few extra lookups.
+ */
+@Component
+public class FailedLookupCache {
+
+    private final boolean enabled;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<NumericIP, Failure> failures = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    @Autowired
+    public FailedLookupCache(
+            @Value("${geolocation.negative-cache.enabled:true}") boolean enabled,
+            @Value("${geolocation.negative-cache.maximum-size:10000}") int maximumSize,
+            @Value("${geolocation.negative-cache.ttl:1m}") Duration ttl
+    ) {
+        this(enabled, maximumSize, ttl, System::nanoTime);
+    }
+
+    FailedLookupCache(boolean enabled, int maximumSize, Duration ttl, LongSupplier nanoClock) {
+        this.enabled = enabled && maximumSize > 0;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the error message of a recent failed lookup of {@code ip}, or {@code null}.
+     */
+    public String get(NumericIP ip) {
+        if (!enabled) {
+            return null;
+        }
+
+        Failure failure = failures.get(ip);
+
+        if (failure == null) {
+            return null;
+        }
+
+        if (nanoClock.getAsLong() - failure.expiresAt >= 0) {
+            failures.remove(ip, failure);
+            return null;
+        }
+
+        hits.increment();
+        return failure.message;
+    }
+
+    public void put(NumericIP ip, String message) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = nanoClock.getAsLong();
+
+        if (failures.size() >= maximumSize) {
+            failures.values().removeIf(failure -> now - failure.expiresAt >= 0);
+
+            if (failures.size() >= maximumSize) {
+                failures.clear();
+            }
+        }
+
+        failures.put(ip, new Failure(message, now + ttlNanos));
+    }
+
+    public void invalidateAll() {
+        failures.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(failures.size(), maximumSize, hits.sum());
+    }
+
+    public record Stats(int size, int maximumSize, long hits) {
+    }
+
+    private record Failure(String message, long expiresAt) {
+    }
+}
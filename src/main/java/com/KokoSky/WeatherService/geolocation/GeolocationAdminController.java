@@ -0,0 +1,59 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/geolocation")
+public class GeolocationAdminController {
+
+    private final GeolocationService geolocationService;
+    private final GeolocationCache geolocationCache;
+    private final FailedLookupCache failedLookupCache;
+
+    public GeolocationAdminController(
+            GeolocationService geolocationService,
+            GeolocationCache geolocationCache,
+            FailedLookupCache failedLookupCache
+    ) {
+        this.geolocationService = geolocationService;
+        this.geolocationCache = geolocationCache;
+        this.failedLookupCache = failedLookupCache;
+    }
+
+    @GetMapping
+    public ResponseEntity<GeolocationService.DatabaseStatus> getDatabaseStatus() {
+        return ResponseEntity.ok(geolocationService.getStatus());
+    }
+
+    /**
+     * Starts reloading the BIN file in the background. Lookups keep using the current database until
+     * the new one has been validated and swapped in.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<GeolocationService.DatabaseStatus> reloadDatabase() {
+        geolocationService.reload();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(geolocationService.getStatus());
+    }
+
+    @GetMapping("/resolvers")
+    public ResponseEntity<List<GeolocationService.ResolverStats>> getResolverStats() {
+        return ResponseEntity.ok(geolocationService.getResolverStats());
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<GeolocationCache.CacheStats> getCacheStats() {
+        return ResponseEntity.ok(geolocationCache.stats());
+    }
+
+    @GetMapping("/negative-cache")
+    public ResponseEntity<FailedLookupCache.Stats> getNegativeCacheStats() {
+        return ResponseEntity.ok(failedLookupCache.stats());
+    }
+}
@@ -0,0 +1,173 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.utility.ClockCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of geolocation results keyed by IP block rather than by address.
+ * <p>
+ * IPv4 entries cover the whole block of the BIN row that produced them, so one miss warms the cache
+ * for every address of that block. IPv6 entries are keyed by the containing prefix
+ * ({@code geolocation.cache.ipv6-prefix-length}, /64 by default).
+ * Entries expire after a fixed TTL and are evicted with a second-chance (CLOCK) policy once the
+ * cache grows past its maximum size (see {@link ClockCache}).
+ * <p>
+ * Every entry belongs to a database generation. {@link #invalidateAll(long)} moves the cache to a new
+ * generation after a reload, and results computed against an older database are dropped instead of stored.
+ */
+@Component
+@Order(30)
+public class GeolocationCache implements GeolocationResolver {
+
+    private final boolean enabled;
+    private final int maximumSize;
+    private final int ipv6PrefixLength;
+
+    // IPv4 blocks are keyed by their first address and found with a floor lookup
+    private final ClockCache<Block, Match> entries;
+    private volatile long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public GeolocationCache(
+            @Value("${geolocation.cache.enabled:true}") boolean enabled,
+            @Value("${geolocation.cache.maximum-size:10000}") int maximumSize,
+            @Value("${geolocation.cache.ttl:1h}") Duration ttl,
+            @Value("${geolocation.cache.ipv6-prefix-length:64}") int ipv6PrefixLength
+    ) {
+        this(enabled, maximumSize, ttl, ipv6PrefixLength, System::nanoTime);
+    }
+
+    GeolocationCache(boolean enabled, int maximumSize, Duration ttl, int ipv6PrefixLength, LongSupplier nanoClock) {
+        if (ipv6PrefixLength < 1 || ipv6PrefixLength > 64) {
+            throw new IllegalArgumentException("geolocation.cache.ipv6-prefix-length must be between 1 and 64");
+        }
+
+        this.enabled = enabled && maximumSize > 0;
+        this.maximumSize = maximumSize;
+        this.ipv6PrefixLength = ipv6PrefixLength;
+        this.entries = ClockCache.sorted(maximumSize, match -> 1, ttl, nanoClock);
+    }
+
+    /**
+     * Returns the cached location for {@code ip}, or {@code null} on a miss.
+     */
+    public Location get(NumericIP ip) {
+        if (!enabled) {
+            return null;
+        }
+
+        Match match = find(ip);
+
+        if (match == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return match.location();
+    }
+
+    @Override
+    public String name() {
+        return "cache";
+    }
+
+    @Override
+    public Location resolve(NumericIP ip, HttpServletRequest request) {
+        return get(ip);
+    }
+
+    public void put(NumericIP ip, GeolocationMatch match) {
+        put(ip, match, generation);
+    }
+
+    /**
+     * Caches {@code match} unless it was computed against a database older than the current generation.
+     */
+    public void put(NumericIP ip, GeolocationMatch match, long matchGeneration) {
+        if (!enabled) {
+            return;
+        }
+
+        long ipv4 = ip.embeddedIPv4();
+        Block block;
+        Match entry;
+
+        if (ipv4 >= 0) {
+            long blockStart = match.blockStart() >= 0 ? match.blockStart() : ipv4;
+            long blockEnd = match.blockEnd() >= 0 ? match.blockEnd() : ipv4;
+            block = new Block(false, blockStart);
+            entry = new Match(blockEnd, match.location());
+        } else {
+            long prefix = ipv6Prefix(ip.high());
+            block = new Block(true, prefix);
+            entry = new Match(prefix, match.location());
+        }
+
+        // Checked under the monitor of invalidateAll, so a result of the previous database cannot land after it
+        synchronized (this) {
+            if (matchGeneration == generation) {
+                entries.put(block, entry);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        invalidateAll(generation);
+    }
+
+    /**
+     * Drops every entry and only accepts results of {@code newGeneration} from now on.
+     */
+    public synchronized void invalidateAll(long newGeneration) {
+        generation = newGeneration;
+        entries.clear();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(entries.size(), maximumSize, hits.sum(), misses.sum(), entries.evictions());
+    }
+
+    private Match find(NumericIP ip) {
+        long ipv4 = ip.embeddedIPv4();
+
+        if (ipv4 >= 0) {
+            ClockCache.Node<Block, Match> floor = entries.floor(new Block(false, ipv4));
+            return floor != null && ipv4 <= floor.value().end() ? floor.value() : null;
+        }
+
+        return entries.get(new Block(true, ipv6Prefix(ip.high())));
+    }
+
+    private long ipv6Prefix(long high) {
+        return high & (-1L << (64 - ipv6PrefixLength));
+    }
+
+    public record CacheStats(int size, int maximumSize, long hits, long misses, long evictions) {
+    }
+
+    // IPv4 blocks sort before every IPv6 prefix, so a floor lookup of an IPv4 address stays among IPv4 blocks
+    private record Block(boolean ipv6, long start) implements Comparable<Block> {
+
+        @Override
+        public int compareTo(Block other) {
+            int family = Boolean.compare(ipv6, other.ipv6);
+            return family != 0 ? family : Long.compare(start, other.start);
+        }
+    }
+
+    private record Match(long end, Location location) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the IP2Location database when its file changes on disk.
+ * <p>
+ * Only works for {@code file:} databases. The new file should be moved into place with an atomic rename,
+ * events are debounced so a slow copy only triggers one reload once writes have settled.
+ */
+@Component
+@ConditionalOnProperty(name = "geolocation.reload.watch", havingValue = "true")
+public class GeolocationDatabaseWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeolocationDatabaseWatcher.class);
+
+    private final GeolocationService geolocationService;
+    private final Resource database;
+    private final Duration debounce;
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public GeolocationDatabaseWatcher(
+            GeolocationService geolocationService,
+            @Value("${geolocation.database:classpath:IP2LOCATION-LITE-DB3.BIN}") Resource database,
+            @Value("${geolocation.reload.debounce:2s}") Duration debounce
+    ) {
+        this.geolocationService = geolocationService;
+        this.database = database;
+        this.debounce = debounce;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!database.isFile()) {
+            LOGGER.warn("Not watching {}, only file databases can be watched", database.getDescription());
+            return;
+        }
+
+        Path file = database.getFile().toPath().toAbsolutePath();
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watchThread = new Thread(() -> watch(file.getFileName()), "geolocation-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        LOGGER.info("Watching {} for changes", file);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key, fileName);
+
+                // Keep absorbing events until the file has been quiet for the debounce period
+                while (changed) {
+                    WatchKey next = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    drain(next, fileName);
+                }
+
+                if (changed) {
+                    geolocationService.reload();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // Shutting down
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path fileName) {
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+
+        key.reset();
+        return changed;
+    }
+}
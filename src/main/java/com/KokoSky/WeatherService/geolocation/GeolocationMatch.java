@@ -0,0 +1,10 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+
+/**
+ * Result of a BIN lookup. For IPv4 addresses {@code blockStart} and {@code blockEnd} (inclusive)
+ * delimit the IP block of the matching row; they are -1 for IPv6 addresses.
+ */
+public record GeolocationMatch(Location location, long blockStart, long blockEnd) {
+}
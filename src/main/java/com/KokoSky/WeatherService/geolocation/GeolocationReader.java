@@ -0,0 +1,21 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.location.Location;
+
+import java.io.Closeable;
+
+/**
+ * Resolves an IP address to a transient {@link Location} using an IP2Location BIN database.
+ */
+public interface GeolocationReader extends Closeable {
+
+    Location lookup(String ipAddress) throws GeolocationException;
+
+    GeolocationMatch match(NumericIP ip) throws GeolocationException;
+
+    String databaseVersion();
+
+    @Override
+    void close();
+}
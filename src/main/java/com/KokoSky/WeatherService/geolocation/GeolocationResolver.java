@@ -0,0 +1,25 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.location.Location;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * One tier of the geolocation chain run by {@link GeolocationService}.
+ * <p>
+ * Tiers are asked in {@link org.springframework.core.annotation.Order} order and the BIN file is always
+ * the last one. A tier returns {@code null} to hand the address to the next tier, or throws to fail the
+ * lookup without asking the remaining tiers.
+ */
+public interface GeolocationResolver {
+
+    /**
+     * Short name used in the resolver statistics.
+     */
+    String name();
+
+    /**
+     * @param request the HTTP request being served, or {@code null} for lookups made outside a request
+     */
+    Location resolve(NumericIP ip, HttpServletRequest request) throws GeolocationException;
+}
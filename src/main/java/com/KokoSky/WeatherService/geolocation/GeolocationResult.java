@@ -0,0 +1,13 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+
+/**
+ * Outcome of geolocating one address of a batch: either {@code location} or {@code error} is set.
+ */
+public record GeolocationResult(String ipAddress, Location location, String error) {
+
+    public boolean isResolved() {
+        return location != null;
+    }
+}
@@ -1,51 +1,373 @@
 package com.KokoSky.WeatherService.geolocation;
 
 import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
 import com.KokoSky.WeatherService.location.Location;
-import com.ip2location.IP2Location;
-import com.ip2location.IPResult;
+import com.KokoSky.WeatherService.location.LocationCatalog;
+import com.KokoSky.WeatherService.utility.ClientIPExtractor;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class GeolocationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GeolocationService.class);
 
-    private final String DBPath = "IP2LOCATION-LITE-DB3.BIN";
-    // Get the BIN file path from the classpath
-    ClassPathResource resource = new ClassPathResource(DBPath);
-    String dbPath = resource.getFile().getAbsolutePath();
-    private final IP2Location ipLocator = new IP2Location();
+    // Below this size a batch is resolved on the calling thread
+    private static final int PARALLEL_THRESHOLD = 64;
 
-    public GeolocationService() throws IOException {
-        try {
-            ipLocator.Open(dbPath);
-        } catch (IOException ex) {
-            LOGGER.error(ex.getMessage(), ex);
+    // 8.8.8.8, any database covering the public IPv4 space must resolve it
+    private static final NumericIP PROBE_IP = NumericIP.ofIPv4(0x08080808L);
+
+    private final Resource database;
+    private final String readerMode;
+    private final Duration closeDelay;
+    private final GeolocationCache geolocationCache;
+    private final FailedLookupCache failedLookupCache;
+    private final LocationCodeIndex locationCodeIndex;
+    private final ClientIPExtractor clientIPExtractor;
+    private final LocationTokenResolver locationTokenResolver;
+    private final LocationCatalog locationCatalog;
+    private final HeavyHitters heavyHitters;
+
+    // The injected resolvers in order, followed by the BIN file
+    private final Tier[] tiers;
+
+    // Index builds and reloads run one at a time on this thread
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "geolocation-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ActiveReader active;
+    private volatile String lastReloadError;
+    private CompletableFuture<DatabaseStatus> pendingReload;
+
+    public GeolocationService(
+            @Value("${geolocation.database:classpath:IP2LOCATION-LITE-DB3.BIN}") Resource database,
+            @Value("${geolocation.reader:mapped}") String readerMode,
+            @Value("${geolocation.reload.close-delay:30s}") Duration closeDelay,
+            List<GeolocationResolver> resolvers,
+            GeolocationCache geolocationCache,
+            FailedLookupCache failedLookupCache,
+            LocationCodeIndex locationCodeIndex,
+            ClientIPExtractor clientIPExtractor,
+            LocationTokenResolver locationTokenResolver,
+            LocationCatalog locationCatalog,
+            HeavyHitters heavyHitters
+    ) throws IOException {
+        this.database = database;
+        this.readerMode = readerMode;
+        this.closeDelay = closeDelay;
+        this.geolocationCache = geolocationCache;
+        this.failedLookupCache = failedLookupCache;
+        this.locationCodeIndex = locationCodeIndex;
+        this.clientIPExtractor = clientIPExtractor;
+        this.locationTokenResolver = locationTokenResolver;
+        this.locationCatalog = locationCatalog;
+        this.heavyHitters = heavyHitters;
+        this.tiers = new Tier[resolvers.size() + 1];
+        for (int i = 0; i < resolvers.size(); i++) {
+            tiers[i] = new Tier(resolvers.get(i));
         }
+        tiers[resolvers.size()] = new Tier(new DatabaseResolver());
+        this.active = new ActiveReader(openReader(database, readerMode), 0L, Instant.now());
     }
 
     public Location getLocation(String ipAddress) throws GeolocationException {
+        NumericIP ip = NumericIP.parse(ipAddress);
+
+        if (ip == null) {
+            throw new GeolocationException("Geolocation failed with status: INVALID_IP_ADDRESS");
+        }
+
+        return getLocation(ip);
+    }
+
+    /**
+     * Returns the location of the client of {@code request}, letting tiers that understand the request
+     * itself (a location token, trusted CDN headers) answer before the address is looked up.
+     * A location token is added to {@code response} so the client's next calls can skip geolocation.
+     */
+    public Location getLocation(HttpServletRequest request, HttpServletResponse response) throws GeolocationException {
+        NumericIP ip = clientIPExtractor.extract(request);
+        Location location = resolve(ip, request);
+
+        locationTokenResolver.issue(ip, location, request, response);
+        heavyHitters.recordResolved(location);
+
+        return location;
+    }
+
+    /**
+     * Returns the location of {@code ip}. When the IP range maps to a catalog entry the returned location
+     * carries its code, so callers can go straight to the code-based lookups.
+     */
+    public Location getLocation(NumericIP ip) throws GeolocationException {
+        return resolve(ip, null);
+    }
+
+    private Location resolve(NumericIP ip, HttpServletRequest request) {
+        for (Tier tier : tiers) {
+            long startedAt = System.nanoTime();
+            Location location;
+
+            try {
+                location = tier.resolver.resolve(ip, request);
+            } catch (GeolocationException ex) {
+                tier.record(tier.errors, startedAt);
+                throw ex;
+            }
+
+            if (location != null) {
+                tier.record(tier.hits, startedAt);
+                return withCatalogCode(location);
+            }
+
+            tier.record(tier.passes, startedAt);
+        }
+
+        // The BIN file tier never passes
+        throw new IllegalStateException("No geolocation resolver answered for " + ip);
+    }
+
+    /**
+     * Attaches the catalog code to a location only known by (country code, city name), so callers skip
+     * the city query. Locations outside the catalog are returned as they are.
+     */
+    private Location withCatalogCode(Location location) {
+        if (location.getCode() != null) {
+            return location;
+        }
+
+        Location cataloged = locationCatalog.findByCountryCodeAndCityName(location.getCountryCode(), location.getCityName());
+        return cataloged != null ? cataloged : location;
+    }
+
+    /**
+     * Per-tier statistics in chain order. {@code share} is the fraction of all answered lookups
+     * (hits and errors) that the tier answered.
+     */
+    public List<ResolverStats> getResolverStats() {
+        long answered = 0;
+        for (Tier tier : tiers) {
+            answered += tier.hits.sum() + tier.errors.sum();
+        }
+
+        List<ResolverStats> stats = new ArrayList<>(tiers.length);
+        for (Tier tier : tiers) {
+            long hits = tier.hits.sum();
+            long passes = tier.passes.sum();
+            long errors = tier.errors.sum();
+            long calls = hits + passes + errors;
+
+            stats.add(new ResolverStats(
+                    tier.resolver.name(),
+                    hits,
+                    passes,
+                    errors,
+                    answered == 0 ? 0.0 : (double) (hits + errors) / answered,
+                    calls == 0 ? 0.0 : tier.nanos.sum() / 1000.0 / calls));
+        }
+        return stats;
+    }
+
+    /**
+     * Geolocates a batch of addresses, in parallel for large batches. Results keep the order of
+     * {@code ipAddresses}; an address that cannot be resolved gets an error instead of failing the batch.
+     */
+    public List<GeolocationResult> getLocations(List<String> ipAddresses) {
+        return (ipAddresses.size() < PARALLEL_THRESHOLD ? ipAddresses.stream() : ipAddresses.parallelStream())
+                .map(this::resolve)
+                .toList();
+    }
+
+    private GeolocationResult resolve(String ipAddress) {
+        try {
+            return new GeolocationResult(ipAddress, getLocation(ipAddress), null);
+        } catch (GeolocationException ex) {
+            return new GeolocationResult(ipAddress, null, ex.getMessage());
+        }
+    }
+
+    /**
+     * Builds the IP range to location code index in the background once the catalog is reachable.
+     * Until it is ready, lookups fall back to the BIN file and the (country code, city name) query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildLocationCodeIndex() {
+        if (!locationCodeIndex.isEnabled()) {
+            return;
+        }
+
+        reloadExecutor.execute(() -> {
+            try {
+                if (active.reader() instanceof MappedIP2LocationReader mappedReader) {
+                    locationCodeIndex.rebuild(mappedReader);
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.error("Could not build the IP range index", ex);
+            }
+        });
+    }
+
+    /**
+     * Opens and validates the configured database in the background, then swaps it in.
+     * Concurrent calls share the reload that is already pending.
+     */
+    public synchronized CompletableFuture<DatabaseStatus> reload() {
+        if (pendingReload != null && !pendingReload.isDone()) {
+            return pendingReload;
+        }
+
+        pendingReload = CompletableFuture.supplyAsync(this::reloadNow, reloadExecutor);
+        return pendingReload;
+    }
+
+    public DatabaseStatus getStatus() {
+        ActiveReader current = active;
+        return new DatabaseStatus(database.getDescription(), current.reader().databaseVersion(),
+                current.generation(), current.loadedAt(), lastReloadError);
+    }
+
+    @PreDestroy
+    public void close() {
+        reloadExecutor.shutdownNow();
+        active.reader().close();
+    }
+
+    private DatabaseStatus reloadNow() {
+        GeolocationReader newReader;
 
         try {
-            IPResult result = ipLocator.IPQuery(ipAddress);
+            newReader = openReader(database, readerMode);
+            newReader.match(PROBE_IP);
+        } catch (IOException | RuntimeException ex) {
+            lastReloadError = ex.getMessage();
+            LOGGER.error("Rejected IP2Location database {}: {}", database.getDescription(), ex.getMessage());
+            throw new GeolocationException("Could not reload the IP2Location database", ex);
+        }
+
+        // Build the new ranges before the swap, the old index keeps serving in the meantime
+        if (newReader instanceof MappedIP2LocationReader mappedReader) {
+            locationCodeIndex.rebuild(mappedReader);
+        }
+
+        ActiveReader previous = active;
+        long generation = previous.generation() + 1;
+        active = new ActiveReader(newReader, generation, Instant.now());
+        geolocationCache.invalidateAll(generation);
+        failedLookupCache.invalidateAll();
+        lastReloadError = null;
+
+        // Give in-flight lookups time to finish before releasing the old database
+        CompletableFuture.runAsync(() -> previous.reader().close(),
+                CompletableFuture.delayedExecutor(closeDelay.toMillis(), TimeUnit.MILLISECONDS));
+
+        LOGGER.info("Reloaded IP2Location database {} ({}), generation {}",
+                database.getDescription(), newReader.databaseVersion(), generation);
+
+        return getStatus();
+    }
 
-            if (!"OK".equals(result.getStatus())) {
-                throw new GeolocationException("Geolocation failed with status: " + result.getStatus());
+    static GeolocationReader openReader(Resource database, String readerMode) throws IOException {
+        if ("library".equalsIgnoreCase(readerMode)) {
+            // The library needs a real file path, so this mode does not work from inside the packaged jar
+            return new LibraryIP2LocationReader(database.getFile().getAbsolutePath());
+        }
+
+        MappedIP2LocationReader reader = MappedIP2LocationReader.open(database);
+        LOGGER.info("Loaded IP2Location database {} ({})", database.getFilename(), reader.databaseVersion());
+        return reader;
+    }
+
+    public record ResolverStats(String name,
+                                long hits,
+                                long passes,
+                                long errors,
+                                double share,
+                                double averageMicros) {
+    }
+
+    public record DatabaseStatus(String database,
+                                 String version,
+                                 long generation,
+                                 Instant loadedAt,
+                                 String lastReloadError) {
+    }
+
+    private record ActiveReader(GeolocationReader reader, long generation, Instant loadedAt) {
+    }
+
+    /**
+     * Last tier: the BIN file. Remembers failures and caches results for the cache tier.
+     */
+    private final class DatabaseResolver implements GeolocationResolver {
+
+        @Override
+        public String name() {
+            return "database";
+        }
+
+        @Override
+        public Location resolve(NumericIP ip, HttpServletRequest request) throws GeolocationException {
+            String failure = failedLookupCache.get(ip);
+
+            if (failure != null) {
+                throw new GeolocationException(failure, false);
+            }
+
+            // In-flight lookups keep using the reader they started with, even if a reload swaps it meanwhile
+            ActiveReader current = active;
+            GeolocationMatch match;
+
+            try {
+                match = current.reader().match(ip);
+            } catch (GeolocationException ex) {
+                failedLookupCache.put(ip, ex.getMessage());
+                throw ex;
             }
 
-            LOGGER.info(result.toString());
+            geolocationCache.put(ip, match, current.generation());
 
-            return new Location(result.getCity(), result.getRegion(), result.getCountryLong(), result.getCountryShort());
+            return match.location();
+        }
+    }
 
-        } catch (IOException ex) {
-            throw new GeolocationException("Error querying IP database", ex);
+    private static final class Tier {
+        private final GeolocationResolver resolver;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder passes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private Tier(GeolocationResolver resolver) {
+            this.resolver = resolver;
         }
 
+        private void record(LongAdder outcome, long startedAt) {
+            outcome.increment();
+            nanos.add(System.nanoTime() - startedAt);
+        }
     }
 }
@@ -0,0 +1,69 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.location.Location;
+import com.ip2location.IP2Location;
+import com.ip2location.IPResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Reader backed by the ip2location-java library, which goes through {@link IP2Location#IPQuery(String)}.
+ */
+public class LibraryIP2LocationReader implements GeolocationReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LibraryIP2LocationReader.class);
+
+    private final IP2Location ipLocator = new IP2Location();
+
+    public LibraryIP2LocationReader(String dbPath) throws IOException {
+        ipLocator.Open(dbPath);
+    }
+
+    @Override
+    public Location lookup(String ipAddress) throws GeolocationException {
+        try {
+            IPResult result = ipLocator.IPQuery(ipAddress);
+
+            if (!"OK".equals(result.getStatus())) {
+                throw new GeolocationException("Geolocation failed with status: " + result.getStatus());
+            }
+
+            LOGGER.info(result.toString());
+
+            return new Location(result.getCity(), result.getRegion(), result.getCountryLong(), result.getCountryShort());
+
+        } catch (IOException ex) {
+            throw new GeolocationException("Error querying IP database", ex);
+        }
+    }
+
+    /**
+     * The library does not expose the matching row, so the block is the address itself.
+     */
+    @Override
+    public GeolocationMatch match(NumericIP ip) throws GeolocationException {
+        long ipv4 = ip.embeddedIPv4();
+
+        if (ipv4 >= 0) {
+            return new GeolocationMatch(lookup(NumericIP.ofIPv4(ipv4).toString()), ipv4, ipv4);
+        }
+
+        return new GeolocationMatch(lookup(ip.toString()), -1, -1);
+    }
+
+    /**
+     * The library does not expose the database header.
+     */
+    @Override
+    public String databaseVersion() {
+        return "unknown";
+    }
+
+    @Override
+    public void close() {
+        ipLocator.Close();
+    }
+}
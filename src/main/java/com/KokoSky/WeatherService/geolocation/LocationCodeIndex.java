@@ -0,0 +1,320 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled index from IP ranges straight to catalog locations.
+ * <p>
+ * The index is built by walking every row of the BIN file once: consecutive rows that point at the same
+ * (country code, city) strings are merged into one range, and each distinct pair is joined against the
+ * untrashed catalog. Resolving an IP is then a binary search that returns a shared transient
+ * {@link Location} carrying the catalog code, so IP endpoints can skip the (country code, city name) query.
+ * <p>
+ * The ranges never change for a given BIN file. Catalog changes only swap the small key-to-location
+ * array, which makes {@link LocationChangedEvent} handling incremental. Readers never lock.
+ */
+@Component
+@Order(20)
+public class LocationCodeIndex implements GeolocationResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocationCodeIndex.class);
+
+    private final LocationRepository locationRepository;
+    private final boolean enabled;
+    private final StringDictionary dictionary;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+
+    public LocationCodeIndex(
+            LocationRepository locationRepository,
+            @Value("${geolocation.code-index.enabled:true}") boolean enabled,
+            StringDictionary dictionary
+    ) {
+        this.locationRepository = locationRepository;
+        this.enabled = enabled;
+        this.dictionary = dictionary;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the catalog location whose (country code, city name) matches the BIN row of {@code ip},
+     * or {@code null} when the index is not built yet or the row has no catalog entry.
+     */
+    public Location find(NumericIP ip) {
+        Snapshot current = snapshot;
+
+        if (current == null) {
+            return null;
+        }
+
+        long ipv4 = ip.embeddedIPv4();
+        int keyId = ipv4 >= 0
+                ? current.ipv4Ranges.find(0L, ipv4)
+                : current.ipv6Ranges.find(ip.high(), ip.low());
+
+        return keyId < 0 ? null : current.locationByKey[keyId];
+    }
+
+    /**
+     * Returns {@code true} once the index has been built and tracks the catalog.
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Returns the untrashed catalog location with {@code code}, or {@code null} if there is none
+     * or the index is not built yet.
+     */
+    public Location findByCode(String code) {
+        Snapshot current = snapshot;
+        return current == null ? null : current.catalog.get(code);
+    }
+
+    @Override
+    public String name() {
+        return "code-index";
+    }
+
+    @Override
+    public Location resolve(NumericIP ip, HttpServletRequest request) {
+        return find(ip);
+    }
+
+    /**
+     * Rebuilds the ranges from {@code reader} and joins them against the current catalog.
+     */
+    public void rebuild(MappedIP2LocationReader reader) {
+        if (!enabled || !reader.hasCity()) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+
+        Map<String, Integer> keyIds = new HashMap<>();
+        RangeTable ipv4Ranges = RangeTable.scanIPv4(reader, keyIds);
+        RangeTable ipv6Ranges = RangeTable.scanIPv6(reader, keyIds);
+
+        String[] keyNames = new String[keyIds.size()];
+        keyIds.forEach((name, id) -> keyNames[id] = name);
+
+        int matched;
+        synchronized (writeLock) {
+            TreeMap<String, Location> catalog = new TreeMap<>();
+            for (Location location : locationRepository.findAllUntrashedLocations()) {
+                catalog.put(location.getCode(), transientCopy(location));
+            }
+
+            Location[] locationByKey = new Location[keyNames.length];
+            for (Location location : catalog.values()) {
+                Integer keyId = keyIds.get(keyOf(location));
+                if (keyId != null && locationByKey[keyId] == null) {
+                    locationByKey[keyId] = location;
+                }
+            }
+            matched = (int) Arrays.stream(locationByKey).filter(l -> l != null).count();
+
+            snapshot = new Snapshot(ipv4Ranges, ipv6Ranges, keyIds, catalog, locationByKey);
+        }
+
+        LOGGER.info("Built IP range index: {} IPv4 ranges, {} IPv6 ranges, {} cities of which {} are in the catalog ({} ms)",
+                ipv4Ranges.size(), ipv6Ranges.size(), keyNames.length, matched,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+
+            if (current == null) {
+                return;
+            }
+
+            TreeMap<String, Location> catalog = new TreeMap<>(current.catalog);
+            Location previous = catalog.remove(event.code());
+
+            if (!event.isDeleted()) {
+                catalog.put(event.code(), transientCopy(event.location()));
+            }
+
+            Location[] locationByKey = current.locationByKey.clone();
+            if (previous != null) {
+                reassign(keyOf(previous), current.keyIds, catalog, locationByKey);
+            }
+            if (!event.isDeleted()) {
+                reassign(keyOf(event.location()), current.keyIds, catalog, locationByKey);
+            }
+
+            snapshot = new Snapshot(current.ipv4Ranges, current.ipv6Ranges, current.keyIds, catalog, locationByKey);
+        }
+    }
+
+    private static void reassign(String keyName, Map<String, Integer> keyIds,
+                                 TreeMap<String, Location> catalog, Location[] locationByKey) {
+        Integer keyId = keyIds.get(keyName);
+
+        if (keyId == null) {
+            return;
+        }
+
+        locationByKey[keyId] = catalog.values().stream()
+                .filter(location -> keyName.equals(keyOf(location)))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String keyOf(Location location) {
+        return keyOf(location.getCountryCode(), location.getCityName());
+    }
+
+    private static String keyOf(String countryCode, String cityName) {
+        return countryCode + '\u0000' + cityName;
+    }
+
+    private Location transientCopy(Location location) {
+        Location copy = new Location(location.getCityName(), dictionary.intern(location.getRegionName()),
+                dictionary.intern(location.getCountryName()), dictionary.intern(location.getCountryCode()));
+        copy.setCode(location.getCode());
+        copy.setEnabled(location.isEnabled());
+        return copy;
+    }
+
+    private record Snapshot(RangeTable ipv4Ranges,
+                            RangeTable ipv6Ranges,
+                            Map<String, Integer> keyIds,
+                            TreeMap<String, Location> catalog,
+                            Location[] locationByKey) {
+    }
+
+    /**
+     * Sorted range starts with the (country code, city) key id of each range.
+     * IPv4 tables leave {@code startHigh} null.
+     */
+    private static final class RangeTable {
+        private final long[] startHigh;
+        private final long[] startLow;
+        private final int[] keys;
+
+        private RangeTable(long[] startHigh, long[] startLow, int[] keys) {
+            this.startHigh = startHigh;
+            this.startLow = startLow;
+            this.keys = keys;
+        }
+
+        private int size() {
+            return keys.length;
+        }
+
+        private static RangeTable scanIPv4(MappedIP2LocationReader reader, Map<String, Integer> keyIds) {
+            int rows = reader.ipv4RowCount();
+            long[] startLow = new long[rows];
+            int[] keys = new int[rows];
+            Map<Long, Integer> keyIdsByPointer = new HashMap<>();
+            int size = 0;
+
+            for (int i = 0; i < rows; i++) {
+                int row = reader.ipv4RowAt(i);
+                int keyId = keyId(reader, reader.ipv4LocationKey(row), keyIdsByPointer, keyIds);
+
+                if (size == 0 || keys[size - 1] != keyId) {
+                    startLow[size] = reader.ipv4RangeStart(row);
+                    keys[size] = keyId;
+                    size++;
+                }
+            }
+
+            return new RangeTable(null, Arrays.copyOf(startLow, size), Arrays.copyOf(keys, size));
+        }
+
+        private static RangeTable scanIPv6(MappedIP2LocationReader reader, Map<String, Integer> keyIds) {
+            int rows = reader.ipv6RowCount();
+            long[] startHigh = new long[rows];
+            long[] startLow = new long[rows];
+            int[] keys = new int[rows];
+            Map<Long, Integer> keyIdsByPointer = new HashMap<>();
+            int size = 0;
+
+            for (int i = 0; i < rows; i++) {
+                int row = reader.ipv6RowAt(i);
+                int keyId = keyId(reader, reader.ipv6LocationKey(row), keyIdsByPointer, keyIds);
+
+                if (size == 0 || keys[size - 1] != keyId) {
+                    startHigh[size] = reader.ipv6RangeStartHigh(row);
+                    startLow[size] = reader.ipv6RangeStartLow(row);
+                    keys[size] = keyId;
+                    size++;
+                }
+            }
+
+            return new RangeTable(Arrays.copyOf(startHigh, size), Arrays.copyOf(startLow, size),
+                    Arrays.copyOf(keys, size));
+        }
+
+        private static int keyId(MappedIP2LocationReader reader, long locationKey,
+                                 Map<Long, Integer> keyIdsByPointer, Map<String, Integer> keyIds) {
+            Integer keyId = keyIdsByPointer.get(locationKey);
+
+            if (keyId == null) {
+                String name = keyOf(reader.countryCodeOf(locationKey), reader.cityOf(locationKey));
+                keyId = keyIds.computeIfAbsent(name, k -> keyIds.size());
+                keyIdsByPointer.put(locationKey, keyId);
+            }
+
+            return keyId;
+        }
+
+        /**
+         * Returns the key id of the last range starting at or before the address, or -1.
+         */
+        private int find(long high, long low) {
+            int lo = 0;
+            int hi = keys.length - 1;
+            int found = -1;
+
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (compareStart(mid, high, low) <= 0) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+
+            return found < 0 ? -1 : keys[found];
+        }
+
+        private int compareStart(int index, long high, long low) {
+            if (startHigh != null) {
+                int result = Long.compareUnsigned(startHigh[index], high);
+                if (result != 0) {
+                    return result;
+                }
+                return Long.compareUnsigned(startLow[index], low);
+            }
+            return Long.compare(startLow[index], low);
+        }
+    }
+}
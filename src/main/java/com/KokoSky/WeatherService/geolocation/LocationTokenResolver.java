@@ -0,0 +1,256 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and verifies a compact signed token carrying a resolved location code, so repeat IP-based
+ * calls from the same client can skip geolocation.
+ * <p>
+ * The token is {@code base64url(version | expiry | code | mac)} where the mac is a truncated
+ * HMAC-SHA256 over the payload and, when {@code geolocation.token.bind-to-network} is set, the client's
+ * /24 (IPv4) or /48 (IPv6) network, so a client that moves networks is geolocated again.
+ * It is returned in a header and a cookie, and read back from either.
+ */
+@Component
+@Order(-10)
+public class LocationTokenResolver implements GeolocationResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocationTokenResolver.class);
+
+    private static final String ACCEPTED_ATTRIBUTE = LocationTokenResolver.class.getName() + ".accepted";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 5;
+    private static final int MAC_LENGTH = 12;
+    private static final int MAX_CODE_LENGTH = 12;
+
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final String headerName;
+    private final String cookieName;
+    private final boolean bindToNetwork;
+    private final LocationCodeIndex locationCodeIndex;
+    private final LongSupplier epochSeconds;
+
+    // Mac is not thread-safe; each thread keeps one initialised with the key
+    private final ThreadLocal<Mac> macs;
+
+    public LocationTokenResolver(
+            @Value("${geolocation.token.enabled:true}") boolean enabled,
+            @Value("${geolocation.token.secret:}") String secret,
+            @Value("${geolocation.token.ttl:10m}") Duration ttl,
+            @Value("${geolocation.token.header:X-Location-Token}") String headerName,
+            @Value("${geolocation.token.cookie:location_token}") String cookieName,
+            @Value("${geolocation.token.bind-to-network:true}") boolean bindToNetwork,
+            LocationCodeIndex locationCodeIndex
+    ) {
+        this(enabled, secret, ttl, headerName, cookieName, bindToNetwork, locationCodeIndex,
+                () -> System.currentTimeMillis() / 1000);
+    }
+
+    LocationTokenResolver(boolean enabled, String secret, Duration ttl, String headerName, String cookieName,
+                          boolean bindToNetwork, LocationCodeIndex locationCodeIndex, LongSupplier epochSeconds) {
+        this.enabled = enabled;
+        this.ttlSeconds = ttl.toSeconds();
+        this.headerName = headerName;
+        this.cookieName = cookieName;
+        this.bindToNetwork = bindToNetwork;
+        this.locationCodeIndex = locationCodeIndex;
+        this.epochSeconds = epochSeconds;
+
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            if (enabled) {
+                LOGGER.warn("geolocation.token.secret is not set, location tokens are only valid on this instance");
+            }
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Could not initialise " + ALGORITHM, ex);
+            }
+        });
+    }
+
+    @Override
+    public String name() {
+        return "token";
+    }
+
+    @Override
+    public Location resolve(NumericIP ip, HttpServletRequest request) {
+        if (!enabled || request == null) {
+            return null;
+        }
+
+        String token = request.getHeader(headerName);
+
+        if (token == null) {
+            token = cookieValue(request);
+        }
+
+        String code = token == null ? null : verify(token, ip);
+
+        if (code == null) {
+            return null;
+        }
+
+        Location location;
+        if (locationCodeIndex.isReady()) {
+            // Ignore tokens for locations deleted since they were issued
+            location = locationCodeIndex.findByCode(code);
+            if (location == null) {
+                return null;
+            }
+        } else {
+            location = Location.builder().code(code).build();
+        }
+
+        request.setAttribute(ACCEPTED_ATTRIBUTE, Boolean.TRUE);
+        return location;
+    }
+
+    /**
+     * Adds a token for {@code location} to {@code response}, unless the request already carried a valid one
+     * or the location has no catalog code.
+     */
+    public void issue(NumericIP ip, Location location, HttpServletRequest request, HttpServletResponse response) {
+        if (!enabled || response == null || location.getCode() == null
+                || request.getAttribute(ACCEPTED_ATTRIBUTE) != null) {
+            return;
+        }
+
+        String token = sign(location.getCode(), ip, epochSeconds.getAsLong() + ttlSeconds);
+
+        if (token == null) {
+            return;
+        }
+
+        response.setHeader(headerName, token);
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(cookieName, token)
+                .path("/")
+                .maxAge(ttlSeconds)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build()
+                .toString());
+    }
+
+    String sign(String code, NumericIP ip, long expiresAt) {
+        byte[] codeBytes = code.getBytes(StandardCharsets.US_ASCII);
+
+        if (codeBytes.length == 0 || codeBytes.length > MAX_CODE_LENGTH) {
+            return null;
+        }
+
+        byte[] token = new byte[HEADER_LENGTH + codeBytes.length + MAC_LENGTH];
+        token[0] = VERSION;
+        token[1] = (byte) (expiresAt >>> 24);
+        token[2] = (byte) (expiresAt >>> 16);
+        token[3] = (byte) (expiresAt >>> 8);
+        token[4] = (byte) expiresAt;
+        System.arraycopy(codeBytes, 0, token, HEADER_LENGTH, codeBytes.length);
+
+        byte[] mac = mac(token, HEADER_LENGTH + codeBytes.length, ip);
+        System.arraycopy(mac, 0, token, HEADER_LENGTH + codeBytes.length, MAC_LENGTH);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    /**
+     * Returns the location code of a valid, unexpired token, or {@code null}.
+     */
+    String verify(String token, NumericIP ip) {
+        byte[] bytes;
+
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+
+        int payloadLength = bytes.length - MAC_LENGTH;
+
+        if (payloadLength <= HEADER_LENGTH || payloadLength > HEADER_LENGTH + MAX_CODE_LENGTH || bytes[0] != VERSION) {
+            return null;
+        }
+
+        long expiresAt = ((bytes[1] & 0xFFL) << 24) | ((bytes[2] & 0xFFL) << 16) | ((bytes[3] & 0xFFL) << 8) | (bytes[4] & 0xFFL);
+
+        if (expiresAt <= epochSeconds.getAsLong()) {
+            return null;
+        }
+
+        byte[] expected = mac(bytes, payloadLength, ip);
+
+        // Constant-time comparison of the truncated mac
+        int difference = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            difference |= expected[i] ^ bytes[payloadLength + i];
+        }
+
+        if (difference != 0) {
+            return null;
+        }
+
+        return new String(bytes, HEADER_LENGTH, payloadLength - HEADER_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    private byte[] mac(byte[] payload, int length, NumericIP ip) {
+        Mac mac = macs.get();
+        mac.update(payload, 0, length);
+
+        if (bindToNetwork) {
+            long network = ip.ipv6() ? ip.high() & 0xFFFFFFFFFFFF0000L : ip.low() & 0xFFFFFF00L;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                mac.update((byte) (network >>> shift));
+            }
+        }
+
+        return mac.doFinal();
+    }
+
+    private String cookieValue(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+
+        if (cookies == null) {
+            return null;
+        }
+
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,405 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.location.Location;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader that keeps the whole IP2Location BIN file in one read-only buffer.
+ * <p>
+ * The file is memory-mapped when the resource lives on disk, otherwise the resource stream is
+ * copied once into an off-heap buffer, so it also works from inside the packaged jar.
+ * Lookups only use absolute reads on the shared buffer, which makes them safe to run concurrently
+ * without locking. Nothing is allocated until the resulting {@link Location} is built.
+ * <p>
+ * Addresses stored in the BIN header and index are 1-based, string pointers are 0-based.
+ */
+public class MappedIP2LocationReader implements GeolocationReader {
+
+    static final String INVALID_IP_ADDRESS = "INVALID_IP_ADDRESS";
+    static final String IPV6_NOT_SUPPORTED = "IPV6_NOT_SUPPORTED";
+    static final String IP_ADDRESS_NOT_FOUND = "IP_ADDRESS_NOT_FOUND";
+
+    public static final int NOT_FOUND = -1;
+
+    private static final long MAX_IPV4 = 0xFFFFFFFFL;
+    private static final int HEADER_SIZE = 64;
+
+    private final ByteBuffer buffer;
+
+    private final int dbType;
+    private final int dbYear;
+    private final int dbMonth;
+    private final int dbDay;
+
+    private final int ipv4Count;
+    private final int ipv4Base;
+    private final int ipv4IndexBase;
+    private final int ipv4ColumnSize;
+
+    private final int ipv6Count;
+    private final int ipv6Base;
+    private final int ipv6IndexBase;
+    private final int ipv6ColumnSize;
+
+    // Offsets of the pointer columns inside a row, counted from the end of the IP-from column
+    private final int countryOffset;
+    private final int regionOffset;
+    private final int cityOffset;
+
+    MappedIP2LocationReader(ByteBuffer source) throws IOException {
+        this.buffer = source.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.limit() < HEADER_SIZE) {
+            throw new IOException("IP2Location BIN file is too small");
+        }
+
+        this.dbType = buffer.get(0) & 0xFF;
+        int dbColumn = buffer.get(1) & 0xFF;
+        this.dbYear = buffer.get(2) & 0xFF;
+        this.dbMonth = buffer.get(3) & 0xFF;
+        this.dbDay = buffer.get(4) & 0xFF;
+        this.ipv4Count = buffer.getInt(5);
+        this.ipv4Base = buffer.getInt(9);
+        this.ipv6Count = buffer.getInt(13);
+        this.ipv6Base = buffer.getInt(17);
+        this.ipv4IndexBase = buffer.getInt(21);
+        this.ipv6IndexBase = buffer.getInt(25);
+        int productCode = buffer.get(29) & 0xFF;
+
+        // Same check as the library: only BINs from 2021 onwards carry the product code,
+        // and a zip archive starts with "PK" (dbType 80, dbColumn 75)
+        if ((productCode != 1 && dbYear >= 21) || (dbType == 80 && dbColumn == 75) || dbColumn < 2) {
+            throw new IOException("Incorrect IP2Location BIN file format");
+        }
+
+        this.ipv4ColumnSize = dbColumn << 2;
+        this.ipv6ColumnSize = 16 + ((dbColumn - 1) << 2);
+
+        checkTable(ipv4Count, ipv4Base, ipv4ColumnSize);
+        checkTable(ipv6Count, ipv6Base, ipv6ColumnSize);
+
+        this.countryOffset = dbType >= 1 ? 0 : -1;
+        this.regionOffset = dbType >= 3 ? 4 : -1;
+        this.cityOffset = dbType >= 3 ? 8 : -1;
+    }
+
+    /**
+     * Opens the BIN file behind {@code resource}, mapping it when it is a plain file.
+     */
+    public static MappedIP2LocationReader open(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                return new MappedIP2LocationReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        // Only ask for the length when it does not consume the stream
+        long contentLength = -1;
+        if (!resource.isOpen()) {
+            try {
+                contentLength = resource.contentLength();
+            } catch (IOException ex) {
+                contentLength = -1;
+            }
+        }
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new MappedIP2LocationReader(loadOffHeap(inputStream, contentLength));
+        }
+    }
+
+    private static ByteBuffer loadOffHeap(InputStream inputStream, long contentLength) throws IOException {
+        if (contentLength > Integer.MAX_VALUE) {
+            throw new IOException("IP2Location BIN file is too large for one buffer: " + contentLength + " bytes");
+        }
+
+        // Exactly sized when the length is known, so the buffer only grows if the length was wrong
+        ByteBuffer target = ByteBuffer.allocateDirect(contentLength > 0 ? (int) contentLength : 64 * 1024 * 1024);
+        ReadableByteChannel channel = Channels.newChannel(inputStream);
+
+        while (channel.read(target) >= 0) {
+            if (target.hasRemaining()) {
+                continue;
+            }
+
+            // Grow only when the stream actually has more data
+            int next = inputStream.read();
+
+            if (next < 0) {
+                break;
+            }
+
+            if (target.capacity() == Integer.MAX_VALUE) {
+                throw new IOException("IP2Location BIN file is too large for one buffer");
+            }
+
+            ByteBuffer larger = ByteBuffer.allocateDirect((int) Math.min(2L * target.capacity(), Integer.MAX_VALUE));
+            target.flip();
+            larger.put(target);
+            larger.put((byte) next);
+            target = larger;
+        }
+
+        target.flip();
+        return target;
+    }
+
+    private void checkTable(int count, int base, int columnSize) throws IOException {
+        if (count < 0 || (count > 0 && (base < 1 || (long) base - 1 + (long) (count + 1) * columnSize > buffer.limit()))) {
+            throw new IOException("IP2Location BIN file is truncated or corrupted");
+        }
+    }
+
+    @Override
+    public Location lookup(String ipAddress) throws GeolocationException {
+        NumericIP ip = NumericIP.parse(ipAddress);
+
+        if (ip == null) {
+            throw new GeolocationException("Geolocation failed with status: " + INVALID_IP_ADDRESS);
+        }
+
+        return match(ip).location();
+    }
+
+    @Override
+    public GeolocationMatch match(NumericIP ip) throws GeolocationException {
+        long ipv4 = ip.embeddedIPv4();
+
+        if (ipv4 >= 0) {
+            int row = findIPv4Row(ipv4);
+            if (row == NOT_FOUND) {
+                throw new GeolocationException("Geolocation failed with status: " + IP_ADDRESS_NOT_FOUND);
+            }
+            return new GeolocationMatch(ipv4Location(row), ipv4RangeStart(row), ipv4RangeEnd(row));
+        }
+
+        if (ipv6Count == 0) {
+            throw new GeolocationException("Geolocation failed with status: " + IPV6_NOT_SUPPORTED);
+        }
+
+        int row = findIPv6Row(ip.high(), ip.low());
+        if (row == NOT_FOUND) {
+            throw new GeolocationException("Geolocation failed with status: " + IP_ADDRESS_NOT_FOUND);
+        }
+        return new GeolocationMatch(ipv6Location(row), -1, -1);
+    }
+
+    /**
+     * Binary searches the IPv4 table, returning the 0-based offset of the matching row or {@link #NOT_FOUND}.
+     */
+    public int findIPv4Row(long ipNumber) {
+        if (ipv4Count == 0) {
+            return NOT_FOUND;
+        }
+
+        if (ipNumber >= MAX_IPV4) {
+            ipNumber = MAX_IPV4 - 1;
+        }
+
+        int low = 0;
+        int high = ipv4Count;
+
+        if (ipv4IndexBase > 0) {
+            int indexOffset = ipv4IndexBase - 1 + ((int) (ipNumber >>> 16) << 3);
+            low = buffer.getInt(indexOffset);
+            high = buffer.getInt(indexOffset + 4);
+        }
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int rowOffset = ipv4Base - 1 + mid * ipv4ColumnSize;
+
+            long ipFrom = readUnsignedInt(rowOffset);
+            long ipTo = readUnsignedInt(rowOffset + ipv4ColumnSize);
+
+            if (ipNumber < ipFrom) {
+                high = mid - 1;
+            } else if (ipNumber >= ipTo) {
+                low = mid + 1;
+            } else {
+                return rowOffset;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Binary searches the IPv6 table, returning the 0-based offset of the matching row or {@link #NOT_FOUND}.
+     */
+    public int findIPv6Row(long ipHigh, long ipLow) {
+        if (ipv6Count == 0) {
+            return NOT_FOUND;
+        }
+
+        if (ipHigh == -1L && ipLow == -1L) {
+            ipLow = -2L;
+        }
+
+        int low = 0;
+        int high = ipv6Count;
+
+        if (ipv6IndexBase > 0) {
+            int indexOffset = ipv6IndexBase - 1 + ((int) (ipHigh >>> 48) << 3);
+            low = buffer.getInt(indexOffset);
+            high = buffer.getInt(indexOffset + 4);
+        }
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int rowOffset = ipv6Base - 1 + mid * ipv6ColumnSize;
+
+            if (compareIPv6(ipHigh, ipLow, rowOffset) < 0) {
+                high = mid - 1;
+            } else if (compareIPv6(ipHigh, ipLow, rowOffset + ipv6ColumnSize) >= 0) {
+                low = mid + 1;
+            } else {
+                return rowOffset;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * First address of the IPv4 block described by {@code row}.
+     */
+    public long ipv4RangeStart(int row) {
+        return readUnsignedInt(row);
+    }
+
+    /**
+     * Last address (inclusive) of the IPv4 block described by {@code row}.
+     */
+    public long ipv4RangeEnd(int row) {
+        return readUnsignedInt(row + ipv4ColumnSize) - 1;
+    }
+
+    public int ipv4RowCount() {
+        return ipv4Count;
+    }
+
+    public int ipv4RowAt(int index) {
+        return ipv4Base - 1 + index * ipv4ColumnSize;
+    }
+
+    public int ipv6RowCount() {
+        return ipv6Count;
+    }
+
+    public int ipv6RowAt(int index) {
+        return ipv6Base - 1 + index * ipv6ColumnSize;
+    }
+
+    /**
+     * Upper 64 bits of the first address of the IPv6 block described by {@code row}.
+     */
+    public long ipv6RangeStartHigh(int row) {
+        return buffer.getLong(row + 8);
+    }
+
+    /**
+     * Lower 64 bits of the first address of the IPv6 block described by {@code row}.
+     */
+    public long ipv6RangeStartLow(int row) {
+        return buffer.getLong(row);
+    }
+
+    public boolean hasCity() {
+        return cityOffset >= 0;
+    }
+
+    /**
+     * Packs the country and city string pointers of an IPv4 row. Rows pointing at the same strings
+     * share a key, which lets callers decode each distinct (country, city) pair only once.
+     */
+    public long ipv4LocationKey(int row) {
+        return locationKey(row + 4);
+    }
+
+    public long ipv6LocationKey(int row) {
+        return locationKey(row + 16);
+    }
+
+    public String countryCodeOf(long locationKey) {
+        return readString((int) (locationKey >>> 32));
+    }
+
+    public String cityOf(long locationKey) {
+        return readString((int) locationKey);
+    }
+
+    public Location ipv4Location(int row) {
+        return location(row + 4);
+    }
+
+    public Location ipv6Location(int row) {
+        return location(row + 16);
+    }
+
+    @Override
+    public String databaseVersion() {
+        return "DB%d 20%02d-%02d-%02d".formatted(dbType, dbYear, dbMonth, dbDay);
+    }
+
+    @Override
+    public void close() {
+        // The buffer is unmapped or freed once it is no longer reachable
+    }
+
+    private Location location(int fieldsOffset) {
+        String countryShort = null;
+        String countryLong = null;
+        String region = null;
+        String city = null;
+
+        if (countryOffset >= 0) {
+            int pointer = buffer.getInt(fieldsOffset + countryOffset);
+            countryShort = readString(pointer);
+            countryLong = readString(pointer + 3);
+        }
+
+        if (regionOffset >= 0) {
+            region = readString(buffer.getInt(fieldsOffset + regionOffset));
+        }
+
+        if (cityOffset >= 0) {
+            city = readString(buffer.getInt(fieldsOffset + cityOffset));
+        }
+
+        return new Location(city, region, countryLong, countryShort);
+    }
+
+    private long locationKey(int fieldsOffset) {
+        long countryPointer = buffer.getInt(fieldsOffset + countryOffset) & 0xFFFFFFFFL;
+        long cityPointer = buffer.getInt(fieldsOffset + cityOffset) & 0xFFFFFFFFL;
+        return (countryPointer << 32) | cityPointer;
+    }
+
+    private int compareIPv6(long ipHigh, long ipLow, int offset) {
+        int result = Long.compareUnsigned(ipHigh, buffer.getLong(offset + 8));
+        return result != 0 ? result : Long.compareUnsigned(ipLow, buffer.getLong(offset));
+    }
+
+    private long readUnsignedInt(int offset) {
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    private String readString(int pointer) {
+        int length = buffer.get(pointer) & 0xFF;
+        byte[] bytes = new byte[length];
+        buffer.get(pointer + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,249 @@
+package com.KokoSky.WeatherService.geolocation;
+
+/**
+ * Numeric form of an IPv4 or IPv6 address.
+ * <p>
+ * IPv4 addresses are held in the low 32 bits of {@code low} with {@code high} set to 0.
+ * IPv6 addresses use {@code high} and {@code low} as the upper and lower 64 bits.
+ * Parsing works directly on the characters, so the only allocation is the record itself.
+ */
+public record NumericIP(boolean ipv6, long high, long low) {
+
+    public static NumericIP ofIPv4(long address) {
+        return new NumericIP(false, 0L, address & 0xFFFFFFFFL);
+    }
+
+    public static NumericIP ofIPv6(long high, long low) {
+        return new NumericIP(true, high, low);
+    }
+
+    /**
+     * Parses a textual IPv4 or IPv6 address, returning {@code null} when it is not valid.
+     */
+    public static NumericIP parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses the address found in {@code text[start, end)}, ignoring surrounding spaces.
+     */
+    public static NumericIP parse(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        if (start >= end) {
+            return null;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ':') {
+                return parseIPv6(text, start, end);
+            }
+        }
+
+        long ipv4 = parseIPv4(text, start, end);
+        return ipv4 < 0 ? null : new NumericIP(false, 0L, ipv4);
+    }
+
+    /**
+     * Returns the unsigned IPv4 value of {@code text[start, end)}, or -1 when it is not a dotted quad.
+     */
+    static long parseIPv4(CharSequence text, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || octets == 3) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                octets++;
+                value = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+
+        return (result << 8) | value;
+    }
+
+    private static NumericIP parseIPv6(CharSequence text, int start, int end) {
+        // Drop the zone id, e.g. fe80::1%eth0
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+
+        long high = 0;
+        long low = 0;
+        int groups = 0;
+
+        long leftHigh = 0;
+        long leftLow = 0;
+        int leftGroups = 0;
+        boolean compressed = false;
+
+        int i = start;
+        if (end - start >= 2 && text.charAt(start) == ':' && text.charAt(start + 1) == ':') {
+            compressed = true;
+            i = start + 2;
+        } else if (text.charAt(start) == ':') {
+            return null;
+        }
+
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+
+            while (i < end && i - groupStart < 4) {
+                int digit = Character.digit(text.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+
+            if (i < end && text.charAt(i) == '.') {
+                // Embedded IPv4 tail, e.g. ::ffff:192.0.2.1
+                long ipv4 = parseIPv4(text, groupStart, end);
+                if (ipv4 < 0) {
+                    return null;
+                }
+                high = (high << 32) | (low >>> 32);
+                low = (low << 32) | ipv4;
+                groups += 2;
+                break;
+            }
+
+            if (i == groupStart) {
+                return null;
+            }
+
+            high = (high << 16) | (low >>> 48);
+            low = (low << 16) | value;
+            groups++;
+
+            if (leftGroups + groups > 8) {
+                return null;
+            }
+
+            if (i == end) {
+                break;
+            }
+
+            if (text.charAt(i) != ':') {
+                return null;
+            }
+
+            i++;
+
+            if (i < end && text.charAt(i) == ':') {
+                if (compressed) {
+                    return null;
+                }
+                compressed = true;
+                leftHigh = high;
+                leftLow = low;
+                leftGroups = groups;
+                high = 0;
+                low = 0;
+                groups = 0;
+                i++;
+            } else if (i == end) {
+                return null;
+            }
+        }
+
+        if (!compressed) {
+            return groups == 8 ? new NumericIP(true, high, low) : null;
+        }
+
+        if (leftGroups + groups > 7) {
+            return null;
+        }
+
+        // Move the groups written before "::" into their final position
+        int shift = 16 * (8 - leftGroups);
+        if (shift >= 128) {
+            leftHigh = 0;
+            leftLow = 0;
+        } else if (shift >= 64) {
+            leftHigh = leftLow << (shift - 64);
+            leftLow = 0;
+        } else {
+            leftHigh = (leftHigh << shift) | (leftLow >>> (64 - shift));
+            leftLow = leftLow << shift;
+        }
+
+        return new NumericIP(true, leftHigh | high, leftLow | low);
+    }
+
+    /**
+     * Returns the IPv4 address carried by an IPv4-mapped, 6to4 or Teredo IPv6 address, or -1 if none.
+     */
+    public long embeddedIPv4() {
+        if (!ipv6) {
+            return low;
+        }
+
+        // ::ffff:a.b.c.d
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            return low & 0xFFFFFFFFL;
+        }
+
+        // 6to4 2002::/16 carries the address in bits 16-48 of the upper half
+        if ((high >>> 48) == 0x2002L) {
+            return (high >>> 16) & 0xFFFFFFFFL;
+        }
+
+        // Teredo 2001:0000::/32 carries the obfuscated client address in the last 32 bits
+        if ((high >>> 32) == 0x20010000L) {
+            return ~low & 0xFFFFFFFFL;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        if (!ipv6) {
+            return ((low >>> 24) & 0xFF) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF) + "." + (low & 0xFF);
+        }
+
+        StringBuilder builder = new StringBuilder(39);
+        for (int group = 0; group < 8; group++) {
+            long half = group < 4 ? high : low;
+            int value = (int) (half >>> (48 - 16 * (group % 4))) & 0xFFFF;
+            if (group > 0) {
+                builder.append(':');
+            }
+            builder.append(Integer.toHexString(value));
+        }
+        return builder.toString();
+    }
+}
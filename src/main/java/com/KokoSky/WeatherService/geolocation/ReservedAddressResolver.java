@@ -0,0 +1,43 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.location.Location;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers loopback, private and other reserved addresses (see {@link ReservedAddresses}) with the
+ * configured default location, or rejects them, before any lookup structure is touched.
+ */
+@Component
+@Order(10)
+public class ReservedAddressResolver implements GeolocationResolver {
+
+    private final Location defaultLocation;
+
+    public ReservedAddressResolver(@Value("${geolocation.reserved.default-location:}") String defaultLocationCode) {
+        this.defaultLocation = defaultLocationCode == null || defaultLocationCode.isBlank()
+                ? null
+                : Location.builder().code(defaultLocationCode).build();
+    }
+
+    @Override
+    public String name() {
+        return "reserved";
+    }
+
+    @Override
+    public Location resolve(NumericIP ip, HttpServletRequest request) throws GeolocationException {
+        if (!ReservedAddresses.isReserved(ip)) {
+            return null;
+        }
+
+        if (defaultLocation == null) {
+            throw new GeolocationException("Geolocation failed with status: RESERVED_IP_ADDRESS", false);
+        }
+
+        return defaultLocation;
+    }
+}
@@ -0,0 +1,58 @@
+package com.KokoSky.WeatherService.geolocation;
+
+/**
+ * Classifies addresses that can never be geolocated: loopback, private, link-local, documentation,
+ * multicast and other special-purpose ranges (RFC 6890). Checked before the BIN file is touched.
+ */
+final class ReservedAddresses {
+
+    // Inclusive [start, end] pairs, sorted by start
+    private static final long[] IPV4_RANGES = {
+            0x00000000L, 0x00FFFFFFL, // 0.0.0.0/8 "this network"
+            0x0A000000L, 0x0AFFFFFFL, // 10.0.0.0/8 private
+            0x64400000L, 0x647FFFFFL, // 100.64.0.0/10 carrier-grade NAT
+            0x7F000000L, 0x7FFFFFFFL, // 127.0.0.0/8 loopback
+            0xA9FE0000L, 0xA9FEFFFFL, // 169.254.0.0/16 link-local
+            0xAC100000L, 0xAC1FFFFFL, // 172.16.0.0/12 private
+            0xC0000000L, 0xC00000FFL, // 192.0.0.0/24 protocol assignments
+            0xC0000200L, 0xC00002FFL, // 192.0.2.0/24 documentation
+            0xC0A80000L, 0xC0A8FFFFL, // 192.168.0.0/16 private
+            0xC6120000L, 0xC613FFFFL, // 198.18.0.0/15 benchmarking
+            0xC6336400L, 0xC63364FFL, // 198.51.100.0/24 documentation
+            0xCB007100L, 0xCB0071FFL, // 203.0.113.0/24 documentation
+            0xE0000000L, 0xFFFFFFFFL, // 224.0.0.0/4 multicast, 240.0.0.0/4 reserved and broadcast
+    };
+
+    private ReservedAddresses() {
+    }
+
+    static boolean isReserved(NumericIP ip) {
+        long ipv4 = ip.embeddedIPv4();
+
+        if (ipv4 >= 0) {
+            return isReservedIPv4(ipv4);
+        }
+
+        long high = ip.high();
+
+        // :: and ::1
+        if (high == 0 && (ip.low() >>> 1) == 0) {
+            return true;
+        }
+
+        return (high >>> 57) == (0xFC00L >>> 9)           // fc00::/7 unique local
+                || (high >>> 54) == (0xFE80L >>> 6)        // fe80::/10 link-local
+                || (high >>> 56) == 0xFFL                  // ff00::/8 multicast
+                || (high >>> 32) == 0x20010DB8L            // 2001:db8::/32 documentation
+                || high == 0x0100000000000000L;            // 100::/64 discard
+    }
+
+    static boolean isReservedIPv4(long ipv4) {
+        for (int i = 0; i < IPV4_RANGES.length && ipv4 >= IPV4_RANGES[i]; i += 2) {
+            if (ipv4 <= IPV4_RANGES[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/heavy-hitters")
+public class HeavyHitterAdminController {
+
+    private final HeavyHitters heavyHitters;
+
+    public HeavyHitterAdminController(HeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    @GetMapping
+    public ResponseEntity<HeavyHitters.Stats> getHeavyHitters(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(heavyHitters.stats(limit));
+    }
+}
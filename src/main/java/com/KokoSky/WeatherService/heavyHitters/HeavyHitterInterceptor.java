@@ -0,0 +1,51 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Map;
+
+/**
+ * Records every API request in {@link HeavyHitters}: its client network and, on the {@code /{locationCode}} and
+ * {@code /{code}} endpoints, the location code. Admin endpoints are not recorded.
+ */
+@Component
+public class HeavyHitterInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private final HeavyHitters heavyHitters;
+
+    public HeavyHitterInterceptor(HeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this)
+                .addPathPatterns("/api/v1/**")
+                .excludePathPatterns("/api/v1/admin/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        heavyHitters.recordRequest(request, locationCode(request));
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String locationCode(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        if (variables == null) {
+            return null;
+        }
+
+        String locationCode = variables.get("locationCode");
+        return locationCode != null ? locationCode : variables.get("code");
+    }
+}
@@ -0,0 +1,95 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes {@link HeavyHitters} as metrics: {@code heavy_hitters.requests} counts recorded requests per
+ * dimension, and {@code heavy_hitters.top.count} gauges the estimated count at each of the first
+ * {@code heavy-hitters.metrics-ranks} ranks. Ranks rather than keys are tags, so the series stay fixed as
+ * keys come and go; the keys are on {@code GET /api/v1/admin/heavy-hitters}.
+ * <p>
+ * The gauges of a dimension read one ranking, merged from the stripes at most once per
+ * {@code heavy-hitters.metrics-refresh}, so a scrape locks each stripe once per dimension rather than once
+ * per rank.
+ */
+@Component
+public class HeavyHitterMetrics implements MeterBinder {
+
+    private final HeavyHitters heavyHitters;
+    private final int ranks;
+    private final long refreshNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public HeavyHitterMetrics(
+            HeavyHitters heavyHitters,
+            @Value("${heavy-hitters.metrics-ranks:10}") int ranks,
+            @Value("${heavy-hitters.metrics-refresh:5s}") Duration refresh
+    ) {
+        this(heavyHitters, ranks, refresh, System::nanoTime);
+    }
+
+    HeavyHitterMetrics(HeavyHitters heavyHitters, int ranks, Duration refresh, LongSupplier nanoClock) {
+        this.heavyHitters = heavyHitters;
+        this.ranks = ranks;
+        this.refreshNanos = refresh.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (HeavyHitters.Dimension dimension : HeavyHitters.Dimension.values()) {
+            String tag = dimension.name().toLowerCase(Locale.ROOT);
+
+            FunctionCounter.builder("heavy_hitters.requests", heavyHitters, tracker -> tracker.total(dimension))
+                    .tag("dimension", tag)
+                    .description("Requests recorded for heavy-hitter tracking")
+                    .register(registry);
+
+            Ranking ranking = new Ranking(dimension);
+
+            for (int rank = 1; rank <= ranks; rank++) {
+                int index = rank - 1;
+
+                Gauge.builder("heavy_hitters.top.count", ranking, gauged -> gauged.countAt(index))
+                        .tag("dimension", tag)
+                        .tag("rank", Integer.toString(rank))
+                        .description("Estimated recent requests of the key at this rank")
+                        .register(registry);
+            }
+        }
+    }
+
+    final class Ranking {
+
+        private final HeavyHitters.Dimension dimension;
+        private List<HeavyHitters.HeavyHitter> top;
+        private long mergedAt;
+
+        Ranking(HeavyHitters.Dimension dimension) {
+            this.dimension = dimension;
+        }
+
+        synchronized double countAt(int index) {
+            long now = nanoClock.getAsLong();
+
+            if (top == null || now - mergedAt >= refreshNanos) {
+                top = heavyHitters.top(dimension, ranks);
+                mergedAt = now;
+            }
+
+            return index < top.size() ? top.get(index).count() : 0;
+        }
+    }
+}
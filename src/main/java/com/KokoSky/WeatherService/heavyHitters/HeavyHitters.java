@@ -0,0 +1,264 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.geolocation.NumericIP;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.utility.ClientIPExtractor;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming top-K of the location codes requested by code, the locations resolved from client IPs and the
+ * client networks, to see which of them drive the load. Clients are recorded by their /24 (IPv4) or /48
+ * (IPv6) network, never by address, since the report is served on an unauthenticated admin endpoint.
+ * <p>
+ * Each {@link Dimension} keeps {@code heavy-hitters.stripes} {@link SpaceSaving} summaries of
+ * {@code heavy-hitters.capacity} counters. A request thread offers its key to the stripe of its thread,
+ * or to the next one it can lock without waiting, so concurrent requests for the same hot key do not
+ * contend. Reports merge the stripes: a key's count is the sum over the stripes tracking it, and its
+ * {@code error} bounds how far that sum may be from the true count. Every {@code heavy-hitters.half-life}
+ * all counts are halved, so the report follows the recent traffic rather than everything since startup.
+ */
+@Component
+public class HeavyHitters {
+
+    public enum Dimension {
+        LOCATION_CODE, RESOLVED_LOCATION, CLIENT_NETWORK
+    }
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int defaultLimit;
+    private final ClientIPExtractor clientIPExtractor;
+
+    private final Map<Dimension, Tracker> trackers = new EnumMap<>(Dimension.class);
+
+    private final ScheduledExecutorService decayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "heavy-hitters-decay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HeavyHitters(
+            @Value("${heavy-hitters.enabled:true}") boolean enabled,
+            @Value("${heavy-hitters.capacity:256}") int capacity,
+            @Value("${heavy-hitters.stripes:8}") int stripes,
+            @Value("${heavy-hitters.top:20}") int defaultLimit,
+            @Value("${heavy-hitters.half-life:10m}") Duration halfLife,
+            ClientIPExtractor clientIPExtractor
+    ) {
+        this.enabled = enabled && capacity > 0;
+        this.capacity = Math.max(capacity, 1);
+        this.defaultLimit = defaultLimit;
+        this.clientIPExtractor = clientIPExtractor;
+
+        // A power of two, so a stripe is picked with a mask
+        int stripeCount = Integer.highestOneBit(Math.max(stripes, 1));
+        for (Dimension dimension : Dimension.values()) {
+            trackers.put(dimension, new Tracker(stripeCount, this.capacity));
+        }
+
+        if (this.enabled && halfLife.toMillis() > 0) {
+            decayExecutor.scheduleAtFixedRate(this::age, halfLife.toMillis(), halfLife.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        decayExecutor.shutdownNow();
+    }
+
+    public void record(Dimension dimension, String key) {
+        if (enabled && key != null) {
+            trackers.get(dimension).offer(key);
+        }
+    }
+
+    /**
+     * Records the client network of an API request and, when it addresses a location by code, that code.
+     */
+    public void recordRequest(HttpServletRequest request, String locationCode) {
+        if (!enabled) {
+            return;
+        }
+
+        record(Dimension.LOCATION_CODE, locationCode);
+
+        try {
+            NumericIP ip = clientIPExtractor.extract(request);
+            record(Dimension.CLIENT_NETWORK, network(ip));
+        } catch (GeolocationException ex) {
+            // No usable address, the request fails or is served without one
+        }
+    }
+
+    /**
+     * Records the location an IP endpoint resolved, by code when it is in the catalog.
+     */
+    public void recordResolved(Location location) {
+        if (!enabled || location == null) {
+            return;
+        }
+
+        record(Dimension.RESOLVED_LOCATION, location.getCode() != null ? location.getCode()
+                : location.getCountryCode() + "/" + location.getCityName());
+    }
+
+    /**
+     * Returns the at most {@code limit} most frequent keys of {@code dimension}, most frequent first.
+     */
+    public List<HeavyHitter> top(Dimension dimension, int limit) {
+        return trackers.get(dimension).top(Math.max(limit, 0));
+    }
+
+    public long total(Dimension dimension) {
+        return trackers.get(dimension).total.sum();
+    }
+
+    public Stats stats(Integer limit) {
+        int top = Math.min(limit != null ? limit : defaultLimit, capacity);
+        Map<Dimension, DimensionStats> dimensions = new EnumMap<>(Dimension.class);
+
+        trackers.forEach((dimension, tracker) -> dimensions.put(dimension,
+                new DimensionStats(tracker.total.sum(), tracker.top(Math.max(top, 0)))));
+
+        return new Stats(enabled, capacity, dimensions);
+    }
+
+    void age() {
+        trackers.values().forEach(Tracker::age);
+    }
+
+    // The networks the location token binds to
+    private static String network(NumericIP ip) {
+        return ip.ipv6()
+                ? NumericIP.ofIPv6(ip.high() & 0xFFFFFFFFFFFF0000L, 0).toString() + "/48"
+                : NumericIP.ofIPv4(ip.low() & 0xFFFFFF00L).toString() + "/24";
+    }
+
+    /**
+     * {@code count} is the estimated number of requests for {@code key} since the counts were last halved,
+     * within {@code error} of the true number.
+     */
+    public record HeavyHitter(String key, long count, long error) {
+    }
+
+    /**
+     * {@code total} counts every recorded request since startup, without halving.
+     */
+    public record DimensionStats(long total, List<HeavyHitter> top) {
+    }
+
+    public record Stats(boolean enabled, int capacity, Map<Dimension, DimensionStats> dimensions) {
+    }
+
+    private static final class Tracker {
+
+        private final SpaceSaving[] summaries;
+        private final ReentrantLock[] locks;
+        private final int mask;
+        private final LongAdder total = new LongAdder();
+
+        private Tracker(int stripes, int capacity) {
+            this.summaries = new SpaceSaving[stripes];
+            this.locks = new ReentrantLock[stripes];
+            this.mask = stripes - 1;
+
+            for (int i = 0; i < stripes; i++) {
+                summaries[i] = new SpaceSaving(capacity);
+                locks[i] = new ReentrantLock();
+            }
+        }
+
+        private void offer(String key) {
+            total.increment();
+
+            long threadId = Thread.currentThread().getId();
+            int start = (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+            for (int i = 0; i <= mask; i++) {
+                int stripe = (start + i) & mask;
+
+                if (locks[stripe].tryLock()) {
+                    try {
+                        summaries[stripe].offer(key);
+                    } finally {
+                        locks[stripe].unlock();
+                    }
+
+                    return;
+                }
+            }
+
+            // Every stripe busy, wait for this thread's own
+            locks[start].lock();
+            try {
+                summaries[start].offer(key);
+            } finally {
+                locks[start].unlock();
+            }
+        }
+
+        private List<HeavyHitter> top(int limit) {
+            // Per key: summed count, summed error, summed missed count of the stripes tracking it
+            Map<String, long[]> merged = new HashMap<>();
+            long missedCount = 0;
+
+            for (int i = 0; i <= mask; i++) {
+                locks[i].lock();
+                try {
+                    long stripeMissedCount = summaries[i].missedCount();
+                    missedCount += stripeMissedCount;
+
+                    summaries[i].forEach(counter -> {
+                        long[] sums = merged.computeIfAbsent(counter.key(), key -> new long[3]);
+                        sums[0] += counter.count();
+                        sums[1] += counter.error();
+                        sums[2] += stripeMissedCount;
+                    });
+                } finally {
+                    locks[i].unlock();
+                }
+            }
+
+            List<HeavyHitter> result = new ArrayList<>(merged.size());
+
+            for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+                long[] sums = entry.getValue();
+                // Stripes not tracking the key may each have missed up to their smallest count of it
+                result.add(new HeavyHitter(entry.getKey(), sums[0], sums[1] + missedCount - sums[2]));
+            }
+
+            result.sort(Comparator.comparingLong(HeavyHitter::count).reversed()
+                    .thenComparing(HeavyHitter::key));
+
+            return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+        }
+
+        private void age() {
+            for (int i = 0; i <= mask; i++) {
+                locks[i].lock();
+                try {
+                    summaries[i].age();
+                } finally {
+                    locks[i].unlock();
+                }
+            }
+        }
+    }
+}
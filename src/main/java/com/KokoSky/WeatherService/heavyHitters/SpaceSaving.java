@@ -0,0 +1,140 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Space-Saving summary of the most frequent keys of a stream, in a fixed number of counters.
+ * <p>
+ * A key already tracked has its counter incremented. A new key takes the counter with the smallest count
+ * once all are in use, inherits that count as its error and is incremented, so every key seen more than
+ * {@code stream length / capacity} times is tracked, and a tracked key's count overestimates its true count
+ * by at most its error. Counters are kept in a min-heap, so each offer is O(log capacity).
+ * <p>
+ * Not thread-safe, callers lock around every method.
+ */
+final class SpaceSaving {
+
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final HashMap<String, Integer> positions;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    void offer(String key) {
+        Integer position = positions.get(key);
+
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+            return;
+        }
+
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = 1;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+            return;
+        }
+
+        // Replace the least frequent key, whose count bounds how often the new one may have been missed
+        positions.remove(keys[0]);
+        keys[0] = key;
+        errors[0] = counts[0];
+        counts[0]++;
+        positions.put(key, 0);
+        siftDown(0);
+    }
+
+    /**
+     * Halves every count and error, so past traffic fades out. Halving keeps the heap order.
+     */
+    void age() {
+        for (int i = 0; i < size; i++) {
+            counts[i] >>>= 1;
+            errors[i] >>>= 1;
+        }
+    }
+
+    /**
+     * The count any untracked key may have reached unnoticed: the smallest count once all counters are in use.
+     */
+    long missedCount() {
+        return size < keys.length ? 0 : counts[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Consumer<Counter> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(new Counter(keys[i], counts[i], errors[i]));
+        }
+    }
+
+    record Counter(String key, long count, long error) {
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+
+            if (smallest == position) {
+                return;
+            }
+
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+
+        long error = errors[i];
+        errors[i] = errors[j];
+        errors[j] = error;
+
+        positions.put(keys[i], i);
+        positions.put(keys[j], j);
+    }
+}
@@ -0,0 +1,159 @@
+package com.KokoSky.WeatherService.hourlyWeather;
+
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of each location's hourly forecast as fixed 24-slot primitive arrays (temperature,
+ * precipitation and a {@link StringDictionary} id of the status), so "hours after X-Current-Hour" is an
+ * array slice instead of a query. A forecast whose statuses cannot all be encoded is not stored.
+ * <p>
+ * The database stays the durable source: a location's forecast is loaded on first read, and the write
+ * paths and {@link LocationChangedEvent} invalidate it. Loads that overlap an invalidation are not stored.
+ * Each location's arrays are immutable once published, updates replace them.
+ */
+@Component
+public class HourlyForecastStore {
+
+    static final int HOURS = 24;
+    private static final short NO_FORECAST = -1;
+
+    private final boolean enabled;
+    private final StringDictionary dictionary;
+
+    private final ConcurrentHashMap<String, Forecast> forecasts = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, loads that overlap one are not stored
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public HourlyForecastStore(@Value("${hourly-weather.store.enabled:true}") boolean enabled,
+                               StringDictionary dictionary) {
+        this.enabled = enabled;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Returns the forecast of {@code locationCode} for the hours after {@code currentHour} in hour order,
+     * or {@code null} when the location is not loaded.
+     */
+    public List<HourlyWeather> getAfter(String locationCode, int currentHour) {
+        Forecast forecast = enabled ? forecasts.get(locationCode) : null;
+
+        if (forecast == null) {
+            return null;
+        }
+
+        List<HourlyWeather> result = new ArrayList<>(HOURS);
+
+        for (int hour = Math.max(currentHour + 1, 0); hour < HOURS; hour++) {
+            int statusId = forecast.statusIds[hour];
+
+            if (statusId == NO_FORECAST) {
+                continue;
+            }
+
+            result.add(HourlyWeather.builder()
+                    .id(new HourlyWeatherId(hour, forecast.location))
+                    .temperature(forecast.temperatures[hour])
+                    .precipitation(forecast.precipitations[hour])
+                    .status(dictionary.value(statusId))
+                    .build());
+        }
+
+        return result;
+    }
+
+    /**
+     * Marks the start of a load, to be passed to {@link #put} with its result.
+     */
+    public long stamp() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Stores the full forecast of {@code location} as read from the database.
+     */
+    public void put(Location location, List<HourlyWeather> hourlyForecast, long stamp) {
+        if (!enabled) {
+            return;
+        }
+
+        int[] temperatures = new int[HOURS];
+        int[] precipitations = new int[HOURS];
+        short[] forecastStatusIds = new short[HOURS];
+        Arrays.fill(forecastStatusIds, NO_FORECAST);
+
+        for (HourlyWeather hourlyWeather : hourlyForecast) {
+            int hour = hourlyWeather.getId().getHourOfDay();
+
+            if (hour < 0 || hour >= HOURS) {
+                continue;
+            }
+
+            temperatures[hour] = hourlyWeather.getTemperature();
+            precipitations[hour] = hourlyWeather.getPrecipitation();
+            int statusId = dictionary.id(hourlyWeather.getStatus());
+
+            if (statusId == StringDictionary.NOT_ENCODED) {
+                return;
+            }
+
+            forecastStatusIds[hour] = (short) statusId;
+        }
+
+        Forecast forecast = new Forecast(transientCopy(location), temperatures, precipitations, forecastStatusIds);
+
+        synchronized (this) {
+            if (invalidationCount.get() == stamp) {
+                forecasts.put(location.getCode(), forecast);
+            }
+        }
+    }
+
+    public void invalidate(String locationCode) {
+        synchronized (this) {
+            invalidationCount.incrementAndGet();
+            forecasts.remove(locationCode);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        // Forecasts carry the location, so renames are evicted as well as deletions
+        invalidate(event.code());
+    }
+
+    @EventListener
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        // Local writes invalidate the location directly
+        if (event.remote()) {
+            invalidate(event.code());
+        }
+    }
+
+    public int size() {
+        return forecasts.size();
+    }
+
+    private static Location transientCopy(Location location) {
+        Location copy = new Location(location.getCityName(), location.getRegionName(),
+                location.getCountryName(), location.getCountryCode());
+        copy.setCode(location.getCode());
+        copy.setEnabled(location.isEnabled());
+        return copy;
+    }
+
+    private record Forecast(Location location, int[] temperatures, int[] precipitations, short[] statusIds) {
+    }
+}
@@ -4,8 +4,12 @@ import com.KokoSky.WeatherService.exceptions.BadRequestException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
 import com.KokoSky.WeatherService.location.Location;
-import com.KokoSky.WeatherService.utility.CommonUtility;
+import com.KokoSky.WeatherService.responseCache.CachedBody;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
@@ -17,6 +21,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.HOURLY;
+
 @RestController
 @RequestMapping("/api/v1/hourly")
 @Validated
@@ -24,35 +30,60 @@ public class HourlyWeatherController {
     private final HourlyWeatherService hourlyWeatherService;
     private final GeolocationService locationService;
     private final ModelMapper modelMapper;
+    private final ResponseBodyCache responseBodyCache;
+    private final ObjectMapper objectMapper;
+    private final SingleFlightLoader singleFlightLoader;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HourlyWeatherController.class);
 
     public HourlyWeatherController(
             HourlyWeatherService hourlyWeatherService,
             GeolocationService locationService,
-            ModelMapper modelMapper
+            ModelMapper modelMapper,
+            ResponseBodyCache responseBodyCache,
+            ObjectMapper objectMapper,
+            SingleFlightLoader singleFlightLoader
             ) {
         super();
         this.hourlyWeatherService = hourlyWeatherService;
         this.locationService = locationService;
         this.modelMapper = modelMapper;
+        this.responseBodyCache = responseBodyCache;
+        this.objectMapper = objectMapper;
+        this.singleFlightLoader = singleFlightLoader;
     }
 
     @GetMapping
-    public ResponseEntity<?> listHourlyForecastByIPAddress(HttpServletRequest request) {
-        String ipAddress = CommonUtility.getIPAddress(request);
-
+    public ResponseEntity<?> listHourlyForecastByIPAddress(HttpServletRequest request, HttpServletResponse response) {
         try {
             int currentHour = Integer.parseInt(request.getHeader("X-Current-Hour"));
-            Location locationFromIP = locationService.getLocation(ipAddress);
+            Location locationFromIP = locationService.getLocation(request, response);
+
+            CachedBody cached = responseBodyCache.get(HOURLY, locationFromIP.getCode(), currentHour);
+
+            if (cached == null) {
+                String key = locationFromIP.getCode() == null ? null
+                        : SingleFlightLoader.key(HOURLY, locationFromIP.getCode(), currentHour);
+
+                cached = singleFlightLoader.load(key, () -> {
+                    long stamp = responseBodyCache.stamp();
+                    List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocation(locationFromIP, currentHour);
 
-            List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocation(locationFromIP, currentHour);
+                    if (hourlyForecast.isEmpty()) {
+                        return null;
+                    }
 
-            if (hourlyForecast.isEmpty()) {
-                return ResponseEntity.noContent().build();
+                    CachedBody loaded = CachedBody.of(objectMapper, listEntity2DTO(hourlyForecast), null);
+                    responseBodyCache.put(HOURLY, hourlyForecast.get(0).getId().getLocation().getCode(), currentHour, stamp, loaded);
+                    return loaded;
+                });
+
+                if (cached == null) {
+                    return ResponseEntity.noContent().build();
+                }
             }
 
-            return ResponseEntity.ok(listEntity2DTO(hourlyForecast));
+            return cached.toResponse();
         } catch (NumberFormatException e) {
             LOGGER.error(String.format("%s from X-Current-Hour header", e.getMessage()));
             return ResponseEntity.badRequest().build();
@@ -66,13 +97,28 @@ public class HourlyWeatherController {
         try {
             int currentHour = Integer.parseInt(request.getHeader("X-Current-Hour"));
 
-            List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocationCode(locationCode, currentHour);
+            CachedBody cached = responseBodyCache.get(HOURLY, locationCode, currentHour);
+
+            if (cached == null) {
+                cached = singleFlightLoader.load(SingleFlightLoader.key(HOURLY, locationCode, currentHour), () -> {
+                    long stamp = responseBodyCache.stamp();
+                    List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocationCode(locationCode, currentHour);
+
+                    if (hourlyForecast.isEmpty()) {
+                        return null;
+                    }
+
+                    CachedBody loaded = CachedBody.of(objectMapper, listEntity2DTO(hourlyForecast), null);
+                    responseBodyCache.put(HOURLY, locationCode, currentHour, stamp, loaded);
+                    return loaded;
+                });
 
-            if (hourlyForecast.isEmpty()) {
-                return ResponseEntity.noContent().build();
+                if (cached == null) {
+                    return ResponseEntity.noContent().build();
+                }
             }
 
-            return ResponseEntity.ok(listEntity2DTO(hourlyForecast));
+            return cached.toResponse();
 
         } catch (NumberFormatException ex) {
 
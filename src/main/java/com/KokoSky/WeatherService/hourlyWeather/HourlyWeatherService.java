@@ -1,8 +1,14 @@
 package com.KokoSky.WeatherService.hourlyWeather;
 
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
 import com.KokoSky.WeatherService.location.Location;
 import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.location.UnknownLocationCache;
+import com.KokoSky.WeatherService.readModel.LocationSnapshot;
+import com.KokoSky.WeatherService.readModel.ReadModel;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -12,35 +18,92 @@ import java.util.List;
 public class HourlyWeatherService {
     private final HourlyWeatherRepository hourlyWeatherRepository;
     private final LocationRepository locationRepository;
-
-    public HourlyWeatherService(HourlyWeatherRepository hourlyWeatherRepository, LocationRepository locationRepository) {
+    private final ResponseBodyCache responseBodyCache;
+    private final HourlyForecastStore hourlyForecastStore;
+    private final UnknownLocationCache unknownLocationCache;
+    private final ReadModel readModel;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public HourlyWeatherService(HourlyWeatherRepository hourlyWeatherRepository, LocationRepository locationRepository,
+                                ResponseBodyCache responseBodyCache, HourlyForecastStore hourlyForecastStore,
+                                UnknownLocationCache unknownLocationCache, ReadModel readModel,
+                                ApplicationEventPublisher eventPublisher) {
         super();
         this.hourlyWeatherRepository = hourlyWeatherRepository;
         this.locationRepository = locationRepository;
+        this.responseBodyCache = responseBodyCache;
+        this.hourlyForecastStore = hourlyForecastStore;
+        this.unknownLocationCache = unknownLocationCache;
+        this.readModel = readModel;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<HourlyWeather> getByLocation(Location location, int currentHour) throws LocationNotFoundException {
+        // Resolved through the IP range index, no need to match on country code and city name
+        if (location.getCode() != null) {
+            return getByLocationCode(location.getCode(), currentHour);
+        }
+
         String countryCode = location.getCountryCode();
         String cityName = location.getCityName();
 
-        Location locationInDB = locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
+        if (readModel.isResolvingCities()) {
+            String locationCode = readModel.findCodeByCountryCodeAndCityName(countryCode, cityName);
+
+            if (locationCode == null) {
+                throw new LocationNotFoundException(countryCode, cityName);
+            }
+
+            return getByLocationCode(locationCode, currentHour);
+        }
+
+        Location locationInDB = unknownLocationCache.findByCountryCodeAndCityName(countryCode, cityName,
+                locationRepository::findByCountryCodeAndCityName);
 
         if (locationInDB == null) {
             throw new LocationNotFoundException(countryCode, cityName);
         }
 
-        return hourlyWeatherRepository.findByLocationCodeAndHour(locationInDB.getCode(), currentHour);
+        List<HourlyWeather> hourlyForecast = hourlyForecastStore.getAfter(locationInDB.getCode(), currentHour);
+
+        return hourlyForecast != null ? hourlyForecast : loadIntoStore(locationInDB, currentHour);
     }
 
     public List<HourlyWeather> getByLocationCode(String locationCode, int currentHour) throws LocationNotFoundException {
+        if (readModel.isServing(locationCode)) {
+            LocationSnapshot snapshot = readModel.get(locationCode);
+
+            if (snapshot == null) {
+                throw new LocationNotFoundException(locationCode);
+            }
+
+            return snapshot.hourlyWeatherAfter(currentHour);
+        }
+
+        List<HourlyWeather> hourlyForecast = hourlyForecastStore.getAfter(locationCode, currentHour);
+
+        if (hourlyForecast != null) {
+            return hourlyForecast;
+        }
 
-        Location locationInDB = locationRepository.findByCode(locationCode);
+        Location locationInDB = unknownLocationCache.findByCode(locationCode, locationRepository::findByCode);
 
         if (locationInDB == null) {
             throw new LocationNotFoundException(locationCode);
         }
 
-        return hourlyWeatherRepository.findByLocationCodeAndHour(locationCode, currentHour);
+        return loadIntoStore(locationInDB, currentHour);
+    }
+
+    // Loads every hour of the location into the store, then slices it like a hit would
+    private List<HourlyWeather> loadIntoStore(Location location, int currentHour) {
+        long stamp = hourlyForecastStore.stamp();
+        List<HourlyWeather> allHours = hourlyWeatherRepository.findByLocationCodeAndHour(location.getCode(), -1);
+        hourlyForecastStore.put(location, allHours, stamp);
+
+        return allHours.stream()
+                .filter(hourlyWeather -> hourlyWeather.getId().getHourOfDay() > currentHour)
+                .toList();
     }
 
     public List<HourlyWeather> updateByLocationCode(String locationCode, List<HourlyWeather> hourlyWeatherInRequest) {
@@ -64,6 +127,11 @@ public class HourlyWeatherService {
             hourlyWeatherInDB.remove(item);
         }
 
-        return (List<HourlyWeather>) hourlyWeatherRepository.saveAll(hourlyWeatherInRequest);
+        List<HourlyWeather> updatedHourlyWeather = (List<HourlyWeather>) hourlyWeatherRepository.saveAll(hourlyWeatherInRequest);
+        responseBodyCache.invalidate(locationCode);
+        hourlyForecastStore.invalidate(locationCode);
+        eventPublisher.publishEvent(new WeatherChangedEvent(locationCode));
+
+        return updatedHourlyWeather;
     }
 }
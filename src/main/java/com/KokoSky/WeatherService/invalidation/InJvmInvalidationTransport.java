@@ -0,0 +1,31 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers batches synchronously to the buses subscribed to this instance, for tests and single-JVM setups.
+ * Several buses sharing one transport behave like instances sharing a database channel.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidation-bus.transport", havingValue = "in-jvm")
+public class InJvmInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        for (Consumer<InvalidationBatch> receiver : receivers) {
+            receiver.accept(batch);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        receivers.add(receiver);
+    }
+}
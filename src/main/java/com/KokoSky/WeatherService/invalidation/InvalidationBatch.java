@@ -0,0 +1,49 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Location codes changed on the instance {@code origin}, at most one entry per code.
+ * Encoded as lines: the origin, then one {@code <kind>:<code>} line per change.
+ */
+public record InvalidationBatch(String origin, List<Change> changes) {
+
+    public enum Kind {
+        // Weather of the location only
+        WEATHER,
+        // The location itself, which also covers its weather
+        LOCATION
+    }
+
+    public record Change(String code, Kind kind) {
+    }
+
+    public String encode() {
+        StringBuilder encoded = new StringBuilder(origin);
+
+        for (Change change : changes) {
+            encoded.append('\n').append(change.kind() == Kind.LOCATION ? 'L' : 'W').append(':').append(change.code());
+        }
+
+        return encoded.toString();
+    }
+
+    public static InvalidationBatch decode(String encoded) {
+        String[] lines = encoded.split("\n");
+        List<Change> changes = new ArrayList<>(lines.length - 1);
+
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+
+            if (line.length() < 3 || line.charAt(1) != ':') {
+                throw new IllegalArgumentException("Malformed invalidation entry: " + line);
+            }
+
+            Kind kind = line.charAt(0) == 'L' ? Kind.LOCATION : Kind.WEATHER;
+            changes.add(new Change(line.substring(2), kind));
+        }
+
+        return new InvalidationBatch(lines[0], changes);
+    }
+}
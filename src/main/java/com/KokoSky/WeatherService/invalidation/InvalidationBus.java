@@ -0,0 +1,188 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcasts per-location changes committed on this instance to the other instances, which drop their
+ * local copies.
+ * <p>
+ * Local {@link LocationChangedEvent}s and {@link WeatherChangedEvent}s are collected after commit and sent
+ * once per {@code invalidation-bus.coalesce-window}, with one entry per location code however many times it
+ * changed, a location change absorbing weather changes of the same code. On receipt, a weather change is
+ * republished as a remote {@link WeatherChangedEvent}. A location change evicts the location from Hibernate's
+ * second-level and query caches, reloads it and republishes it as a remote {@link LocationChangedEvent}, so
+ * every existing listener applies it. Remote events are never sent back out.
+ * <p>
+ * Without an {@link InvalidationTransport} ({@code invalidation-bus.transport: none}) changes stay local.
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final InvalidationTransport transport;
+    private final long coalesceWindowMillis;
+    private final LocationRepository locationRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, InvalidationBatch.Kind> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    public InvalidationBus(
+            Optional<InvalidationTransport> transport,
+            @Value("${invalidation-bus.coalesce-window:200ms}") Duration coalesceWindow,
+            LocationRepository locationRepository,
+            EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.transport = transport.orElse(null);
+        this.coalesceWindowMillis = coalesceWindow.toMillis();
+        this.locationRepository = locationRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (transport != null) {
+            transport.subscribe(this::receive);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        flushExecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        if (!event.remote()) {
+            publish(event.code(), InvalidationBatch.Kind.LOCATION);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        if (!event.remote()) {
+            publish(event.code(), InvalidationBatch.Kind.WEATHER);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(transport != null, nodeId, pending.size(), published.sum(), coalesced.sum(),
+                batchesSent.sum(), received.sum());
+    }
+
+    private void publish(String code, InvalidationBatch.Kind kind) {
+        if (transport == null || code == null) {
+            return;
+        }
+
+        published.increment();
+        pending.compute(code, (key, previous) -> {
+            if (previous == null) {
+                return kind;
+            }
+
+            coalesced.increment();
+            return previous == InvalidationBatch.Kind.LOCATION ? previous : kind;
+        });
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.schedule(this::flush, coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void flush() {
+        flushScheduled.set(false);
+
+        if (transport == null || pending.isEmpty()) {
+            return;
+        }
+
+        List<InvalidationBatch.Change> changes = new ArrayList<>(pending.size());
+
+        for (String code : pending.keySet()) {
+            InvalidationBatch.Kind kind = pending.remove(code);
+
+            if (kind != null) {
+                changes.add(new InvalidationBatch.Change(code, kind));
+            }
+        }
+
+        try {
+            transport.send(new InvalidationBatch(nodeId, changes));
+            batchesSent.increment();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Could not broadcast {} invalidations: {}", changes.size(), ex.getMessage());
+        }
+    }
+
+    void receive(InvalidationBatch batch) {
+        if (nodeId.equals(batch.origin())) {
+            return;
+        }
+
+        for (InvalidationBatch.Change change : batch.changes()) {
+            received.increment();
+
+            if (change.kind() == InvalidationBatch.Kind.WEATHER) {
+                eventPublisher.publishEvent(new WeatherChangedEvent(change.code(), true));
+                continue;
+            }
+
+            // The local second-level and query caches still hold the state from before the remote write
+            entityManagerFactory.getCache().evict(Location.class, change.code());
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+
+            Location location = locationRepository.findByCode(change.code());
+            eventPublisher.publishEvent(new LocationChangedEvent(change.code(), location, true));
+        }
+    }
+
+    /**
+     * {@code published} counts local changes, {@code coalesced} those merged into a change of the same code
+     * still waiting to be sent, {@code received} changes applied from other instances.
+     */
+    public record Stats(boolean enabled, String nodeId, int pending, long published, long coalesced,
+                        long batchesSent, long received) {
+    }
+}
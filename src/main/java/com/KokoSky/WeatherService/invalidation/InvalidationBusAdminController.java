@@ -0,0 +1,22 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/invalidation-bus")
+public class InvalidationBusAdminController {
+
+    private final InvalidationBus invalidationBus;
+
+    public InvalidationBusAdminController(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @GetMapping
+    public ResponseEntity<InvalidationBus.Stats> getStats() {
+        return ResponseEntity.ok(invalidationBus.stats());
+    }
+}
@@ -0,0 +1,19 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBatch}es between the instances of the service.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Delivers {@code batch} to every subscribed instance, the sender included.
+     */
+    void send(InvalidationBatch batch);
+
+    /**
+     * Starts delivering the batches sent by any instance to {@code receiver}.
+     */
+    void subscribe(Consumer<InvalidationBatch> receiver);
+}
@@ -0,0 +1,200 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Broadcasts batches with Postgres {@code NOTIFY} on the application's datasource, and receives them on a
+ * connection held for {@code LISTEN}, polled by a daemon thread.
+ * <p>
+ * Batches are split to stay under the 8000 byte payload limit. When the listening connection breaks it is
+ * reopened after {@code invalidation-bus.postgres.retry-delay}; changes broadcast in between are missed,
+ * and the caches' TTLs bound how long they stay stale.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidation-bus.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    // Postgres rejects payloads of 8000 bytes or more
+    private static final int MAXIMUM_PAYLOAD_BYTES = 7900;
+
+    private final DataSource dataSource;
+    private final String channel;
+    private final int pollMillis;
+    private final long retryDelayMillis;
+
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listenThread;
+
+    public PostgresInvalidationTransport(
+            DataSource dataSource,
+            @Value("${invalidation-bus.postgres.channel:weather_invalidation}") String channel,
+            @Value("${invalidation-bus.postgres.poll-timeout:1s}") Duration pollTimeout,
+            @Value("${invalidation-bus.postgres.retry-delay:5s}") Duration retryDelay
+    ) {
+        // LISTEN takes an identifier, not a bind parameter
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+
+        this.dataSource = dataSource;
+        this.channel = channel;
+        this.pollMillis = (int) pollTimeout.toMillis();
+        this.retryDelayMillis = retryDelay.toMillis();
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+
+            for (InvalidationBatch part : split(batch)) {
+                notify.setString(1, channel);
+                notify.setString(2, part.encode());
+                notify.execute();
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException ex) {
+            LOGGER.warn("Could not broadcast {} invalidations: {}", batch.changes().size(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<InvalidationBatch> receiver) {
+        if (listenThread != null) {
+            throw new IllegalStateException("Already subscribed");
+        }
+
+        running = true;
+        listenThread = new Thread(() -> listen(receiver), "invalidation-listen");
+        listenThread.setDaemon(true);
+        listenThread.start();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        closeListenConnection();
+    }
+
+    private void listen(Consumer<InvalidationBatch> receiver) {
+        while (running) {
+            try {
+                Connection connection = dataSource.getConnection();
+                listenConnection = connection;
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+
+                LOGGER.info("Listening for cache invalidations on channel {}", channel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+
+                    if (notifications == null) {
+                        continue;
+                    }
+
+                    for (PGNotification notification : notifications) {
+                        deliver(receiver, notification.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    LOGGER.warn("Lost the invalidation channel {}, retrying in {} ms: {}",
+                            channel, retryDelayMillis, ex.getMessage());
+                }
+            } finally {
+                closeListenConnection();
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void deliver(Consumer<InvalidationBatch> receiver, String payload) {
+        try {
+            receiver.accept(InvalidationBatch.decode(payload));
+        } catch (RuntimeException ex) {
+            LOGGER.error("Could not apply invalidations {}", payload, ex);
+        }
+    }
+
+    private void closeListenConnection() {
+        Connection connection = listenConnection;
+        listenConnection = null;
+
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                LOGGER.debug("Could not close the invalidation connection", ex);
+            }
+        }
+    }
+
+    static List<InvalidationBatch> split(InvalidationBatch batch) {
+        List<InvalidationBatch> parts = new ArrayList<>();
+        List<InvalidationBatch.Change> current = new ArrayList<>();
+        int originBytes = batch.origin().getBytes(StandardCharsets.UTF_8).length;
+        int bytes = originBytes;
+
+        for (InvalidationBatch.Change change : batch.changes()) {
+            // Newline, kind and colon
+            int changeBytes = 3 + change.code().getBytes(StandardCharsets.UTF_8).length;
+
+            if (!current.isEmpty() && bytes + changeBytes > MAXIMUM_PAYLOAD_BYTES) {
+                parts.add(new InvalidationBatch(batch.origin(), current));
+                current = new ArrayList<>();
+                bytes = originBytes;
+            }
+
+            current.add(change);
+            bytes += changeBytes;
+        }
+
+        if (!current.isEmpty()) {
+            parts.add(new InvalidationBatch(batch.origin(), current));
+        }
+
+        return parts;
+    }
+}
@@ -0,0 +1,13 @@
+package com.KokoSky.WeatherService.invalidation;
+
+/**
+ * Published when the realtime, hourly or daily weather of a location changes. The services publish it
+ * with {@code remote} false after their write is committed, and {@link InvalidationBus} publishes it with
+ * {@code remote} true for writes made on other instances.
+ */
+public record WeatherChangedEvent(String code, boolean remote) {
+
+    public WeatherChangedEvent(String code) {
+        this(code, false);
+    }
+}
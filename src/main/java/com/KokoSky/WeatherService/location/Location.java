@@ -9,6 +9,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,8 +23,12 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "locations")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Location.CACHE_REGION)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Location {
+    public static final String CACHE_REGION = "location";
+
     @Id
     @Column(length = 12, nullable = false, unique = true)
     private String code;
@@ -0,0 +1,57 @@
+package com.KokoSky.WeatherService.location;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Hibernate second-level and query cache statistics for {@link Location}, and those of the
+ * {@link UnknownLocationCache}. Hibernate counters are only collected with {@code hibernate.generate_statistics}
+ * enabled.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/location-cache")
+public class LocationCacheAdminController {
+
+    private final SessionFactory sessionFactory;
+    private final UnknownLocationCache unknownLocationCache;
+
+    public LocationCacheAdminController(EntityManagerFactory entityManagerFactory,
+                                        UnknownLocationCache unknownLocationCache) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.unknownLocationCache = unknownLocationCache;
+    }
+
+    @GetMapping
+    public ResponseEntity<LocationCacheStats> getCacheStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Location.CACHE_REGION);
+
+        return ResponseEntity.ok(new LocationCacheStats(
+                statistics.isStatisticsEnabled(),
+                region.getElementCountInMemory(),
+                region.getHitCount(),
+                region.getMissCount(),
+                region.getPutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                statistics.getUpdateTimestampsCacheHitCount()
+        ));
+    }
+
+    @GetMapping("/negative")
+    public ResponseEntity<UnknownLocationCache.Stats> getNegativeCacheStats() {
+        return ResponseEntity.ok(unknownLocationCache.stats());
+    }
+
+    public record LocationCacheStats(boolean statisticsEnabled, long entities, long entityHits, long entityMisses,
+                                     long entityPuts, long queryHits, long queryMisses, long queryPuts,
+                                     long timestampChecks) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.KokoSky.WeatherService.location;
+
+import com.KokoSky.WeatherService.responseCache.CachedBody;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory snapshot of the untrashed location catalog, indexed by code, by
+ * (country code, normalized city name) and by country code, with the {@code GET /api/v1/locations}
+ * body rendered once per snapshot.
+ * <p>
+ * Loaded when the application is ready and rebuilt copy-on-write from every {@link LocationChangedEvent},
+ * then swapped in with a single volatile write. Readers never lock. Until the first load succeeds
+ * {@link #isReady()} is {@code false} and callers use the database.
+ */
+@Component
+public class LocationCatalog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocationCatalog.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final LocationRepository locationRepository;
+    private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
+    private final StringDictionary dictionary;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+
+    public LocationCatalog(LocationRepository locationRepository, ModelMapper modelMapper, ObjectMapper objectMapper,
+                           StringDictionary dictionary) {
+        this.locationRepository = locationRepository;
+        this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
+        this.dictionary = dictionary;
+    }
+
+    // Before the startup warm-up, which preloads the cataloged locations
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        try {
+            synchronized (writeLock) {
+                TreeMap<String, Location> byCode = new TreeMap<>();
+                for (Location location : locationRepository.findAllUntrashedLocations()) {
+                    byCode.put(location.getCode(), transientCopy(location));
+                }
+
+                snapshot = build(byCode);
+            }
+
+            LOGGER.info("Loaded location catalog: {} locations", snapshot.byCode.size());
+        } catch (RuntimeException ex) {
+            LOGGER.error("Could not load the location catalog, lookups use the database", ex);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+
+            if (current == null) {
+                return;
+            }
+
+            TreeMap<String, Location> byCode = new TreeMap<>(current.byCode);
+            byCode.remove(event.code());
+
+            if (!event.isDeleted()) {
+                byCode.put(event.code(), transientCopy(event.location()));
+            }
+
+            snapshot = build(byCode);
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Returns the untrashed location with {@code code}, or {@code null} if there is none or the
+     * catalog is not loaded yet.
+     */
+    public Location findByCode(String code) {
+        Snapshot current = snapshot;
+        return current == null ? null : current.byCode.get(code);
+    }
+
+    /**
+     * Returns the untrashed location in {@code countryCode} whose city name matches {@code cityName} ignoring
+     * case, accents and repeated whitespace, or {@code null}. When several match, the lowest code wins.
+     */
+    public Location findByCountryCodeAndCityName(String countryCode, String cityName) {
+        Snapshot current = snapshot;
+
+        if (current == null || countryCode == null || cityName == null) {
+            return null;
+        }
+
+        return current.byCity.get(cityKey(countryCode, cityName));
+    }
+
+    public List<Location> findByCountryCode(String countryCode) {
+        Snapshot current = snapshot;
+
+        if (current == null || countryCode == null) {
+            return List.of();
+        }
+
+        return current.byCountry.getOrDefault(countryCode.toUpperCase(Locale.ROOT), List.of());
+    }
+
+    /**
+     * All untrashed locations ordered by code.
+     */
+    public List<Location> getLocations() {
+        Snapshot current = snapshot;
+        return current == null ? List.of() : current.locations;
+    }
+
+    /**
+     * The JSON array served by {@code GET /api/v1/locations}, or {@code null} when the catalog is empty.
+     */
+    public CachedBody getRenderedLocations() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.rendered;
+    }
+
+    private Snapshot build(TreeMap<String, Location> byCode) {
+        Map<String, Location> byCity = new HashMap<>();
+        Map<String, List<Location>> byCountry = new HashMap<>();
+        List<LocationDTO> dtos = new ArrayList<>(byCode.size());
+
+        for (Location location : byCode.values()) {
+            byCity.putIfAbsent(cityKey(location.getCountryCode(), location.getCityName()), location);
+            byCountry.computeIfAbsent(location.getCountryCode().toUpperCase(Locale.ROOT), key -> new ArrayList<>())
+                    .add(location);
+            dtos.add(modelMapper.map(location, LocationDTO.class));
+        }
+
+        byCountry.replaceAll((countryCode, locations) -> List.copyOf(locations));
+
+        CachedBody rendered = dtos.isEmpty() ? null : CachedBody.of(objectMapper, dtos, null);
+
+        return new Snapshot(Collections.unmodifiableMap(byCode), byCity, byCountry,
+                List.copyOf(byCode.values()), rendered);
+    }
+
+    static String cityKey(String countryCode, String cityName) {
+        return countryCode.toUpperCase(Locale.ROOT) + '\u0000' + normalize(cityName);
+    }
+
+    static String normalize(String cityName) {
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(cityName, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(withoutDiacritics.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private Location transientCopy(Location location) {
+        Location copy = new Location(location.getCityName(), dictionary.intern(location.getRegionName()),
+                dictionary.intern(location.getCountryName()), dictionary.intern(location.getCountryCode()));
+        copy.setCode(location.getCode());
+        copy.setEnabled(location.isEnabled());
+        return copy;
+    }
+
+    private record Snapshot(Map<String, Location> byCode,
+                            Map<String, Location> byCity,
+                            Map<String, List<Location>> byCountry,
+                            List<Location> locations,
+                            CachedBody rendered) {
+    }
+}
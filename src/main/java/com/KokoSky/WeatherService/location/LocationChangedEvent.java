@@ -0,0 +1,18 @@
+package com.KokoSky.WeatherService.location;
+
+/**
+ * Published by {@link LocationService} whenever a location is added, updated or soft-deleted.
+ * {@code location} is the saved state, or {@code null} when the location was trashed.
+ * {@code remote} events replay a change made on another instance, see
+ * {@link com.KokoSky.WeatherService.invalidation.InvalidationBus}.
+ */
+public record LocationChangedEvent(String code, Location location, boolean remote) {
+
+    public LocationChangedEvent(String code, Location location) {
+        this(code, location, false);
+    }
+
+    public boolean isDeleted() {
+        return location == null || location.isTrashed();
+    }
+}
@@ -1,5 +1,6 @@
 package com.KokoSky.WeatherService.location;
 
+import com.KokoSky.WeatherService.responseCache.CachedBody;
 import jakarta.validation.Valid;
 import java.util.List;
 
@@ -15,13 +16,16 @@ import java.util.stream.Collectors;
 public class LocationController {
 
     private final LocationService locationService;
+    private final LocationCatalog locationCatalog;
     private final ModelMapper modelMapper;
 
     public LocationController(
             LocationService locationService,
+            LocationCatalog locationCatalog,
             ModelMapper modelMapper
             ) {
         this.locationService = locationService;
+        this.locationCatalog = locationCatalog;
         this.modelMapper = modelMapper;
     }
 
@@ -35,7 +39,14 @@ public class LocationController {
     }
 
     @GetMapping
-    public ResponseEntity<List<LocationDTO>> getLocations() {
+    public ResponseEntity<?> getLocations() {
+        // Served from the catalog snapshot, rendered once per catalog change
+        if (locationCatalog.isReady()) {
+            CachedBody rendered = locationCatalog.getRenderedLocations();
+
+            return rendered == null ? ResponseEntity.noContent().build() : rendered.toResponse();
+        }
+
         List<Location> locations = locationService.getLocations();
 
         if (locations.size() == 0) {
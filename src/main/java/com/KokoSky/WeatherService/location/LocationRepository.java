@@ -1,7 +1,10 @@
 package com.KokoSky.WeatherService.location;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import java.util.List;
 import java.util.Optional;
@@ -17,13 +20,17 @@ public interface LocationRepository extends CrudRepository<Location, String> {
     @Query("select l from Location l where l.code = ?1 and l.trashed = false")
     Optional<Location> findUntrashedLocationsByCode(String code);
 
-    @Modifying
+    // Bulk update: Hibernate evicts the location cache region and invalidates cached queries over
+    // the locations table when the transaction completes, the persistence context is cleared here
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("UPDATE Location l SET l.trashed = true WHERE l.code = ?1")
     void softDeleteByCode(String code);
 
     @Query("SELECT l FROM Location l WHERE l.trashed = false AND l.code = ?1")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Location findByCode(String code);
 
     @Query("SELECT l from Location l WHERE l.trashed = false AND l.countryCode = ?1 AND l.cityName = ?2")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Location findByCountryCodeAndCityName(String countryCode, String cityName);
 }
@@ -4,19 +4,27 @@ package com.KokoSky.WeatherService.location;
 import com.KokoSky.WeatherService.exceptions.DuplicateResourceException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
 import com.KokoSky.WeatherService.exceptions.ResourceNotFoundException;
+import com.KokoSky.WeatherService.readModel.LocationSnapshot;
+import com.KokoSky.WeatherService.readModel.ReadModel;
 import java.util.List;
 import java.util.Optional;
 
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
 public class LocationService {
 
     private final LocationRepository locationRepository;
+    private final ReadModel readModel;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LocationService(LocationRepository locationRepository) {
+    public LocationService(LocationRepository locationRepository, ReadModel readModel,
+                           ApplicationEventPublisher eventPublisher) {
         this.locationRepository = locationRepository;
+        this.readModel = readModel;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -24,7 +32,10 @@ public class LocationService {
         if (locationRepository.existsLocationByCode(locationRequest.getCode())) {
             throw new DuplicateResourceException("Sorry! location code %s already exist!".formatted(locationRequest.getCode()));
         }
-        return locationRepository.save(locationRequest);
+        Location savedLocation = locationRepository.save(locationRequest);
+        eventPublisher.publishEvent(new LocationChangedEvent(savedLocation.getCode(), savedLocation));
+
+        return savedLocation;
     }
 
     public List<Location> getLocations() {
@@ -32,6 +43,15 @@ public class LocationService {
     }
 
     public Location getLocationByCode(String code) {
+        if (readModel.isServing(code)) {
+            LocationSnapshot snapshot = readModel.get(code);
+
+            if (snapshot == null) {
+                throw new LocationNotFoundException(code);
+            }
+
+            return snapshot.location();
+        }
 
         Location location = locationRepository.findByCode(code);
 
@@ -60,7 +80,10 @@ public class LocationService {
                 .enabled(newLocation.isEnabled())
                 .build();
 
-        return locationRepository.save(updatedLocation);
+        Location savedLocation = locationRepository.save(updatedLocation);
+        eventPublisher.publishEvent(new LocationChangedEvent(code, savedLocation));
+
+        return savedLocation;
     }
 
     @Transactional
@@ -70,6 +93,7 @@ public class LocationService {
         }
 
         locationRepository.softDeleteByCode(code);
+        eventPublisher.publishEvent(new LocationChangedEvent(code, null));
     }
 
 }
@@ -0,0 +1,184 @@
+package com.KokoSky.WeatherService.location;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived negative cache of location codes and (country code, city name) pairs that matched no
+ * location, consulted by the weather read paths before the repository, so clients retrying unknown
+ * locations are answered with 404 without a database round trip.
+ * <p>
+ * A {@link LocationChangedEvent} for an added or updated location drops the entries it now matches,
+ * cities compared ignoring case, accents and repeated whitespace, and a lookup that overlapped such a
+ * change is not remembered. Bounded by {@code location.negative-cache.maximum-size}: when full, expired
+ * entries are purged and if that is not enough the cache is cleared.
+ */
+@Component
+public class UnknownLocationCache {
+
+    private final boolean enabled;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    // Values are expiry times
+    private final ConcurrentHashMap<String, Long> unknownCodes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CityKey, Long> unknownCities = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, lookups that overlap one are not remembered
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    @Autowired
+    public UnknownLocationCache(
+            @Value("${location.negative-cache.enabled:true}") boolean enabled,
+            @Value("${location.negative-cache.maximum-size:10000}") int maximumSize,
+            @Value("${location.negative-cache.ttl:30s}") Duration ttl
+    ) {
+        this(enabled, maximumSize, ttl, System::nanoTime);
+    }
+
+    UnknownLocationCache(boolean enabled, int maximumSize, Duration ttl, LongSupplier nanoClock) {
+        this.enabled = enabled && maximumSize > 0;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the location found by {@code loader} for {@code code}, or {@code null} without calling it when
+     * the code recently matched nothing.
+     */
+    public Location findByCode(String code, Function<String, Location> loader) {
+        if (!enabled || code == null) {
+            return loader.apply(code);
+        }
+
+        if (isUnknown(unknownCodes, code)) {
+            return null;
+        }
+
+        long stamp = invalidationCount.get();
+        Location location = loader.apply(code);
+
+        if (location == null) {
+            remember(unknownCodes, code, stamp);
+        }
+
+        return location;
+    }
+
+    /**
+     * Returns the location found by {@code loader} for {@code countryCode} and {@code cityName}, or
+     * {@code null} without calling it when the pair recently matched nothing.
+     */
+    public Location findByCountryCodeAndCityName(String countryCode, String cityName,
+                                                 BiFunction<String, String, Location> loader) {
+        if (!enabled || countryCode == null || cityName == null) {
+            return loader.apply(countryCode, cityName);
+        }
+
+        CityKey key = new CityKey(countryCode, cityName);
+
+        if (isUnknown(unknownCities, key)) {
+            return null;
+        }
+
+        long stamp = invalidationCount.get();
+        Location location = loader.apply(countryCode, cityName);
+
+        if (location == null) {
+            remember(unknownCities, key, stamp);
+        }
+
+        return location;
+    }
+
+    public boolean isUnknownCode(String code) {
+        return enabled && code != null && isUnknown(unknownCodes, code);
+    }
+
+    public boolean isUnknownCity(String countryCode, String cityName) {
+        return enabled && countryCode != null && cityName != null
+                && isUnknown(unknownCities, new CityKey(countryCode, cityName));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        if (event.isDeleted()) {
+            return;
+        }
+
+        Location location = event.location();
+        String cityKey = LocationCatalog.cityKey(location.getCountryCode(), location.getCityName());
+
+        synchronized (this) {
+            invalidationCount.incrementAndGet();
+            unknownCodes.remove(event.code());
+            unknownCities.keySet().removeIf(key ->
+                    LocationCatalog.cityKey(key.countryCode(), key.cityName()).equals(cityKey));
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        unknownCodes.clear();
+        unknownCities.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(unknownCodes.size(), unknownCities.size(), maximumSize, hits.sum());
+    }
+
+    private <K> boolean isUnknown(ConcurrentHashMap<K, Long> unknown, K key) {
+        Long expiresAt = unknown.get(key);
+
+        if (expiresAt == null) {
+            return false;
+        }
+
+        if (nanoClock.getAsLong() - expiresAt >= 0) {
+            unknown.remove(key, expiresAt);
+            return false;
+        }
+
+        hits.increment();
+        return true;
+    }
+
+    private <K> void remember(ConcurrentHashMap<K, Long> unknown, K key, long stamp) {
+        long now = nanoClock.getAsLong();
+
+        synchronized (this) {
+            if (invalidationCount.get() != stamp) {
+                return;
+            }
+
+            if (unknown.size() >= maximumSize) {
+                unknown.values().removeIf(expiresAt -> now - expiresAt >= 0);
+
+                if (unknown.size() >= maximumSize) {
+                    unknown.clear();
+                }
+            }
+
+            unknown.put(key, now + ttlNanos);
+        }
+    }
+
+    public record Stats(int unknownCodes, int unknownCities, int maximumSize, long hits) {
+    }
+
+    private record CityKey(String countryCode, String cityName) {
+    }
+}
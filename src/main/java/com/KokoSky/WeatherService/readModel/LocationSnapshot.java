@@ -0,0 +1,37 @@
+package com.KokoSky.WeatherService.readModel;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeather;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
+
+import java.util.List;
+
+/**
+ * Detached copy of one untrashed location with all its weather, as of the last load. {@code location}
+ * carries the same realtime weather and forecasts, so it can be mapped as the full weather on its own.
+ * Nothing here is attached to a persistence context and the lists are unmodifiable; callers must not
+ * change the entities either, as they are shared by every reader.
+ *
+ * @param realtimeWeather {@code null} when none has been reported yet
+ * @param hourlyWeather   ordered by hour of day
+ * @param dailyWeather    ordered by month and day of month
+ */
+public record LocationSnapshot(Location location,
+                               RealtimeWeather realtimeWeather,
+                               List<HourlyWeather> hourlyWeather,
+                               List<DailyWeather> dailyWeather) {
+
+    public String code() {
+        return location.getCode();
+    }
+
+    /**
+     * The hourly forecast after {@code currentHour}, like {@code HourlyWeatherRepository.findByLocationCodeAndHour}.
+     */
+    public List<HourlyWeather> hourlyWeatherAfter(int currentHour) {
+        return hourlyWeather.stream()
+                .filter(hourlyWeather -> hourlyWeather.getId().getHourOfDay() > currentHour)
+                .toList();
+    }
+}
@@ -0,0 +1,594 @@
+package com.KokoSky.WeatherService.readModel;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeather;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherId;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherRepository;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherId;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherRepository;
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherRepository;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional in-memory read model: a {@link LocationSnapshot} of every untrashed location with all its weather,
+ * from which the weather and location services answer reads instead of the database.
+ * <p>
+ * Loaded in one read-only transaction when the application is ready, right after the location catalog.
+ * Every committed write publishes a {@link LocationChangedEvent} or {@link WeatherChangedEvent}, local or
+ * received from another instance, and the location is then read again and its snapshot replaced, after
+ * which its cached response bodies are dropped, as they may have been built from the previous snapshot.
+ * Reloads of the same location are serialized so the last one reads the latest commit. Readers never lock.
+ * <p>
+ * Disabled by default ({@code read-model.enabled}). Until the load succeeds, and for a location whose last
+ * reload failed, {@link #isServing(String)} is {@code false} and the services read the database.
+ * <p>
+ * Unless {@code read-model.snapshot.enabled} is off, the model is also written to a {@link SnapshotFile}
+ * every {@code read-model.snapshot.interval} when it changed, and on shutdown. On the next start a valid
+ * file is restored instead and served at once, while the bulk load runs in the background and replaces
+ * whatever differs from the database, dropping the cached response bodies of those locations. Writes
+ * committed meanwhile are reloaded right away and again after the bulk load. The database stays the
+ * source of truth: a snapshot only shortens the time until the model is ready. Files older than
+ * {@code read-model.snapshot.max-age} are not restored, a failed bulk load is retried with backoff until it
+ * succeeds, and a restored model that is still not reconciled once its file is that old is dropped, so reads
+ * go to the database until the retry succeeds. No snapshot is written before then.
+ */
+@Component
+public class ReadModel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadModel.class);
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long RECONCILE_RETRY_MIN_MILLIS = 1000;
+    private static final long RECONCILE_RETRY_MAX_MILLIS = Duration.ofMinutes(5).toMillis();
+
+    private final boolean enabled;
+    private final LocationRepository locationRepository;
+    private final RealtimeWeatherRepository realtimeWeatherRepository;
+    private final HourlyWeatherRepository hourlyWeatherRepository;
+    private final DailyWeatherRepository dailyWeatherRepository;
+    private final ResponseBodyCache responseBodyCache;
+    private final StringDictionary dictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean snapshotEnabled;
+    private final Path snapshotPath;
+    private final long snapshotIntervalMillis;
+    private final long snapshotMaxAgeMillis;
+
+    private final ConcurrentHashMap<String, LocationSnapshot> byCode = new ConcurrentHashMap<>();
+    // Exact country code and city name, like LocationRepository.findByCountryCodeAndCityName
+    private final ConcurrentHashMap<String, String> codeByCity = new ConcurrentHashMap<>();
+    // Codes whose last reload failed, read from the database until one succeeds
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+    private final Object[] reloadLocks = new Object[LOCK_STRIPES];
+
+    private final Object stateLock = new Object();
+    private final Set<String> changedDuringLoad = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+    private volatile long loadMillis;
+
+    // Bumped on every replace, so a snapshot is only written when the model changed since the last one
+    private final AtomicLong modifications = new AtomicLong();
+    private long snapshotModifications = -1;
+    private volatile boolean restored;
+    private volatile long restoredCreatedAt;
+    private long reconcileRetryMillis = RECONCILE_RETRY_MIN_MILLIS;
+    private volatile int reconciled;
+    private volatile long snapshotBytes;
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder snapshotWrites = new LongAdder();
+
+    private final ScheduledExecutorService snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "read-model-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReadModel(
+            @Value("${read-model.enabled:false}") boolean enabled,
+            LocationRepository locationRepository,
+            RealtimeWeatherRepository realtimeWeatherRepository,
+            HourlyWeatherRepository hourlyWeatherRepository,
+            DailyWeatherRepository dailyWeatherRepository,
+            ResponseBodyCache responseBodyCache,
+            StringDictionary dictionary,
+            PlatformTransactionManager transactionManager,
+            @Value("${read-model.snapshot.enabled:true}") boolean snapshotEnabled,
+            @Value("${read-model.snapshot.path:data/read-model.snapshot}") String snapshotPath,
+            @Value("${read-model.snapshot.interval:5m}") Duration snapshotInterval,
+            @Value("${read-model.snapshot.max-age:1d}") Duration snapshotMaxAge
+    ) {
+        this.enabled = enabled;
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotPath = Path.of(snapshotPath);
+        this.snapshotIntervalMillis = snapshotInterval.toMillis();
+        this.snapshotMaxAgeMillis = snapshotMaxAge.toMillis();
+        this.locationRepository = locationRepository;
+        this.realtimeWeatherRepository = realtimeWeatherRepository;
+        this.hourlyWeatherRepository = hourlyWeatherRepository;
+        this.dailyWeatherRepository = dailyWeatherRepository;
+        this.responseBodyCache = responseBodyCache;
+        this.dictionary = dictionary;
+
+        // Reloads run after the write's commit, in a transaction of their own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            reloadLocks[i] = new Object();
+        }
+    }
+
+    // After the location catalog, before the startup warm-up
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (stateLock) {
+            loading = true;
+        }
+
+        if (restore()) {
+            snapshotExecutor.execute(this::reconcile);
+        } else {
+            loadFromDatabase();
+        }
+
+        if (snapshotEnabled && snapshotIntervalMillis > 0) {
+            snapshotExecutor.scheduleWithFixedDelay(this::writeSnapshot,
+                    snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshotExecutor.shutdownNow();
+
+        if (enabled && snapshotEnabled) {
+            writeSnapshot();
+        }
+    }
+
+    private boolean restore() {
+        if (!snapshotEnabled || !Files.exists(snapshotPath)) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            SnapshotFile.Contents contents = SnapshotFile.read(snapshotPath, dictionary);
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - contents.createdAt());
+
+            if (age.toMillis() > snapshotMaxAgeMillis) {
+                LOGGER.info("Not restoring the read model from {}, written {} ago, loading it from the database",
+                        snapshotPath, age);
+                return false;
+            }
+
+            contents.snapshots().forEach(snapshot -> replace(snapshot.code(), snapshot));
+
+            synchronized (stateLock) {
+                ready = true;
+                snapshotModifications = modifications.get();
+            }
+
+            restored = true;
+            restoredCreatedAt = contents.createdAt();
+            loadMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            LOGGER.info("Restored read model from {}: {} locations written {} ago in {} ms, reconciling with the database",
+                    snapshotPath, byCode.size(), age, loadMillis);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            byCode.clear();
+            codeByCity.clear();
+            LOGGER.warn("Could not restore the read model from {}, loading it from the database", snapshotPath, ex);
+            return false;
+        }
+    }
+
+    private void loadFromDatabase() {
+        long start = System.nanoTime();
+        boolean loaded = false;
+
+        try {
+            apply(transactionTemplate.execute(status -> loadAll()));
+            loaded = true;
+        } catch (RuntimeException ex) {
+            failures.increment();
+            LOGGER.error("Could not load the read model, reads use the database", ex);
+        }
+
+        if (!finishLoading(loaded)) {
+            return;
+        }
+
+        loadMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        LOGGER.info("Loaded read model: {} locations in {} ms", byCode.size(), loadMillis);
+    }
+
+    void reconcile() {
+        long start = System.nanoTime();
+
+        try {
+            reconciled = apply(transactionTemplate.execute(status -> loadAll()));
+            LOGGER.info("Reconciled restored read model with the database: {} locations changed in {} ms",
+                    reconciled, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException ex) {
+            failures.increment();
+            retryReconcile(ex);
+            return;
+        }
+
+        finishLoading(true);
+    }
+
+    // Runs on the snapshot executor, like reconcile
+    private void retryReconcile(RuntimeException ex) {
+        boolean tooOld = System.currentTimeMillis() - restoredCreatedAt > snapshotMaxAgeMillis;
+
+        if (tooOld && ready) {
+            synchronized (stateLock) {
+                ready = false;
+            }
+
+            byCode.clear();
+            codeByCity.clear();
+        }
+
+        LOGGER.error("Could not reconcile the restored read model with the database, {}, retrying in {} ms",
+                ready ? "serving the snapshot" : "reads use the database", reconcileRetryMillis, ex);
+
+        try {
+            snapshotExecutor.schedule(this::reconcile, reconcileRetryMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejected) {
+            // Shutting down
+            return;
+        }
+
+        reconcileRetryMillis = Math.min(reconcileRetryMillis * 2, RECONCILE_RETRY_MAX_MILLIS);
+    }
+
+    /**
+     * Replaces every snapshot that differs from {@code snapshots} and removes locations missing from it,
+     * dropping the cached response bodies of those locations. Returns how many changed.
+     */
+    private int apply(Map<String, LocationSnapshot> snapshots) {
+        int changed = 0;
+
+        for (String code : List.copyOf(byCode.keySet())) {
+            if (!snapshots.containsKey(code)) {
+                replace(code, null);
+                responseBodyCache.invalidate(code);
+                changed++;
+            }
+        }
+
+        for (Map.Entry<String, LocationSnapshot> entry : snapshots.entrySet()) {
+            LocationSnapshot previous = byCode.get(entry.getKey());
+
+            if (previous != null && Arrays.equals(SnapshotFile.encode(previous), SnapshotFile.encode(entry.getValue()))) {
+                continue;
+            }
+
+            replace(entry.getKey(), entry.getValue());
+
+            if (previous != null) {
+                responseBodyCache.invalidate(entry.getKey());
+                changed++;
+            }
+        }
+
+        return changed;
+    }
+
+    private boolean finishLoading(boolean loaded) {
+        List<String> changed;
+
+        synchronized (stateLock) {
+            loading = false;
+            ready = ready || loaded;
+            changed = new ArrayList<>(changedDuringLoad);
+            changedDuringLoad.clear();
+        }
+
+        if (!ready) {
+            return false;
+        }
+
+        // Committed while the bulk read was running, which may or may not have seen them
+        changed.forEach(this::reload);
+        return true;
+    }
+
+    void writeSnapshot() {
+        long current;
+
+        synchronized (stateLock) {
+            current = modifications.get();
+
+            // A restored model is only written again once the database confirmed it
+            if (!ready || loading || current == snapshotModifications) {
+                return;
+            }
+        }
+
+        try {
+            snapshotBytes = SnapshotFile.write(snapshotPath, List.copyOf(byCode.values()), System.currentTimeMillis());
+            snapshotWrites.increment();
+
+            synchronized (stateLock) {
+                snapshotModifications = current;
+            }
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Could not write the read model snapshot to {}", snapshotPath, ex);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        changed(event.code());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        changed(event.code());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether reads of {@code locationCode} are answered here rather than by the database.
+     */
+    public boolean isServing(String locationCode) {
+        return ready && locationCode != null && !stale.contains(locationCode);
+    }
+
+    /**
+     * Returns the snapshot of the untrashed location with {@code locationCode}, or {@code null}. Only
+     * meaningful when {@link #isServing(String)}.
+     */
+    public LocationSnapshot get(String locationCode) {
+        return byCode.get(locationCode);
+    }
+
+    /**
+     * Whether {@link #findCodeByCountryCodeAndCityName} is authoritative, so a {@code null} means the city is
+     * unknown. Not while a reload has failed: the stale location may have been renamed, and city lookups then
+     * go to the database until it is reloaded.
+     */
+    public boolean isResolvingCities() {
+        return ready && stale.isEmpty();
+    }
+
+    /**
+     * Returns the code of the untrashed location in {@code countryCode} named exactly {@code cityName}, or
+     * {@code null}. Only meaningful when {@link #isResolvingCities()}.
+     */
+    public String findCodeByCountryCodeAndCityName(String countryCode, String cityName) {
+        if (countryCode == null || cityName == null) {
+            return null;
+        }
+
+        return codeByCity.get(cityKey(countryCode, cityName));
+    }
+
+    public Stats stats() {
+        return new Stats(enabled, ready, byCode.size(), loadMillis, reloads.sum(), failures.sum(), stale.size(),
+                restored, reconciled, snapshotWrites.sum(), snapshotBytes);
+    }
+
+    private void changed(String code) {
+        if (code == null) {
+            return;
+        }
+
+        synchronized (stateLock) {
+            // Reloaded again once the bulk read is done; a restored model also reloads it right away
+            if (loading) {
+                changedDuringLoad.add(code);
+            }
+
+            if (!ready) {
+                return;
+            }
+        }
+
+        reload(code);
+    }
+
+    void reload(String code) {
+        synchronized (reloadLocks[Math.floorMod(code.hashCode(), LOCK_STRIPES)]) {
+            try {
+                replace(code, transactionTemplate.execute(status -> loadOne(code)));
+                stale.remove(code);
+                reloads.increment();
+            } catch (RuntimeException ex) {
+                replace(code, null);
+                stale.add(code);
+                failures.increment();
+                LOGGER.error("Could not reload location {} into the read model, it is read from the database", code, ex);
+            }
+        }
+
+        responseBodyCache.invalidate(code);
+    }
+
+    private Map<String, LocationSnapshot> loadAll() {
+        List<Location> locations = locationRepository.findAllUntrashedLocations();
+
+        Map<String, RealtimeWeather> realtimeWeather = new HashMap<>();
+        for (RealtimeWeather item : realtimeWeatherRepository.findAll()) {
+            realtimeWeather.put(item.getLocationCode(), item);
+        }
+
+        Map<String, List<HourlyWeather>> hourlyWeather = new HashMap<>();
+        for (HourlyWeather item : hourlyWeatherRepository.findAll()) {
+            hourlyWeather.computeIfAbsent(item.getId().getLocation().getCode(), key -> new ArrayList<>()).add(item);
+        }
+
+        Map<String, List<DailyWeather>> dailyWeather = new HashMap<>();
+        for (DailyWeather item : dailyWeatherRepository.findAll()) {
+            dailyWeather.computeIfAbsent(item.getId().getLocation().getCode(), key -> new ArrayList<>()).add(item);
+        }
+
+        Map<String, LocationSnapshot> snapshots = new HashMap<>();
+        for (Location location : locations) {
+            String code = location.getCode();
+            snapshots.put(code, snapshot(location, realtimeWeather.get(code),
+                    hourlyWeather.getOrDefault(code, List.of()), dailyWeather.getOrDefault(code, List.of()), dictionary));
+        }
+
+        return snapshots;
+    }
+
+    private LocationSnapshot loadOne(String code) {
+        Location location = locationRepository.findByCode(code);
+
+        if (location == null) {
+            return null;
+        }
+
+        return snapshot(location, realtimeWeatherRepository.findByLocationCode(code),
+                hourlyWeatherRepository.findByLocationCodeAndHour(code, -1),
+                dailyWeatherRepository.findByLocationCode(code), dictionary);
+    }
+
+    private void replace(String code, LocationSnapshot current) {
+        LocationSnapshot previous = current == null ? byCode.remove(code) : byCode.put(code, current);
+        modifications.incrementAndGet();
+        String currentKey = current == null ? null : cityKey(current.location());
+
+        if (currentKey != null) {
+            codeByCity.put(currentKey, code);
+        }
+
+        if (previous != null && !cityKey(previous.location()).equals(currentKey)) {
+            codeByCity.remove(cityKey(previous.location()), code);
+        }
+    }
+
+    /**
+     * Copies the entities, sharing the {@code dictionary} instance of statuses, region, country names and
+     * country codes, which repeat across most locations.
+     */
+    static LocationSnapshot snapshot(Location location, RealtimeWeather realtimeWeather,
+                                     List<HourlyWeather> hourlyWeather, List<DailyWeather> dailyWeather,
+                                     StringDictionary dictionary) {
+        Location copy = Location.builder()
+                .code(location.getCode())
+                .cityName(location.getCityName())
+                .regionName(dictionary.intern(location.getRegionName()))
+                .countryName(dictionary.intern(location.getCountryName()))
+                .countryCode(dictionary.intern(location.getCountryCode()))
+                .enabled(location.isEnabled())
+                .build();
+
+        RealtimeWeather realtimeCopy = realtimeWeather == null ? null : RealtimeWeather.builder()
+                .locationCode(copy.getCode())
+                .temperature(realtimeWeather.getTemperature())
+                .humidity(realtimeWeather.getHumidity())
+                .precipitation(realtimeWeather.getPrecipitation())
+                .windSpeed(realtimeWeather.getWindSpeed())
+                .status(dictionary.intern(realtimeWeather.getStatus()))
+                .lastUpdated(realtimeWeather.getLastUpdated() == null ? null
+                        : new Date(realtimeWeather.getLastUpdated().getTime()))
+                .location(copy)
+                .build();
+
+        List<HourlyWeather> hourlyCopy = hourlyWeather.stream()
+                .map(item -> HourlyWeather.builder()
+                        .id(new HourlyWeatherId(item.getId().getHourOfDay(), copy))
+                        .temperature(item.getTemperature())
+                        .precipitation(item.getPrecipitation())
+                        .status(dictionary.intern(item.getStatus()))
+                        .build())
+                .sorted(Comparator.comparingInt(item -> item.getId().getHourOfDay()))
+                .toList();
+
+        List<DailyWeather> dailyCopy = dailyWeather.stream()
+                .map(item -> DailyWeather.builder()
+                        .id(new DailyWeatherId(item.getId().getDayOfMonth(), item.getId().getMonth(), copy))
+                        .minTemp(item.getMinTemp())
+                        .maxTemp(item.getMaxTemp())
+                        .precipitation(item.getPrecipitation())
+                        .status(dictionary.intern(item.getStatus()))
+                        .build())
+                .sorted(Comparator.comparingInt((DailyWeather item) -> item.getId().getMonth())
+                        .thenComparingInt(item -> item.getId().getDayOfMonth()))
+                .toList();
+
+        copy.setRealtimeWeather(realtimeCopy);
+        copy.setListHourlyWeather(hourlyCopy);
+        copy.setListDailyWeather(dailyCopy);
+
+        return new LocationSnapshot(copy, realtimeCopy, hourlyCopy, dailyCopy);
+    }
+
+    private static String cityKey(Location location) {
+        return cityKey(location.getCountryCode(), location.getCityName());
+    }
+
+    private static String cityKey(String countryCode, String cityName) {
+        return countryCode + '\u0000' + cityName;
+    }
+
+    /**
+     * {@code stale} counts locations read from the database because their last reload failed. {@code restored}
+     * tells whether the model started from a snapshot file, {@code reconciled} how many of its locations then
+     * differed from the database.
+     */
+    public record Stats(boolean enabled, boolean ready, int locations, long loadMillis, long reloads,
+                        long failures, int stale, boolean restored, int reconciled, long snapshotWrites,
+                        long snapshotBytes) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.KokoSky.WeatherService.readModel;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/read-model")
+public class ReadModelAdminController {
+
+    private final ReadModel readModel;
+
+    public ReadModelAdminController(ReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    @GetMapping
+    public ResponseEntity<ReadModel.Stats> getReadModelStats() {
+        return ResponseEntity.ok(readModel.stats());
+    }
+}
@@ -0,0 +1,289 @@
+package com.KokoSky.WeatherService.readModel;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeather;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherId;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherId;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file format of the {@link ReadModel}, restored on startup instead of reading every location and its
+ * weather from the database.
+ * <p>
+ * A header (magic, format version, creation time, location count), then one record per location: its fields,
+ * its realtime weather if any, its hourly and its daily forecast. Integers are big-endian, strings are a
+ * length in bytes ({@code -1} for {@code null}) followed by UTF-8. The file ends with the CRC-32 of everything
+ * before it. Files of another version or with a wrong checksum are rejected as a whole.
+ * <p>
+ * Written to a temporary file in the same directory and renamed over the previous one, so readers never see
+ * a partial file. Read through a memory mapping, decoding straight from the page cache; repeated strings
+ * are resolved to their {@link StringDictionary} instance.
+ */
+final class SnapshotFile {
+
+    static final int MAGIC = 0x4B57524D;
+    static final short VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 4;
+    private static final int CHECKSUM_BYTES = 8;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private SnapshotFile() {
+    }
+
+    record Contents(long createdAt, List<LocationSnapshot> snapshots) {
+    }
+
+    static long write(Path path, Collection<LocationSnapshot> snapshots, long createdAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(createdAt);
+        out.writeInt(snapshots.size());
+
+        for (LocationSnapshot snapshot : snapshots) {
+            writeSnapshot(out, snapshot);
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        out.writeLong(checksum.getValue());
+        out.flush();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try {
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                bytes.writeTo(file);
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        return bytes.size();
+    }
+
+    static Contents read(Path path, StringDictionary dictionary) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size < HEADER_BYTES + CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a read model snapshot: " + size + " bytes");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(buffer, dictionary);
+        }
+    }
+
+    static Contents decode(ByteBuffer buffer, StringDictionary dictionary) throws IOException {
+        int end = buffer.limit() - CHECKSUM_BYTES;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a read model snapshot");
+        }
+
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported read model snapshot version " + buffer.getShort(4));
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().position(0).limit(end));
+
+        if (checksum.getValue() != buffer.getLong(end)) {
+            throw new IOException("Read model snapshot checksum mismatch");
+        }
+
+        try {
+            ByteBuffer in = buffer.duplicate().position(6).limit(end);
+            long createdAt = in.getLong();
+            int count = in.getInt();
+            List<LocationSnapshot> snapshots = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                snapshots.add(readSnapshot(in, dictionary));
+            }
+
+            return new Contents(createdAt, snapshots);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Truncated read model snapshot", ex);
+        }
+    }
+
+    /**
+     * The record of one location, to compare snapshots by content.
+     */
+    static byte[] encode(LocationSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+
+        try {
+            writeSnapshot(new DataOutputStream(bytes), snapshot);
+        } catch (IOException ex) {
+            // Not thrown by in-memory streams
+            throw new IllegalStateException(ex);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeSnapshot(DataOutputStream out, LocationSnapshot snapshot) throws IOException {
+        Location location = snapshot.location();
+        writeString(out, location.getCode());
+        writeString(out, location.getCityName());
+        writeString(out, location.getRegionName());
+        writeString(out, location.getCountryName());
+        writeString(out, location.getCountryCode());
+        out.writeBoolean(location.isEnabled());
+
+        RealtimeWeather realtimeWeather = snapshot.realtimeWeather();
+        out.writeBoolean(realtimeWeather != null);
+
+        if (realtimeWeather != null) {
+            out.writeInt(realtimeWeather.getTemperature());
+            out.writeInt(realtimeWeather.getHumidity());
+            out.writeInt(realtimeWeather.getPrecipitation());
+            out.writeInt(realtimeWeather.getWindSpeed());
+            writeString(out, realtimeWeather.getStatus());
+            out.writeLong(realtimeWeather.getLastUpdated() == null ? NO_DATE : realtimeWeather.getLastUpdated().getTime());
+        }
+
+        out.writeInt(snapshot.hourlyWeather().size());
+
+        for (HourlyWeather hourlyWeather : snapshot.hourlyWeather()) {
+            out.writeByte(hourlyWeather.getId().getHourOfDay());
+            out.writeInt(hourlyWeather.getTemperature());
+            out.writeInt(hourlyWeather.getPrecipitation());
+            writeString(out, hourlyWeather.getStatus());
+        }
+
+        out.writeInt(snapshot.dailyWeather().size());
+
+        for (DailyWeather dailyWeather : snapshot.dailyWeather()) {
+            out.writeByte(dailyWeather.getId().getDayOfMonth());
+            out.writeByte(dailyWeather.getId().getMonth());
+            out.writeInt(dailyWeather.getMinTemp());
+            out.writeInt(dailyWeather.getMaxTemp());
+            out.writeInt(dailyWeather.getPrecipitation());
+            writeString(out, dailyWeather.getStatus());
+        }
+    }
+
+    private static LocationSnapshot readSnapshot(ByteBuffer in, StringDictionary dictionary) {
+        Location location = Location.builder()
+                .code(readString(in))
+                .cityName(readString(in))
+                .regionName(readString(in))
+                .countryName(readString(in))
+                .countryCode(readString(in))
+                .enabled(in.get() != 0)
+                .build();
+
+        RealtimeWeather realtimeWeather = null;
+
+        if (in.get() != 0) {
+            realtimeWeather = RealtimeWeather.builder()
+                    .temperature(in.getInt())
+                    .humidity(in.getInt())
+                    .precipitation(in.getInt())
+                    .windSpeed(in.getInt())
+                    .status(readString(in))
+                    .build();
+
+            long lastUpdated = in.getLong();
+            realtimeWeather.setLastUpdated(lastUpdated == NO_DATE ? null : new Date(lastUpdated));
+            realtimeWeather.setLocation(location);
+        }
+
+        int hourlyCount = count(in);
+        List<HourlyWeather> hourlyWeather = new ArrayList<>(hourlyCount);
+
+        for (int i = 0; i < hourlyCount; i++) {
+            hourlyWeather.add(HourlyWeather.builder()
+                    .id(new HourlyWeatherId(in.get(), location))
+                    .temperature(in.getInt())
+                    .precipitation(in.getInt())
+                    .status(readString(in))
+                    .build());
+        }
+
+        int dailyCount = count(in);
+        List<DailyWeather> dailyWeather = new ArrayList<>(dailyCount);
+
+        for (int i = 0; i < dailyCount; i++) {
+            dailyWeather.add(DailyWeather.builder()
+                    .id(new DailyWeatherId(in.get(), in.get(), location))
+                    .minTemp(in.getInt())
+                    .maxTemp(in.getInt())
+                    .precipitation(in.getInt())
+                    .status(readString(in))
+                    .build());
+        }
+
+        // Copies once more into the read model's own ordering and structure
+        return ReadModel.snapshot(location, realtimeWeather, hourlyWeather, dailyWeather, dictionary);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("String of " + length + " bytes past the end");
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int count(ByteBuffer in) {
+        int count = in.getInt();
+
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid count " + count);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package com.KokoSky.WeatherService.realtimeWeather;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/realtime")
+public class RealtimeWeatherAdminController {
+
+    private final RealtimeWeatherCache realtimeWeatherCache;
+
+    public RealtimeWeatherAdminController(RealtimeWeatherCache realtimeWeatherCache) {
+        this.realtimeWeatherCache = realtimeWeatherCache;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<RealtimeWeatherCache.CacheStats> getCacheStats() {
+        return ResponseEntity.ok(realtimeWeatherCache.stats());
+    }
+}
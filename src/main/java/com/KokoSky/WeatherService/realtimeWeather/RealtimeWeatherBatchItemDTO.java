@@ -0,0 +1,29 @@
+package com.KokoSky.WeatherService.realtimeWeather;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonPropertyOrder({"ip_address", "location_code", "realtime_weather", "error"})
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RealtimeWeatherBatchItemDTO {
+
+    @JsonProperty("ip_address")
+    private String ipAddress;
+
+    @JsonProperty("location_code")
+    private String locationCode;
+
+    @JsonProperty("realtime_weather")
+    private RealtimeWeatherDTO realtimeWeather;
+
+    private String error;
+}
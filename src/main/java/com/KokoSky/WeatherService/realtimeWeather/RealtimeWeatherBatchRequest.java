@@ -0,0 +1,21 @@
+package com.KokoSky.WeatherService.realtimeWeather;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RealtimeWeatherBatchRequest {
+
+    @JsonProperty("ip_addresses")
+    @NotEmpty(message = "IP addresses must not be empty")
+    @Size(max = 1000, message = "At most 1000 IP addresses can be resolved per request")
+    private List<String> ipAddresses;
+}
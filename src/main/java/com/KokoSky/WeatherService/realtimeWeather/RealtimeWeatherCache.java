@@ -0,0 +1,191 @@
+package com.KokoSky.WeatherService.realtimeWeather;
+
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.utility.ClockCache;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of realtime weather keyed by location code.
+ * <p>
+ * Writes go through {@link #put(String, RealtimeWeather)} or {@link #invalidate(String)} in the same code
+ * path as the database update, and any {@link LocationChangedEvent} evicts the location's entry. A load that
+ * overlapped a write is returned to its caller but not cached, so a slow read cannot put back a row older
+ * than the write. Entries expire after {@code realtime-weather.cache.ttl} as a safety net for rows changed
+ * outside this service, and are evicted with a second-chance (CLOCK) policy once the cache grows past
+ * {@code realtime-weather.cache.maximum-size} (see {@link ClockCache}).
+ * <p>
+ * Cached instances are detached copies shared between requests and must not be modified. They hold a
+ * transient copy of their location rather than the managed entity, and their own {@code lastUpdated}. Their
+ * status is the {@link StringDictionary} instance, shared by every location with the same status.
+ */
+@Component
+public class RealtimeWeatherCache {
+
+    private final boolean enabled;
+    private final int maximumSize;
+    private final LongSupplier nanoClock;
+    private final StringDictionary dictionary;
+
+    private final ClockCache<String, RealtimeWeather> entries;
+    // Bumped by every write, loads that overlap one are not cached
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    @Autowired
+    public RealtimeWeatherCache(
+            @Value("${realtime-weather.cache.enabled:true}") boolean enabled,
+            @Value("${realtime-weather.cache.maximum-size:10000}") int maximumSize,
+            @Value("${realtime-weather.cache.ttl:5m}") Duration ttl,
+            StringDictionary dictionary
+    ) {
+        this(enabled, maximumSize, ttl, dictionary, System::nanoTime);
+    }
+
+    RealtimeWeatherCache(boolean enabled, int maximumSize, Duration ttl, StringDictionary dictionary,
+                         LongSupplier nanoClock) {
+        this.enabled = enabled && maximumSize > 0;
+        this.maximumSize = maximumSize;
+        this.dictionary = dictionary;
+        this.nanoClock = nanoClock;
+        this.entries = new ClockCache<>(maximumSize, realtimeWeather -> 1, ttl, nanoClock);
+    }
+
+    /**
+     * Returns the cached realtime weather of {@code locationCode}, loading and caching it on a miss.
+     * Returns {@code null} without caching anything when {@code loader} does.
+     */
+    public RealtimeWeather get(String locationCode, Function<String, RealtimeWeather> loader) {
+        if (!enabled) {
+            return loader.apply(locationCode);
+        }
+
+        RealtimeWeather cached = entries.get(locationCode);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+
+        long now = nanoClock.getAsLong();
+        long writesBeforeLoad = writeCount.get();
+        RealtimeWeather loaded = loader.apply(locationCode);
+        loadNanos.add(nanoClock.getAsLong() - now);
+
+        if (loaded == null) {
+            return null;
+        }
+
+        RealtimeWeather copy = detachedCopy(loaded);
+
+        synchronized (this) {
+            if (writeCount.get() == writesBeforeLoad) {
+                entries.put(locationCode, copy);
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * Replaces the entry of {@code locationCode} with the state just written to the database.
+     */
+    public void put(String locationCode, RealtimeWeather realtimeWeather) {
+        if (!enabled) {
+            return;
+        }
+
+        RealtimeWeather copy = detachedCopy(realtimeWeather);
+
+        synchronized (this) {
+            writeCount.incrementAndGet();
+            entries.put(locationCode, copy);
+        }
+    }
+
+    public void invalidate(String locationCode) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            writeCount.incrementAndGet();
+            entries.remove(locationCode);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        writeCount.incrementAndGet();
+        entries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        // Entries carry the location, so renames are evicted as well as deletions
+        invalidate(event.code());
+    }
+
+    @EventListener
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        // Writes made here already went through put or invalidate
+        if (event.remote()) {
+            invalidate(event.code());
+        }
+    }
+
+    public CacheStats stats() {
+        long loads = misses.sum();
+        double averageLoadMicros = loads == 0 ? 0 : loadNanos.sum() / 1000.0 / loads;
+        return new CacheStats(entries.size(), maximumSize, hits.sum(), loads, entries.evictions(), averageLoadMicros);
+    }
+
+    private RealtimeWeather detachedCopy(RealtimeWeather realtimeWeather) {
+        RealtimeWeather copy = RealtimeWeather.builder()
+                .temperature(realtimeWeather.getTemperature())
+                .humidity(realtimeWeather.getHumidity())
+                .precipitation(realtimeWeather.getPrecipitation())
+                .windSpeed(realtimeWeather.getWindSpeed())
+                .status(dictionary.intern(realtimeWeather.getStatus()))
+                .lastUpdated(realtimeWeather.getLastUpdated() == null ? null : new Date(realtimeWeather.getLastUpdated().getTime()))
+                .build();
+
+        if (realtimeWeather.getLocation() != null) {
+            copy.setLocation(transientCopy(realtimeWeather.getLocation()));
+        } else {
+            copy.setLocationCode(realtimeWeather.getLocationCode());
+        }
+
+        return copy;
+    }
+
+    // Scalar fields only, the managed entity and its lazy collections are not shared between requests
+    private Location transientCopy(Location location) {
+        Location copy = new Location(location.getCityName(), dictionary.intern(location.getRegionName()),
+                dictionary.intern(location.getCountryName()), dictionary.intern(location.getCountryCode()));
+        copy.setCode(location.getCode());
+        copy.setEnabled(location.isEnabled());
+        return copy;
+    }
+
+    public record CacheStats(int size, int maximumSize, long hits, long misses, long evictions,
+                             double averageLoadMicros) {
+    }
+}
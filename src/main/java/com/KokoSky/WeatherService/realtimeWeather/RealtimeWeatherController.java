@@ -1,9 +1,15 @@
 package com.KokoSky.WeatherService.realtimeWeather;
 
+import com.KokoSky.WeatherService.geolocation.GeolocationResult;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
 import com.KokoSky.WeatherService.location.Location;
-import com.KokoSky.WeatherService.utility.CommonUtility;
+import com.KokoSky.WeatherService.responseCache.CachedBody;
+import com.KokoSky.WeatherService.responseCache.RefreshAhead;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
@@ -11,6 +17,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.REALTIME;
+
 @RestController
 @RequestMapping("/api/v1/realtime")
 public class RealtimeWeatherController {
@@ -19,33 +31,108 @@ public class RealtimeWeatherController {
     private final GeolocationService geolocationService;
     private final RealtimeWeatherService realtimeWeatherService;
     private final ModelMapper modelMapper;
+    private final ResponseBodyCache responseBodyCache;
+    private final ObjectMapper objectMapper;
+    private final SingleFlightLoader singleFlightLoader;
 
     public RealtimeWeatherController(
             GeolocationService geolocationService,
             RealtimeWeatherService realtimeWeatherService,
-            ModelMapper modelMapper
+            ModelMapper modelMapper,
+            ResponseBodyCache responseBodyCache,
+            ObjectMapper objectMapper,
+            SingleFlightLoader singleFlightLoader,
+            RefreshAhead refreshAhead
     ) {
         this.geolocationService = geolocationService;
         this.realtimeWeatherService = realtimeWeatherService;
         this.modelMapper = modelMapper;
+        this.responseBodyCache = responseBodyCache;
+        this.objectMapper = objectMapper;
+        this.singleFlightLoader = singleFlightLoader;
+
+        refreshAhead.register(REALTIME, code -> {
+            RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocationCode(code);
+            return CachedBody.of(objectMapper, entity2DTO(realtimeWeather), realtimeWeather.getLastUpdated());
+        });
     }
 
     @GetMapping
-    public ResponseEntity<?> getRealtimeWeatherByIPAddress(HttpServletRequest request) {
-        String ipAddress = CommonUtility.getIPAddress(request);
+    public ResponseEntity<?> getRealtimeWeatherByIPAddress(HttpServletRequest request, HttpServletResponse response) {
+        Location locationByIPAddress = geolocationService.getLocation(request, response);
+
+        CachedBody cached = responseBodyCache.get(REALTIME, locationByIPAddress.getCode());
+
+        if (cached == null) {
+            String key = locationByIPAddress.getCode() == null ? null
+                    : SingleFlightLoader.key(REALTIME, locationByIPAddress.getCode());
+
+            cached = singleFlightLoader.load(key, () -> {
+                long stamp = responseBodyCache.stamp();
+                RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocation(locationByIPAddress);
+                CachedBody loaded = CachedBody.of(objectMapper, entity2DTO(realtimeWeather), realtimeWeather.getLastUpdated());
+                responseBodyCache.put(REALTIME, realtimeWeather.getLocationCode(), stamp, loaded);
+                return loaded;
+            });
+        }
+
+        return cached.toResponse();
+    }
+
+    /**
+     * Resolves many client IPs at once. Each distinct location is only looked up once and all weather
+     * comes from a single query, errors are reported per IP.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getRealtimeWeatherByIPAddresses(@RequestBody @Valid RealtimeWeatherBatchRequest batchRequest) {
+        List<GeolocationResult> geolocationResults = geolocationService.getLocations(batchRequest.getIpAddresses());
+
+        List<Location> locations = geolocationResults.stream()
+                .filter(GeolocationResult::isResolved)
+                .map(GeolocationResult::location)
+                .toList();
+        Map<Location, RealtimeWeather> realtimeWeatherByLocation = realtimeWeatherService.getByLocations(locations);
+
+        List<RealtimeWeatherBatchItemDTO> items = new ArrayList<>(geolocationResults.size());
+        for (GeolocationResult result : geolocationResults) {
+            RealtimeWeatherBatchItemDTO item = new RealtimeWeatherBatchItemDTO();
+            item.setIpAddress(result.ipAddress());
 
-        Location locationByIPAddress = geolocationService.getLocation(ipAddress);
-        RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocation(locationByIPAddress);
+            if (!result.isResolved()) {
+                item.setError(result.error());
+            } else {
+                RealtimeWeather realtimeWeather = realtimeWeatherByLocation.get(result.location());
 
-        return ResponseEntity.ok(entity2DTO(realtimeWeather));
+                if (realtimeWeather == null) {
+                    item.setLocationCode(result.location().getCode());
+                    item.setError("No realtime weather found for location: " + result.location());
+                } else {
+                    item.setLocationCode(realtimeWeather.getLocationCode());
+                    item.setRealtimeWeather(entity2DTO(realtimeWeather));
+                }
+            }
+
+            items.add(item);
+        }
+
+        return ResponseEntity.ok(items);
     }
 
     @GetMapping("/{locationCode}")
     public ResponseEntity<?> getRealtimeWeatherByLocationCode(@PathVariable("locationCode") String locationCode) {
-        RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocationCode(locationCode);
-        RealtimeWeatherDTO dto = modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+        CachedBody cached = responseBodyCache.get(REALTIME, locationCode);
+
+        if (cached == null) {
+            cached = singleFlightLoader.load(SingleFlightLoader.key(REALTIME, locationCode), () -> {
+                long stamp = responseBodyCache.stamp();
+                RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocationCode(locationCode);
+                CachedBody loaded = CachedBody.of(objectMapper, entity2DTO(realtimeWeather), realtimeWeather.getLastUpdated());
+                responseBodyCache.put(REALTIME, realtimeWeather.getLocationCode(), stamp, loaded);
+                return loaded;
+            });
+        }
 
-        return ResponseEntity.ok(dto);
+        return cached.toResponse();
     }
 
     @PutMapping("/{locationCode}")
@@ -3,6 +3,9 @@ package com.KokoSky.WeatherService.realtimeWeather;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface RealtimeWeatherRepository extends CrudRepository<RealtimeWeather, String> {
 
     @Query("SELECT r FROM RealtimeWeather r WHERE r.location.countryCode = ?1 AND r.location.cityName = ?2")
@@ -10,4 +13,11 @@ public interface RealtimeWeatherRepository extends CrudRepository<RealtimeWeathe
 
     @Query("SELECT r FROM RealtimeWeather r WHERE r.locationCode = ?1 AND r.location.trashed = false")
     RealtimeWeather findByLocationCode(String locationCode);
+
+    @Query("SELECT r FROM RealtimeWeather r JOIN FETCH r.location l WHERE r.locationCode IN ?1 AND l.trashed = false")
+    List<RealtimeWeather> findByLocationCodes(Collection<String> locationCodes);
+
+    // Matches every combination of the given values, callers keep the pairs they asked for
+    @Query("SELECT r FROM RealtimeWeather r JOIN FETCH r.location l WHERE l.countryCode IN ?1 AND l.cityName IN ?2")
+    List<RealtimeWeather> findByCountryCodesAndCities(Collection<String> countryCodes, Collection<String> cityNames);
 }
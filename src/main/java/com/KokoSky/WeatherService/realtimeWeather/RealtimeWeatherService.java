@@ -1,34 +1,85 @@
 package com.KokoSky.WeatherService.realtimeWeather;
 
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
 import com.KokoSky.WeatherService.location.Location;
 import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.location.UnknownLocationCache;
+import com.KokoSky.WeatherService.readModel.LocationSnapshot;
+import com.KokoSky.WeatherService.readModel.ReadModel;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class RealtimeWeatherService {
 
     private final RealtimeWeatherRepository realtimeWeatherRepository;
     private final LocationRepository locationRepository;
+    private final RealtimeWeatherCache realtimeWeatherCache;
+    private final ResponseBodyCache responseBodyCache;
+    private final UnknownLocationCache unknownLocationCache;
+    private final ReadModel readModel;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RealtimeWeatherService(
             RealtimeWeatherRepository realtimeWeatherRepository,
-            LocationRepository locationRepository
+            LocationRepository locationRepository,
+            RealtimeWeatherCache realtimeWeatherCache,
+            ResponseBodyCache responseBodyCache,
+            UnknownLocationCache unknownLocationCache,
+            ReadModel readModel,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.realtimeWeatherRepository = realtimeWeatherRepository;
         this.locationRepository = locationRepository;
+        this.realtimeWeatherCache = realtimeWeatherCache;
+        this.responseBodyCache = responseBodyCache;
+        this.unknownLocationCache = unknownLocationCache;
+        this.readModel = readModel;
+        this.eventPublisher = eventPublisher;
     }
 
     public RealtimeWeather getByLocation(Location location) {
+        // Resolved through the IP range index, no need to match on country code and city name
+        if (location.getCode() != null) {
+            return getByLocationCode(location.getCode());
+        }
+
         String countryCode = location.getCountryCode();
         String cityName = location.getCityName();
 
+        if (readModel.isResolvingCities()) {
+            String locationCode = readModel.findCodeByCountryCodeAndCityName(countryCode, cityName);
+
+            if (locationCode == null) {
+                throw new LocationNotFoundException(countryCode, cityName);
+            }
+
+            return getByLocationCode(locationCode);
+        }
+
+        if (unknownLocationCache.isUnknownCity(countryCode, cityName)) {
+            throw new LocationNotFoundException(countryCode, cityName);
+        }
+
         RealtimeWeather realtimeWeather = realtimeWeatherRepository.findByCountryCodeAndCity(countryCode, cityName);
 
         if (realtimeWeather == null) {
+            // Only remembered when the city itself is unknown, not when it just has no realtime weather yet
+            unknownLocationCache.findByCountryCodeAndCityName(countryCode, cityName,
+                    locationRepository::findByCountryCodeAndCityName);
             throw new LocationNotFoundException(countryCode, cityName);
         }
 
@@ -36,16 +87,115 @@ public class RealtimeWeatherService {
     }
 
     public RealtimeWeather getByLocationCode(String locationCode) {
+        if (readModel.isServing(locationCode)) {
+            LocationSnapshot snapshot = readModel.get(locationCode);
 
-        RealtimeWeather realtimeWeather = realtimeWeatherRepository.findByLocationCode(locationCode);
+            if (snapshot == null || snapshot.realtimeWeather() == null) {
+                throw new LocationNotFoundException(locationCode);
+            }
+
+            return snapshot.realtimeWeather();
+        }
+
+        if (unknownLocationCache.isUnknownCode(locationCode)) {
+            throw new LocationNotFoundException(locationCode);
+        }
+
+        RealtimeWeather realtimeWeather = realtimeWeatherCache.get(locationCode, realtimeWeatherRepository::findByLocationCode);
 
         if (realtimeWeather == null) {
+            unknownLocationCache.findByCode(locationCode, locationRepository::findByCode);
             throw new LocationNotFoundException(locationCode);
         }
 
         return realtimeWeather;
     }
 
+    /**
+     * Fetches the realtime weather of many locations with at most one query per lookup kind: one for
+     * locations that carry a code and one for those only known by (country code, city name).
+     * The result is keyed by the identity of the given locations and omits locations without weather.
+     * Locations the {@link ReadModel} serves are answered from memory.
+     */
+    public Map<Location, RealtimeWeather> getByLocations(Collection<Location> locations) {
+        Map<Location, RealtimeWeather> result = new IdentityHashMap<>();
+        List<Location> remaining = new ArrayList<>();
+
+        for (Location location : locations) {
+            String locationCode = location.getCode();
+
+            if (locationCode == null && readModel.isResolvingCities()) {
+                locationCode = readModel.findCodeByCountryCodeAndCityName(location.getCountryCode(),
+                        location.getCityName());
+
+                // Unknown city
+                if (locationCode == null) {
+                    continue;
+                }
+            }
+
+            if (!readModel.isServing(locationCode)) {
+                remaining.add(location);
+                continue;
+            }
+
+            LocationSnapshot snapshot = readModel.get(locationCode);
+
+            if (snapshot != null && snapshot.realtimeWeather() != null) {
+                result.put(location, snapshot.realtimeWeather());
+            }
+        }
+
+        if (!remaining.isEmpty()) {
+            result.putAll(queryByLocations(remaining));
+        }
+
+        return result;
+    }
+
+    private Map<Location, RealtimeWeather> queryByLocations(Collection<Location> locations) {
+        Set<String> locationCodes = new HashSet<>();
+        Set<String> countryCodes = new HashSet<>();
+        Set<String> cityNames = new HashSet<>();
+
+        for (Location location : locations) {
+            if (location.getCode() != null) {
+                locationCodes.add(location.getCode());
+            } else {
+                countryCodes.add(location.getCountryCode());
+                cityNames.add(location.getCityName());
+            }
+        }
+
+        Map<String, RealtimeWeather> byCode = new HashMap<>();
+        if (!locationCodes.isEmpty()) {
+            for (RealtimeWeather realtimeWeather : realtimeWeatherRepository.findByLocationCodes(locationCodes)) {
+                byCode.put(realtimeWeather.getLocationCode(), realtimeWeather);
+            }
+        }
+
+        Map<String, RealtimeWeather> byCity = new HashMap<>();
+        if (!countryCodes.isEmpty()) {
+            for (RealtimeWeather realtimeWeather : realtimeWeatherRepository.findByCountryCodesAndCities(countryCodes, cityNames)) {
+                Location location = realtimeWeather.getLocation();
+                byCity.putIfAbsent(cityKey(location.getCountryCode(), location.getCityName()), realtimeWeather);
+            }
+        }
+
+        Map<Location, RealtimeWeather> result = new IdentityHashMap<>();
+        for (Location location : locations) {
+            RealtimeWeather realtimeWeather = location.getCode() != null
+                    ? byCode.get(location.getCode())
+                    : byCity.get(cityKey(location.getCountryCode(), location.getCityName()));
+
+            if (realtimeWeather != null) {
+                result.put(location, realtimeWeather);
+            }
+        }
+
+        return result;
+    }
+
     public RealtimeWeather update(String locationCode, RealtimeWeather realtimeWeather) {
         Location location = locationRepository.findByCode(locationCode);
 
@@ -59,10 +209,22 @@ public class RealtimeWeatherService {
         if (location.getRealtimeWeather() == null) {
             location.setRealtimeWeather(realtimeWeather);
             Location updatedLocation = locationRepository.save(location);
+            realtimeWeatherCache.put(locationCode, updatedLocation.getRealtimeWeather());
+            responseBodyCache.invalidate(locationCode);
+            eventPublisher.publishEvent(new WeatherChangedEvent(locationCode));
 
             return updatedLocation.getRealtimeWeather();
         }
 
-        return realtimeWeatherRepository.save(realtimeWeather);
+        RealtimeWeather updatedRealtimeWeather = realtimeWeatherRepository.save(realtimeWeather);
+        realtimeWeatherCache.put(locationCode, updatedRealtimeWeather);
+        responseBodyCache.invalidate(locationCode);
+        eventPublisher.publishEvent(new WeatherChangedEvent(locationCode));
+
+        return updatedRealtimeWeather;
+    }
+
+    private static String cityKey(String countryCode, String cityName) {
+        return countryCode + '\u0000' + cityName;
     }
 }
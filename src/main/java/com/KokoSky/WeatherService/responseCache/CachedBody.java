@@ -0,0 +1,67 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Date;
+import java.util.zip.CRC32C;
+
+/**
+ * A serialized JSON response body with its validators: a strong ETag hashed from the bytes and, when it
+ * can be trusted, a Last-Modified time ({@link #NO_LAST_MODIFIED} otherwise).
+ * <p>
+ * {@link #toResponse()} puts them on the response, and Spring MVC answers a matching If-None-Match or
+ * If-Modified-Since with 304 without writing the body.
+ */
+public record CachedBody(byte[] body, String etag, long lastModified) {
+
+    public static final long NO_LAST_MODIFIED = -1;
+
+    /**
+     * Serializes {@code dto} the way the Jackson message converter would, using the application's mapper.
+     * {@code lastModified} is when the content last changed, or {@code null} when the content does not carry
+     * it.
+     * <p>
+     * HTTP dates have second precision, so a second change within the same second would get the same
+     * Last-Modified and a false 304 from clients that only send If-Modified-Since. Last-Modified is only set
+     * when that second had already passed when the body was built, and the ETag validates everything else.
+     */
+    public static CachedBody of(ObjectMapper objectMapper, Object dto, Date lastModified) {
+        byte[] body;
+
+        try {
+            body = objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + dto.getClass().getSimpleName(), ex);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        String etag = '"' + Integer.toHexString(body.length) + '-' + Long.toHexString(crc.getValue()) + '"';
+
+        if (lastModified == null) {
+            return new CachedBody(body, etag, NO_LAST_MODIFIED);
+        }
+
+        long modifiedSecond = Math.floorDiv(lastModified.getTime(), 1000) * 1000;
+        boolean secondPassed = System.currentTimeMillis() >= modifiedSecond + 1000;
+        return new CachedBody(body, etag, secondPassed ? modifiedSecond : NO_LAST_MODIFIED);
+    }
+
+    /**
+     * A 200 response with validators, writing {@code body} straight to the output stream.
+     */
+    public ResponseEntity<byte[]> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag);
+
+        if (lastModified != NO_LAST_MODIFIED) {
+            response.lastModified(lastModified);
+        }
+
+        return response.body(body);
+    }
+}
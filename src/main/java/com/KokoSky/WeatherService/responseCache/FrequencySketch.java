@@ -0,0 +1,79 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of access frequencies: four rows of counters indexed by independent hashes of the key,
+ * the estimate being the smallest of its four counters, so it can overestimate but never underestimate.
+ * <p>
+ * Once {@code 10 * width} accesses have been recorded every counter is halved, so estimates follow recent
+ * popularity rather than all-time totals. Updates are not atomic across rows, which only adds to the
+ * sketch's own error.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private final AtomicIntegerArray counters;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(int width) {
+        this.width = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+        this.mask = this.width - 1;
+        this.sampleSize = 10 * this.width;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+    }
+
+    void increment(String key) {
+        int hash = spread(key.hashCode());
+
+        for (int row = 0; row < DEPTH; row++) {
+            counters.incrementAndGet(indexOf(hash, row));
+        }
+
+        if (additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+    }
+
+    int estimate(String key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(indexOf(hash, row)));
+        }
+
+        return estimate;
+    }
+
+    private synchronized void age() {
+        // Another thread may have aged the sketch while this one waited
+        if (additions.get() < sampleSize) {
+            return;
+        }
+
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+
+        additions.set(0);
+    }
+
+    private int indexOf(int hash, int row) {
+        int rowHash = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        rowHash ^= rowHash >>> 16;
+        return row * width + (rowHash & mask);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45D9F3B;
+        return hash ^ (hash >>> 16);
+    }
+}
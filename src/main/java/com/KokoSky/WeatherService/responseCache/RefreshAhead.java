@@ -0,0 +1,222 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Rebuilds the cached bodies of hot locations in the background, so their readers keep hitting the
+ * {@link ResponseBodyCache} instead of paying for a miss when an entry expires or is invalidated.
+ * <p>
+ * Every lookup counts towards its location code in a {@link FrequencySketch}, and a code is hot once its
+ * estimate reaches {@code response-cache.refresh-ahead.hot-threshold}. A hit on a hot code with less than
+ * {@code response-cache.refresh-ahead.before-expiry} left reloads the entry, and invalidating a hot code
+ * reloads all its entries {@code response-cache.refresh-ahead.after-write-delay} later, once the write's other
+ * invalidations have run. Controllers register how each endpoint's body is built; hourly bodies, one per
+ * client hour, are left to expire.
+ * <p>
+ * Reloads run in a read-only transaction on a fixed pool of {@code response-cache.refresh-ahead.threads}
+ * with a queue of {@code response-cache.refresh-ahead.queue-size}; refreshes that do not fit are dropped
+ * and counted, the entry being loaded by its next reader as usual. They share the {@link SingleFlightLoader}
+ * with readers, so a miss during a reload waits for it.
+ */
+@Component
+public class RefreshAhead implements ResponseBodyCache.AccessListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshAhead.class);
+
+    private final boolean enabled;
+    private final long beforeExpiryNanos;
+    private final int hotThreshold;
+    private final ResponseBodyCache responseBodyCache;
+    private final SingleFlightLoader singleFlightLoader;
+    private final TransactionTemplate transactionTemplate;
+
+    private final FrequencySketch sketch;
+    private final ThreadPoolExecutor executor;
+    private final Executor afterWriteExecutor;
+    private final Map<ResponseBodyCache.Endpoint, Function<String, CachedBody>> loaders = new ConcurrentHashMap<>();
+    // Single-flight keys of the refreshes queued or running
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder nearExpiry = new LongAdder();
+    private final LongAdder afterWrite = new LongAdder();
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public RefreshAhead(
+            @Value("${response-cache.refresh-ahead.enabled:true}") boolean enabled,
+            @Value("${response-cache.refresh-ahead.before-expiry:30s}") Duration beforeExpiry,
+            @Value("${response-cache.refresh-ahead.hot-threshold:20}") int hotThreshold,
+            @Value("${response-cache.refresh-ahead.sketch-width:4096}") int sketchWidth,
+            @Value("${response-cache.refresh-ahead.threads:2}") int threads,
+            @Value("${response-cache.refresh-ahead.queue-size:256}") int queueSize,
+            @Value("${response-cache.refresh-ahead.after-write-delay:100ms}") Duration afterWriteDelay,
+            ResponseBodyCache responseBodyCache,
+            SingleFlightLoader singleFlightLoader,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.enabled = enabled;
+        this.beforeExpiryNanos = beforeExpiry.toNanos();
+        this.hotThreshold = Math.max(hotThreshold, 1);
+        this.responseBodyCache = responseBodyCache;
+        this.singleFlightLoader = singleFlightLoader;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+
+        this.sketch = new FrequencySketch(sketchWidth);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueSize, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "refresh-ahead-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.increment();
+                    inFlight.remove(((RefreshTask) runnable).key);
+                });
+        this.afterWriteExecutor = CompletableFuture.delayedExecutor(afterWriteDelay.toMillis(), TimeUnit.MILLISECONDS,
+                executor);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            responseBodyCache.setAccessListener(this);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        responseBodyCache.setAccessListener(null);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Registers how the body of {@code endpoint} is built for a location code; {@code loader} may return
+     * {@code null} when there is nothing to cache.
+     */
+    public void register(ResponseBodyCache.Endpoint endpoint, Function<String, CachedBody> loader) {
+        loaders.put(endpoint, loader);
+    }
+
+    @Override
+    public void onAccess(ResponseBodyCache.Endpoint endpoint, String locationCode, long remainingNanos) {
+        sketch.increment(locationCode);
+
+        if (remainingNanos > 0 && remainingNanos <= beforeExpiryNanos && isHot(locationCode)
+                && submit(endpoint, locationCode, executor)) {
+            nearExpiry.increment();
+        }
+    }
+
+    @Override
+    public void onInvalidate(String locationCode) {
+        if (!isHot(locationCode)) {
+            return;
+        }
+
+        for (ResponseBodyCache.Endpoint endpoint : loaders.keySet()) {
+            if (submit(endpoint, locationCode, afterWriteExecutor)) {
+                afterWrite.increment();
+            }
+        }
+    }
+
+    boolean isHot(String locationCode) {
+        return sketch.estimate(locationCode) >= hotThreshold;
+    }
+
+    public Stats stats() {
+        return new Stats(enabled, executor.getQueue().size(), executor.getActiveCount(), nearExpiry.sum(),
+                afterWrite.sum(), refreshed.sum(), failures.sum(), rejected.sum());
+    }
+
+    private boolean submit(ResponseBodyCache.Endpoint endpoint, String locationCode, Executor target) {
+        Function<String, CachedBody> loader = loaders.get(endpoint);
+        String key = SingleFlightLoader.key(endpoint, locationCode);
+
+        if (loader == null || !inFlight.add(key)) {
+            return false;
+        }
+
+        target.execute(new RefreshTask(endpoint, locationCode, key, loader));
+        return true;
+    }
+
+    private void refresh(RefreshTask task) {
+        try {
+            singleFlightLoader.load(task.key, () -> transactionTemplate.execute(status -> {
+                long stamp = responseBodyCache.stamp();
+                CachedBody loaded = task.loader.apply(task.locationCode);
+
+                if (loaded != null) {
+                    responseBodyCache.put(task.endpoint, task.locationCode, stamp, loaded);
+                }
+
+                return loaded;
+            }));
+            refreshed.increment();
+        } catch (LocationNotFoundException ex) {
+            // Deleted since it was read
+            failures.increment();
+        } catch (RuntimeException ex) {
+            failures.increment();
+            LOGGER.warn("Could not refresh {}: {}", task.key, ex.getMessage());
+        } finally {
+            inFlight.remove(task.key);
+        }
+    }
+
+    private final class RefreshTask implements Runnable {
+        private final ResponseBodyCache.Endpoint endpoint;
+        private final String locationCode;
+        private final String key;
+        private final Function<String, CachedBody> loader;
+
+        private RefreshTask(ResponseBodyCache.Endpoint endpoint, String locationCode, String key,
+                            Function<String, CachedBody> loader) {
+            this.endpoint = endpoint;
+            this.locationCode = locationCode;
+            this.key = key;
+            this.loader = loader;
+        }
+
+        @Override
+        public void run() {
+            refresh(this);
+        }
+    }
+
+    /**
+     * {@code nearExpiry} and {@code afterWrite} count the refreshes scheduled by each trigger, {@code rejected}
+     * those of them dropped because the queue was full.
+     */
+    public record Stats(boolean enabled, int queued, int active, long nearExpiry, long afterWrite, long refreshed,
+                        long failures, long rejected) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.utility.ClockCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of serialized JSON response bodies and their validators keyed by (endpoint, location code), so
+ * a hit is written out as-is, or answered with 304, without loading entities, mapping DTOs or running Jackson.
+ * <p>
+ * IP-based endpoints share the entries of the code-based ones once the location is resolved.
+ * Every write path of a location calls {@link #invalidate(String)}, which drops the bodies of all its
+ * endpoints, and so does any {@link LocationChangedEvent}. Callers take a {@link #stamp()} before loading
+ * and pass it to {@code put}, and bodies built from data read before an invalidation are not stored.
+ * <p>
+ * Bounded by the total size of the bodies ({@code response-cache.maximum-size}), evicting with a
+ * second-chance (CLOCK) policy (see {@link ClockCache}), and entries expire after {@code response-cache.ttl}. An {@link AccessListener}
+ * sees every lookup and invalidation, which is how {@link RefreshAhead} rebuilds hot entries in the background.
+ */
+@Component
+public class ResponseBodyCache {
+
+    public enum Endpoint {
+        FULL(1), REALTIME(1), DAILY(1),
+        // One body per X-Current-Hour value
+        HOURLY(24);
+
+        private final int variants;
+
+        Endpoint(int variants) {
+            this.variants = variants;
+        }
+    }
+
+    /**
+     * Notified on the calling thread, so implementations must not block.
+     */
+    public interface AccessListener {
+
+        /**
+         * {@code remainingNanos} is the time left before the entry expires, or {@code -1} on a miss.
+         */
+        void onAccess(Endpoint endpoint, String locationCode, long remainingNanos);
+
+        void onInvalidate(String locationCode);
+    }
+
+    private final boolean enabled;
+    private final long maximumBytes;
+    private final LongSupplier nanoClock;
+
+    private final ClockCache<Key, CachedBody> entries;
+    // Bumped by every invalidation, bodies built across one are not cached
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile AccessListener accessListener;
+
+    @Autowired
+    public ResponseBodyCache(
+            @Value("${response-cache.enabled:true}") boolean enabled,
+            @Value("${response-cache.maximum-size:64MB}") DataSize maximumSize,
+            @Value("${response-cache.ttl:5m}") Duration ttl
+    ) {
+        this(enabled, maximumSize, ttl, System::nanoTime);
+    }
+
+    ResponseBodyCache(boolean enabled, DataSize maximumSize, Duration ttl, LongSupplier nanoClock) {
+        this.enabled = enabled && maximumSize.toBytes() > 0;
+        this.maximumBytes = maximumSize.toBytes();
+        this.nanoClock = nanoClock;
+        this.entries = new ClockCache<>(maximumBytes, cachedBody -> cachedBody.body().length, ttl, nanoClock);
+    }
+
+    public CachedBody get(Endpoint endpoint, String locationCode) {
+        return get(endpoint, locationCode, 0);
+    }
+
+    /**
+     * Returns the cached body of {@code endpoint} for {@code locationCode} and {@code variant}, or {@code null}.
+     */
+    public CachedBody get(Endpoint endpoint, String locationCode, int variant) {
+        if (!enabled || locationCode == null || variant < 0 || variant >= endpoint.variants) {
+            return null;
+        }
+
+        ClockCache.Node<Key, CachedBody> entry = entries.lookup(new Key(endpoint, locationCode, variant));
+        AccessListener listener = accessListener;
+
+        if (entry == null) {
+            misses.increment();
+
+            if (listener != null) {
+                listener.onAccess(endpoint, locationCode, -1);
+            }
+
+            return null;
+        }
+
+        hits.increment();
+
+        if (listener != null) {
+            listener.onAccess(endpoint, locationCode, entry.remainingNanos(nanoClock.getAsLong()));
+        }
+
+        return entry.value();
+    }
+
+    public void setAccessListener(AccessListener accessListener) {
+        this.accessListener = accessListener;
+    }
+
+    /**
+     * Marks the start of a load, to be passed to {@code put} once the body is built.
+     */
+    public long stamp() {
+        return invalidationCount.get();
+    }
+
+    public void put(Endpoint endpoint, String locationCode, long stamp, CachedBody cachedBody) {
+        put(endpoint, locationCode, 0, stamp, cachedBody);
+    }
+
+    public void put(Endpoint endpoint, String locationCode, int variant, long stamp, CachedBody cachedBody) {
+        if (!enabled || locationCode == null || variant < 0 || variant >= endpoint.variants
+                || cachedBody.body().length > maximumBytes) {
+            return;
+        }
+
+        synchronized (this) {
+            if (invalidationCount.get() == stamp) {
+                entries.put(new Key(endpoint, locationCode, variant), cachedBody);
+            }
+        }
+    }
+
+    /**
+     * Drops the bodies of every endpoint for {@code locationCode}.
+     */
+    public void invalidate(String locationCode) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            invalidationCount.incrementAndGet();
+
+            for (Endpoint endpoint : Endpoint.values()) {
+                for (int variant = 0; variant < endpoint.variants; variant++) {
+                    entries.remove(new Key(endpoint, locationCode, variant));
+                }
+            }
+        }
+
+        AccessListener listener = accessListener;
+
+        if (listener != null) {
+            listener.onInvalidate(locationCode);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        entries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocationChanged(LocationChangedEvent event) {
+        invalidate(event.code());
+    }
+
+    @EventListener
+    public void onWeatherChanged(WeatherChangedEvent event) {
+        // Local writes invalidate the location directly
+        if (event.remote()) {
+            invalidate(event.code());
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(entries.size(), entries.weight(), maximumBytes, hits.sum(), misses.sum(), entries.evictions());
+    }
+
+    public record CacheStats(int entries, long bytes, long maximumBytes, long hits, long misses, long evictions) {
+    }
+
+    private record Key(Endpoint endpoint, String locationCode, int variant) {
+    }
+}
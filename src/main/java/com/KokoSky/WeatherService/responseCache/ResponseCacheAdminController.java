@@ -0,0 +1,37 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/response-cache")
+public class ResponseCacheAdminController {
+
+    private final ResponseBodyCache responseBodyCache;
+    private final SingleFlightLoader singleFlightLoader;
+    private final RefreshAhead refreshAhead;
+
+    public ResponseCacheAdminController(ResponseBodyCache responseBodyCache, SingleFlightLoader singleFlightLoader,
+                                        RefreshAhead refreshAhead) {
+        this.responseBodyCache = responseBodyCache;
+        this.singleFlightLoader = singleFlightLoader;
+        this.refreshAhead = refreshAhead;
+    }
+
+    @GetMapping
+    public ResponseEntity<ResponseBodyCache.CacheStats> getCacheStats() {
+        return ResponseEntity.ok(responseBodyCache.stats());
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<SingleFlightLoader.Stats> getSingleFlightStats() {
+        return ResponseEntity.ok(singleFlightLoader.stats());
+    }
+
+    @GetMapping("/refresh-ahead")
+    public ResponseEntity<RefreshAhead.Stats> getRefreshAheadStats() {
+        return ResponseEntity.ok(refreshAhead.stats());
+    }
+}
@@ -0,0 +1,90 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the {@link SingleFlightLoader} and {@link RefreshAhead} stats as metrics.
+ * <p>
+ * {@code single_flight.loads} counts loader runs and {@code single_flight.coalesced} the callers that joined
+ * one, with {@code single_flight.superseded}, {@code single_flight.timeouts} and {@code single_flight.failures}
+ * beside them and {@code single_flight.in_flight} gauging the loads running.
+ * <p>
+ * {@code refresh_ahead.scheduled} counts the refreshes scheduled per trigger, {@code refresh_ahead.refreshed},
+ * {@code refresh_ahead.failures} and {@code refresh_ahead.rejected} how they ended, and
+ * {@code refresh_ahead.queued} and {@code refresh_ahead.active} gauge the pool.
+ * <p>
+ * The same numbers are on {@code GET /api/v1/admin/response-cache/single-flight} and {@code /refresh-ahead}.
+ */
+@Component
+public class ResponseCacheMetrics implements MeterBinder {
+
+    private final SingleFlightLoader singleFlightLoader;
+    private final RefreshAhead refreshAhead;
+
+    public ResponseCacheMetrics(SingleFlightLoader singleFlightLoader, RefreshAhead refreshAhead) {
+        this.singleFlightLoader = singleFlightLoader;
+        this.refreshAhead = refreshAhead;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("single_flight.loads", singleFlightLoader, loader -> loader.stats().loads())
+                .description("Loader runs")
+                .register(registry);
+
+        FunctionCounter.builder("single_flight.coalesced", singleFlightLoader, loader -> loader.stats().coalesced())
+                .description("Callers that joined a load already in flight")
+                .register(registry);
+
+        FunctionCounter.builder("single_flight.superseded", singleFlightLoader,
+                        loader -> loader.stats().superseded())
+                .description("Callers that did not join a load started before an invalidation")
+                .register(registry);
+
+        FunctionCounter.builder("single_flight.timeouts", singleFlightLoader, loader -> loader.stats().timeouts())
+                .description("Callers that stopped waiting and ran their own load")
+                .register(registry);
+
+        FunctionCounter.builder("single_flight.failures", singleFlightLoader, loader -> loader.stats().failures())
+                .description("Loader runs that threw")
+                .register(registry);
+
+        Gauge.builder("single_flight.in_flight", singleFlightLoader, loader -> loader.stats().inFlight())
+                .description("Loads running")
+                .register(registry);
+
+        FunctionCounter.builder("refresh_ahead.scheduled", refreshAhead, refresh -> refresh.stats().nearExpiry())
+                .tag("trigger", "near_expiry")
+                .description("Refreshes scheduled for entries close to expiry")
+                .register(registry);
+
+        FunctionCounter.builder("refresh_ahead.scheduled", refreshAhead, refresh -> refresh.stats().afterWrite())
+                .tag("trigger", "after_write")
+                .description("Refreshes scheduled after an invalidation")
+                .register(registry);
+
+        FunctionCounter.builder("refresh_ahead.refreshed", refreshAhead, refresh -> refresh.stats().refreshed())
+                .description("Refreshes that reloaded their entry")
+                .register(registry);
+
+        FunctionCounter.builder("refresh_ahead.failures", refreshAhead, refresh -> refresh.stats().failures())
+                .description("Refreshes whose reload failed")
+                .register(registry);
+
+        FunctionCounter.builder("refresh_ahead.rejected", refreshAhead, refresh -> refresh.stats().rejected())
+                .description("Refreshes dropped because the queue was full")
+                .register(registry);
+
+        Gauge.builder("refresh_ahead.queued", refreshAhead, refresh -> refresh.stats().queued())
+                .description("Refreshes waiting for a thread")
+                .register(registry);
+
+        Gauge.builder("refresh_ahead.active", refreshAhead, refresh -> refresh.stats().active())
+                .description("Refreshes running")
+                .register(registry);
+    }
+}
@@ -0,0 +1,154 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into one, so the misses that follow an expiry or an
+ * invalidation of a hot location run a single set of database queries instead of one per request.
+ * <p>
+ * The first caller for a key runs the loader and every caller that arrives while it runs waits for its
+ * result, or its exception, for at most {@code single-flight.maximum-wait}. A waiter that times out runs
+ * its own load rather than failing the request. Results are shared between callers and must not be modified.
+ * <p>
+ * Every load is tagged with the {@link ResponseBodyCache#stamp()} taken when it started. A caller that
+ * arrives after an invalidation never joins a load started before it, since that load may have read the
+ * data the write replaced. It runs a new load instead, which later callers join.
+ */
+@Component
+public class SingleFlightLoader {
+
+    private final boolean enabled;
+    private final long maximumWaitNanos;
+    private final LongSupplier stamp;
+
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Autowired
+    public SingleFlightLoader(
+            @Value("${single-flight.enabled:true}") boolean enabled,
+            @Value("${single-flight.maximum-wait:2s}") Duration maximumWait,
+            ResponseBodyCache responseBodyCache
+    ) {
+        this(enabled, maximumWait, responseBodyCache::stamp);
+    }
+
+    SingleFlightLoader(boolean enabled, Duration maximumWait, LongSupplier stamp) {
+        this.enabled = enabled;
+        this.maximumWaitNanos = maximumWait.toNanos();
+        this.stamp = stamp;
+    }
+
+    public static String key(ResponseBodyCache.Endpoint endpoint, String locationCode) {
+        return endpoint.name() + '/' + locationCode;
+    }
+
+    public static String key(ResponseBodyCache.Endpoint endpoint, String locationCode, int variant) {
+        return endpoint.name() + '/' + locationCode + '/' + variant;
+    }
+
+    /**
+     * Returns the result of {@code loader}, or of the load of {@code key} already in flight unless that load
+     * started before the last invalidation. Exceptions of the shared load are rethrown to every caller.
+     * A {@code null} key is never coalesced.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> loader) {
+        if (!enabled || key == null) {
+            return loader.get();
+        }
+
+        Flight flight = new Flight(stamp.getAsLong(), new CompletableFuture<>());
+        Flight running = inFlight.putIfAbsent(key, flight);
+
+        if (running == null) {
+            return lead(key, flight, loader);
+        }
+
+        if (running.stamp < flight.stamp) {
+            // Started before an invalidation, its result may predate the write
+            superseded.increment();
+
+            if (inFlight.replace(key, running, flight)) {
+                return lead(key, flight, loader);
+            }
+
+            loads.increment();
+            return loader.get();
+        }
+
+        coalesced.increment();
+
+        try {
+            return (T) running.future.get(maximumWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            loads.increment();
+            return loader.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            if (cause instanceof Error error) {
+                throw error;
+            }
+
+            throw new IllegalStateException("Load of " + key + " failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the load of " + key, ex);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(inFlight.size(), loads.sum(), coalesced.sum(), superseded.sum(), timeouts.sum(),
+                failures.sum());
+    }
+
+    private <T> T lead(String key, Flight flight, Supplier<T> loader) {
+        loads.increment();
+
+        try {
+            T result = loader.get();
+            flight.future.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            failures.increment();
+            flight.future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            // Callers arriving from here on start a new load
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * {@code loads} counts loader runs, {@code coalesced} the callers that joined a load already in flight,
+     * {@code superseded} the callers that did not join one because it started before an invalidation.
+     */
+    public record Stats(int inFlight, long loads, long coalesced, long superseded, long timeouts, long failures) {
+    }
+
+    private record Flight(long stamp, CompletableFuture<Object> future) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.KokoSky.WeatherService.utility;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.geolocation.NumericIP;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Extracts the client IP address of a request in numeric form.
+ * <p>
+ * Forwarding headers are only honoured when the direct peer is one of the configured trusted proxies.
+ * {@code X-Forwarded-For} is then walked right to left, skipping trusted hops, and the first untrusted
+ * address is the client. Header values are scanned in place and parsed straight into a {@link NumericIP},
+ * so the only allocation is the result.
+ */
+@Component
+public class ClientIPExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientIPExtractor.class);
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final String[] SINGLE_VALUE_HEADERS = {"Proxy-Client-IP", "WL-Proxy-Client-IP"};
+
+    private static final NumericIP IPV4_LOOPBACK = NumericIP.ofIPv4(0x7F000001L);
+
+    private final long[] ipv4Networks;
+    private final long[] ipv4Masks;
+    private final long[] ipv6Networks;
+    private final long[] ipv6Masks;
+
+    public ClientIPExtractor(
+            @Value("${geolocation.client-ip.trusted-proxies:127.0.0.0/8,::1/128,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,fc00::/7}")
+            List<String> trustedProxies
+    ) {
+        List<long[]> ipv4 = new ArrayList<>();
+        List<long[]> ipv6 = new ArrayList<>();
+
+        for (String cidr : trustedProxies) {
+            if (!cidr.isBlank()) {
+                parseCidr(cidr.trim(), ipv4, ipv6);
+            }
+        }
+
+        // Flat arrays keep the per-request match loop free of indirection
+        this.ipv4Networks = new long[ipv4.size()];
+        this.ipv4Masks = new long[ipv4.size()];
+        for (int i = 0; i < ipv4.size(); i++) {
+            ipv4Networks[i] = ipv4.get(i)[0];
+            ipv4Masks[i] = ipv4.get(i)[1];
+        }
+
+        this.ipv6Networks = new long[ipv6.size() * 2];
+        this.ipv6Masks = new long[ipv6.size() * 2];
+        for (int i = 0; i < ipv6.size(); i++) {
+            long[] range = ipv6.get(i);
+            ipv6Networks[2 * i] = range[0];
+            ipv6Networks[2 * i + 1] = range[1];
+            ipv6Masks[2 * i] = range[2];
+            ipv6Masks[2 * i + 1] = range[3];
+        }
+    }
+
+    /**
+     * Returns the client address of {@code request}.
+     *
+     * @throws GeolocationException when no valid address can be found
+     */
+    public NumericIP extract(HttpServletRequest request) throws GeolocationException {
+        NumericIP peer = NumericIP.parse(request.getRemoteAddr());
+
+        if (peer == null) {
+            throw new GeolocationException("Geolocation failed with status: INVALID_IP_ADDRESS");
+        }
+
+        NumericIP client = isTrusted(peer) ? fromForwardingHeaders(request, peer) : peer;
+
+        // Treat the IPv6 loopback like the IPv4 one
+        if (client.ipv6() && client.high() == 0 && client.low() == 1) {
+            client = IPV4_LOOPBACK;
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Client's IP Address: {} (peer {})", client, peer);
+        }
+
+        return client;
+    }
+
+    public boolean isTrusted(NumericIP ip) {
+        long ipv4 = mappedIPv4(ip);
+
+        if (ipv4 >= 0) {
+            for (int i = 0; i < ipv4Networks.length; i++) {
+                if ((ipv4 & ipv4Masks[i]) == ipv4Networks[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (int i = 0; i < ipv6Networks.length; i += 2) {
+            if ((ip.high() & ipv6Masks[i]) == ipv6Networks[i] && (ip.low() & ipv6Masks[i + 1]) == ipv6Networks[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private NumericIP fromForwardingHeaders(HttpServletRequest request, NumericIP peer) {
+        Enumeration<String> forwardedFor = request.getHeaders(FORWARDED_FOR);
+
+        if (forwardedFor != null && forwardedFor.hasMoreElements()) {
+            String first = forwardedFor.nextElement();
+
+            if (!forwardedFor.hasMoreElements()) {
+                return walk(first, peer);
+            }
+
+            // Repeated headers form one list, so the last header holds the nearest hops
+            List<String> headers = new ArrayList<>();
+            headers.add(first);
+            forwardedFor.asIterator().forEachRemaining(headers::add);
+
+            NumericIP client = peer;
+            for (int i = headers.size() - 1; i >= 0; i--) {
+                client = walk(headers.get(i), client);
+                if (!isTrusted(client)) {
+                    break;
+                }
+            }
+            return client;
+        }
+
+        for (String header : SINGLE_VALUE_HEADERS) {
+            NumericIP ip = NumericIP.parse(request.getHeader(header));
+            if (ip != null) {
+                return ip;
+            }
+        }
+
+        return peer;
+    }
+
+    /**
+     * Walks one {@code X-Forwarded-For} value right to left and returns the first untrusted hop.
+     * When every hop is trusted, returns the leftmost one, or {@code nearest} if there is none.
+     */
+    private NumericIP walk(String header, NumericIP nearest) {
+        NumericIP client = nearest;
+        int end = header.length();
+
+        while (end > 0) {
+            int start = header.lastIndexOf(',', end - 1) + 1;
+            NumericIP hop = parseHop(header, start, end);
+            end = start - 1;
+
+            // Skip "unknown" and malformed entries
+            if (hop == null) {
+                continue;
+            }
+
+            client = hop;
+
+            if (!isTrusted(hop)) {
+                break;
+            }
+        }
+
+        return client;
+    }
+
+    /**
+     * Parses one hop, accepting the {@code [v6]:port} and {@code v4:port} forms some proxies send.
+     */
+    private static NumericIP parseHop(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        if (start < end && text.charAt(start) == '[') {
+            for (int i = start + 1; i < end; i++) {
+                if (text.charAt(i) == ']') {
+                    return NumericIP.parse(text, start + 1, i);
+                }
+            }
+            return null;
+        }
+
+        int colon = -1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ':') {
+                if (colon >= 0) {
+                    // More than one colon, a bare IPv6 address
+                    return NumericIP.parse(text, start, end);
+                }
+                colon = i;
+            }
+        }
+
+        return NumericIP.parse(text, start, colon >= 0 ? colon : end);
+    }
+
+    private static long mappedIPv4(NumericIP ip) {
+        if (!ip.ipv6()) {
+            return ip.low();
+        }
+        return ip.high() == 0 && (ip.low() >>> 32) == 0xFFFFL ? ip.low() & 0xFFFFFFFFL : -1;
+    }
+
+    private static void parseCidr(String cidr, List<long[]> ipv4, List<long[]> ipv6) {
+        int slash = cidr.indexOf('/');
+        NumericIP network = NumericIP.parse(cidr, 0, slash < 0 ? cidr.length() : slash);
+
+        if (network == null) {
+            throw new IllegalArgumentException("Invalid trusted proxy: " + cidr);
+        }
+
+        int maxLength = network.ipv6() ? 128 : 32;
+        int prefixLength;
+
+        try {
+            prefixLength = slash < 0 ? maxLength : Integer.parseInt(cidr.substring(slash + 1));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid trusted proxy: " + cidr, ex);
+        }
+
+        if (prefixLength < 0 || prefixLength > maxLength) {
+            throw new IllegalArgumentException("Invalid trusted proxy: " + cidr);
+        }
+
+        if (!network.ipv6()) {
+            long mask = prefixLength == 0 ? 0L : (0xFFFFFFFFL << (32 - prefixLength)) & 0xFFFFFFFFL;
+            ipv4.add(new long[]{network.low() & mask, mask});
+            return;
+        }
+
+        long highMask = prefixLength == 0 ? 0L : prefixLength >= 64 ? -1L : -1L << (64 - prefixLength);
+        long lowMask = prefixLength <= 64 ? 0L : prefixLength == 128 ? -1L : -1L << (128 - prefixLength);
+        ipv6.add(new long[]{network.high() & highMask, network.low() & lowMask, highMask, lowMask});
+    }
+}
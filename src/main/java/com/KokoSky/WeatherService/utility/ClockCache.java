@@ -0,0 +1,268 @@
+package com.KokoSky.WeatherService.utility;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded map whose entries expire after a fixed TTL and are evicted with a second-chance (CLOCK) policy
+ * once their total weight passes the capacity. The in-memory caches of this service are built on it.
+ * <p>
+ * Every live entry is linked once into a circular list swept by the clock hand, and leaves it as soon as it
+ * is replaced, removed, expired or evicted, so the list never holds more than the map. Reads do not lock;
+ * they only mark the entry as referenced. Writes take the cache's lock, which callers may hold their own
+ * monitor around, for example to check that a loaded value is still current before storing it.
+ * <p>
+ * {@link #sorted} caches also answer {@link #floor} lookups, for keys that stand for a range.
+ */
+public final class ClockCache<K, V> {
+
+    private final ConcurrentMap<K, Node<K, V>> entries;
+    private final long capacity;
+    private final ToLongFunction<V> weigher;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private Node<K, V> hand;
+    private volatile long weight;
+
+    private final LongAdder evictions = new LongAdder();
+
+    public ClockCache(long capacity, ToLongFunction<V> weigher, Duration ttl, LongSupplier nanoClock) {
+        this(new ConcurrentHashMap<>(), capacity, weigher, ttl, nanoClock);
+    }
+
+    private ClockCache(ConcurrentMap<K, Node<K, V>> entries, long capacity, ToLongFunction<V> weigher,
+                       Duration ttl, LongSupplier nanoClock) {
+        this.entries = entries;
+        this.capacity = capacity;
+        this.weigher = weigher;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Creates a cache ordered by key that also supports {@link #floor}.
+     */
+    public static <K extends Comparable<K>, V> ClockCache<K, V> sorted(long capacity, ToLongFunction<V> weigher,
+                                                                        Duration ttl, LongSupplier nanoClock) {
+        return new ClockCache<>(new ConcurrentSkipListMap<>(), capacity, weigher, ttl, nanoClock);
+    }
+
+    /**
+     * Returns the value of {@code key}, or {@code null} when it is absent or expired.
+     */
+    public V get(K key) {
+        Node<K, V> node = lookup(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the live entry of {@code key}, or {@code null} when it is absent or expired.
+     */
+    public Node<K, V> lookup(K key) {
+        return live(entries.get(key));
+    }
+
+    /**
+     * Returns the live entry with the greatest key less than or equal to {@code key}, or {@code null}.
+     */
+    public Node<K, V> floor(K key) {
+        if (!(entries instanceof ConcurrentNavigableMap<K, Node<K, V>> navigable)) {
+            throw new UnsupportedOperationException("Floor lookups need a sorted cache");
+        }
+
+        Map.Entry<K, Node<K, V>> floor = navigable.floorEntry(key);
+        return floor == null ? null : live(floor.getValue());
+    }
+
+    /**
+     * Stores {@code value} under {@code key}, replacing any previous entry, and evicts down to the capacity.
+     * A value heavier than the whole capacity is not stored, and the previous entry is dropped.
+     */
+    public void put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, weigher.applyAsLong(value), nanoClock.getAsLong() + ttlNanos);
+
+        synchronized (lock) {
+            Node<K, V> previous = node.weight > capacity ? entries.remove(key) : entries.put(key, node);
+
+            if (previous != null) {
+                unlink(previous);
+            }
+
+            if (node.weight <= capacity) {
+                link(node);
+                evictIfNeeded();
+            }
+        }
+    }
+
+    public boolean remove(K key) {
+        synchronized (lock) {
+            Node<K, V> node = entries.remove(key);
+
+            if (node != null) {
+                unlink(node);
+            }
+
+            return node != null;
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            hand = null;
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return weight;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // Number of entries linked into the clock, always equal to size()
+    int linked() {
+        synchronized (lock) {
+            int linked = 0;
+
+            for (Node<K, V> node = hand; node != null; node = node.next == hand ? null : node.next) {
+                linked++;
+            }
+
+            return linked;
+        }
+    }
+
+    private Node<K, V> live(Node<K, V> node) {
+        if (node == null) {
+            return null;
+        }
+
+        if (node.isExpired(nanoClock.getAsLong())) {
+            remove(node);
+            return null;
+        }
+
+        node.referenced = true;
+        return node;
+    }
+
+    private void remove(Node<K, V> node) {
+        synchronized (lock) {
+            if (entries.remove(node.key, node)) {
+                unlink(node);
+            }
+        }
+    }
+
+    // Callers hold the lock
+    private void evictIfNeeded() {
+        long now = nanoClock.getAsLong();
+
+        while (weight > capacity && hand != null) {
+            Node<K, V> candidate = hand;
+
+            // Give recently read entries a second chance before evicting them
+            if (candidate.referenced && !candidate.isExpired(now)) {
+                candidate.referenced = false;
+                hand = candidate.next;
+                continue;
+            }
+
+            entries.remove(candidate.key, candidate);
+            unlink(candidate);
+            evictions.increment();
+        }
+    }
+
+    // Inserts just behind the hand, so a new entry is the last one the sweep reaches
+    private void link(Node<K, V> node) {
+        if (hand == null) {
+            node.next = node;
+            node.previous = node;
+            hand = node;
+        } else {
+            node.next = hand;
+            node.previous = hand.previous;
+            hand.previous.next = node;
+            hand.previous = node;
+        }
+
+        weight += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.next == node) {
+            hand = null;
+        } else {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+
+            if (hand == node) {
+                hand = node.next;
+            }
+        }
+
+        node.next = null;
+        node.previous = null;
+        weight -= node.weight;
+    }
+
+    public static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long weight;
+        private final long expiresAt;
+        private volatile boolean referenced;
+        // Guarded by the cache's lock
+        private Node<K, V> next;
+        private Node<K, V> previous;
+
+        private Node(K key, V value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        public K key() {
+            return key;
+        }
+
+        public V value() {
+            return value;
+        }
+
+        /**
+         * Returns the time left before the entry expires.
+         */
+        public long remainingNanos(long now) {
+            return expiresAt - now;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.KokoSky.WeatherService.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared dictionary of the low-cardinality strings repeated across weather and location data held in
+ * memory: weather statuses, region, country names and country codes. Each distinct value gets a compact
+ * id, so the same value is one {@code String} instance in every cache, and structures that store ids
+ * (like the hourly forecast store) can resolve them back with {@link #value(int)}.
+ * <p>
+ * Append-only: ids never change and values are never removed. Once {@code string-dictionary.maximum-size}
+ * values are held, new values are not encoded and callers keep their own instance. Ids fit in a
+ * {@code short}. Lookups of known values do not lock.
+ */
+@Component
+public class StringDictionary {
+
+    public static final int NOT_ENCODED = -1;
+
+    private final int maximumSize;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // Grown by doubling under the lock, every value is written before its id is published
+    private volatile String[] values = new String[16];
+    private int size;
+
+    public StringDictionary(@Value("${string-dictionary.maximum-size:32767}") int maximumSize) {
+        this.maximumSize = Math.max(0, Math.min(maximumSize, Short.MAX_VALUE));
+    }
+
+    /**
+     * Returns the id of {@code value}, assigning the next one if it is new, or {@link #NOT_ENCODED} when
+     * {@code value} is {@code null} or the dictionary is full.
+     */
+    public int id(String value) {
+        if (value == null) {
+            return NOT_ENCODED;
+        }
+
+        Integer id = ids.get(value);
+
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(value);
+
+            if (id != null) {
+                return id;
+            }
+
+            if (size == maximumSize) {
+                return NOT_ENCODED;
+            }
+
+            String[] current = values;
+
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+
+            current[size] = value;
+            // Publish the value before the id, readers resolve ids through values
+            values = current;
+            ids.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Returns the value of an id returned by {@link #id(String)}, or {@code null} for {@link #NOT_ENCODED}.
+     */
+    public String value(int id) {
+        return id == NOT_ENCODED ? null : values[id];
+    }
+
+    /**
+     * Returns the dictionary's instance of {@code value}, or {@code value} itself when it is not encoded.
+     */
+    public String intern(String value) {
+        int id = id(value);
+        return id == NOT_ENCODED ? value : values[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
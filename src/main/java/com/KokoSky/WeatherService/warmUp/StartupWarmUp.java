@@ -0,0 +1,228 @@
+package com.KokoSky.WeatherService.warmUp;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherService;
+import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherService;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationCatalog;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherRepository;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the connection pool, Hibernate's query plans and the in-memory caches before the application
+ * reports ready, so the first requests after a deploy do not pay for cold paths.
+ * <p>
+ * Runs as the last {@link ApplicationReadyEvent} listener, after the {@link LocationCatalog} is loaded.
+ * Spring Boot only publishes {@code ReadinessState.ACCEPTING_TRAFFIC} once every listener has returned,
+ * so the readiness probe stays down until the warm-up is over. It opens {@code warm-up.connections}
+ * connections, runs every read query once, then loads the realtime, hourly and daily weather of the first
+ * {@code warm-up.locations} catalog locations, stopping early after {@code warm-up.maximum-duration}.
+ * Failures are counted and logged, never fatal.
+ */
+@Component
+public class StartupWarmUp {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final boolean enabled;
+    private final int connections;
+    private final int maximumLocations;
+    private final long maximumDurationNanos;
+
+    private final DataSource dataSource;
+    private final LocationCatalog locationCatalog;
+    private final LocationRepository locationRepository;
+    private final RealtimeWeatherRepository realtimeWeatherRepository;
+    private final RealtimeWeatherService realtimeWeatherService;
+    private final HourlyWeatherService hourlyWeatherService;
+    private final DailyWeatherService dailyWeatherService;
+
+    private volatile WarmUpReport report;
+
+    public StartupWarmUp(
+            @Value("${warm-up.enabled:true}") boolean enabled,
+            @Value("${warm-up.connections:5}") int connections,
+            @Value("${warm-up.locations:500}") int maximumLocations,
+            @Value("${warm-up.maximum-duration:60s}") Duration maximumDuration,
+            DataSource dataSource,
+            LocationCatalog locationCatalog,
+            LocationRepository locationRepository,
+            RealtimeWeatherRepository realtimeWeatherRepository,
+            RealtimeWeatherService realtimeWeatherService,
+            HourlyWeatherService hourlyWeatherService,
+            DailyWeatherService dailyWeatherService
+    ) {
+        this.enabled = enabled;
+        this.connections = connections;
+        this.maximumLocations = maximumLocations;
+        this.maximumDurationNanos = maximumDuration.toNanos();
+        this.dataSource = dataSource;
+        this.locationCatalog = locationCatalog;
+        this.locationRepository = locationRepository;
+        this.realtimeWeatherRepository = realtimeWeatherRepository;
+        this.realtimeWeatherService = realtimeWeatherService;
+        this.hourlyWeatherService = hourlyWeatherService;
+        this.dailyWeatherService = dailyWeatherService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Counters counters = new Counters();
+
+        counters.connections = openConnections(counters);
+
+        List<Location> locations = locationCatalog.isReady()
+                ? locationCatalog.getLocations()
+                : locationRepository.findAllUntrashedLocations();
+
+        if (!locations.isEmpty()) {
+            runQueries(locations.get(0), counters);
+        }
+
+        int limit = maximumLocations <= 0 ? locations.size() : Math.min(maximumLocations, locations.size());
+        boolean completed = true;
+
+        for (Location location : locations.subList(0, limit)) {
+            if (System.nanoTime() - start > maximumDurationNanos) {
+                completed = false;
+                break;
+            }
+
+            preload(location.getCode(), counters);
+        }
+
+        report = new WarmUpReport(completed, Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                counters.connections, locations.size(), counters.locations, counters.realtime, counters.hourly,
+                counters.daily, counters.queries, counters.failures);
+
+        LOGGER.info("Warm-up {} in {} ms: {} connections, {} of {} locations, {} realtime, {} hourly, {} daily, "
+                        + "{} queries, {} failures",
+                completed ? "finished" : "stopped at its time limit", report.durationMillis(), report.connections(),
+                report.locations(), report.catalogSize(), report.realtime(), report.hourly(), report.daily(),
+                report.queries(), report.failures());
+    }
+
+    /**
+     * The outcome of the warm-up, or {@code null} when it has not run.
+     */
+    public WarmUpReport getReport() {
+        return report;
+    }
+
+    // Held open together so the pool has to create them rather than hand out the same one
+    private int openConnections(Counters counters) {
+        List<Connection> opened = new ArrayList<>(connections);
+
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException ex) {
+            counters.failures++;
+            LOGGER.warn("Warm-up opened {} of {} connections: {}", opened.size(), connections, ex.getMessage());
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException ex) {
+                    LOGGER.debug("Could not return a warm-up connection", ex);
+                }
+            }
+        }
+
+        return opened.size();
+    }
+
+    // Queries the per-location preload does not reach, run once each to compile their plans
+    private void runQueries(Location location, Counters counters) {
+        String code = location.getCode();
+        String countryCode = location.getCountryCode();
+        String cityName = location.getCityName();
+
+        List<Runnable> queries = List.of(
+                () -> locationRepository.existsLocationByCode(code),
+                () -> locationRepository.findUntrashedLocationsByCode(code),
+                () -> locationRepository.findByCountryCodeAndCityName(countryCode, cityName),
+                () -> realtimeWeatherRepository.findByCountryCodeAndCity(countryCode, cityName),
+                () -> realtimeWeatherRepository.findByLocationCodes(List.of(code)),
+                () -> realtimeWeatherRepository.findByCountryCodesAndCities(List.of(countryCode), List.of(cityName))
+        );
+
+        for (Runnable query : queries) {
+            try {
+                query.run();
+                counters.queries++;
+            } catch (RuntimeException ex) {
+                counters.failures++;
+                LOGGER.warn("Warm-up query failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void preload(String code, Counters counters) {
+        try {
+            realtimeWeatherService.getByLocationCode(code);
+            counters.realtime++;
+        } catch (LocationNotFoundException ex) {
+            // No realtime weather reported yet
+        } catch (RuntimeException ex) {
+            counters.failures++;
+            LOGGER.warn("Warm-up could not load the realtime weather of {}: {}", code, ex.getMessage());
+        }
+
+        try {
+            hourlyWeatherService.getByLocationCode(code, -1);
+            counters.hourly++;
+
+            dailyWeatherService.getByLocationCode(code);
+            counters.daily++;
+        } catch (RuntimeException ex) {
+            counters.failures++;
+            LOGGER.warn("Warm-up could not load the forecasts of {}: {}", code, ex.getMessage());
+        }
+
+        counters.locations++;
+    }
+
+    private static final class Counters {
+        private int connections;
+        private int locations;
+        private int realtime;
+        private int hourly;
+        private int daily;
+        private int queries;
+        private int failures;
+    }
+
+    /**
+     * {@code completed} is {@code false} when the warm-up stopped at {@code warm-up.maximum-duration}
+     * before loading {@code warm-up.locations} locations.
+     */
+    public record WarmUpReport(boolean completed, long durationMillis, int connections, int catalogSize,
+                               int locations, int realtime, int hourly, int daily, int queries, int failures) {
+    }
+}
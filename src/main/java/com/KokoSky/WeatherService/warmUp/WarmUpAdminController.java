@@ -0,0 +1,28 @@
+package com.KokoSky.WeatherService.warmUp;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/warm-up")
+public class WarmUpAdminController {
+
+    private final StartupWarmUp startupWarmUp;
+
+    public WarmUpAdminController(StartupWarmUp startupWarmUp) {
+        this.startupWarmUp = startupWarmUp;
+    }
+
+    @GetMapping
+    public ResponseEntity<StartupWarmUp.WarmUpReport> getReport() {
+        StartupWarmUp.WarmUpReport report = startupWarmUp.getReport();
+
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(report);
+    }
+}
@@ -3,11 +3,18 @@ package com.KokoSky.WeatherService.dailyWeather;
 import com.KokoSky.WeatherService.exceptions.GeolocationException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
 import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.responseCache.RefreshAhead;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -25,6 +32,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(DailyWeatherController.class)
+@Import(SingleFlightLoader.class)
 public class DailyWeatherControllerTest {
 
     private static final String END_POINT_PATH = "/api/v1/daily";
@@ -41,10 +49,19 @@ public class DailyWeatherControllerTest {
     @MockBean
     private GeolocationService geolocationService;
 
+    @MockBean
+    private ResponseBodyCache responseBodyCache;
+
+    @MockBean
+    private RefreshAhead refreshAhead;
+
+    @MockBean
+    private HeavyHitters heavyHitters;
+
     @Test
     public void testGetByIPShouldReturn400BadRequestBecauseGeolocationException() throws Exception {
         GeolocationException ex = new GeolocationException("Geolocation error");
-        when(geolocationService.getLocation(anyString())).thenThrow(ex);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenThrow(ex);
 
         mockMvc.perform(get(END_POINT_PATH))
                 .andExpect(status().isBadRequest())
@@ -56,7 +73,7 @@ public class DailyWeatherControllerTest {
     public void testGetByIPShouldReturn404NotFound() throws Exception {
         Location location = Location.builder().code("DELHI_IN").build();
 
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
 
         LocationNotFoundException ex = new LocationNotFoundException(location.getCode());
         when(dailyWeatherService.getByLocation(location)).thenThrow(ex);
@@ -71,7 +88,7 @@ public class DailyWeatherControllerTest {
     public void testGetByIPShouldReturn204NoContent() throws Exception {
         Location location = Location.builder().code("DELHI_IN").build();
 
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
         when(dailyWeatherService.getByLocation(location)).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get(END_POINT_PATH))
@@ -112,7 +129,7 @@ public class DailyWeatherControllerTest {
                 .build();
 
         // Mock service calls
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
         when(dailyWeatherService.getByLocation(location)).thenReturn(List.of(forecast1, forecast2));
 
         // Act & Assert
@@ -6,17 +6,24 @@ import com.KokoSky.WeatherService.dailyWeather.DailyWeatherId;
 import com.KokoSky.WeatherService.exceptions.GeolocationException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
 import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
 import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherDTO;
 import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherId;
 import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.responseCache.RefreshAhead;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
 import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
 import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Date;
@@ -32,6 +39,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FullWeatherController.class)
+@Import(SingleFlightLoader.class)
 public class FullWeatherControllerTest {
 
     private static final String END_POINT_PATH = "/api/v1/full";
@@ -48,10 +56,19 @@ public class FullWeatherControllerTest {
     @MockBean
     private GeolocationService geolocationService;
 
+    @MockBean
+    private ResponseBodyCache responseBodyCache;
+
+    @MockBean
+    private RefreshAhead refreshAhead;
+
+    @MockBean
+    private HeavyHitters heavyHitters;
+
     @Test
     public void testGetByIPShouldReturn400BadRequestBecauseGeolocationException() throws Exception {
         GeolocationException ex = new GeolocationException("Geolocation error");
-        when(geolocationService.getLocation(anyString())).thenThrow(ex);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenThrow(ex);
 
         mockMvc.perform(get(END_POINT_PATH))
                 .andExpect(status().isBadRequest())
@@ -63,7 +80,7 @@ public class FullWeatherControllerTest {
     public void testGetByIPShouldReturn404NotFound() throws Exception {
         Location location = Location.builder().code("DELHI_IN").build();
 
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
 
         LocationNotFoundException ex = new LocationNotFoundException(location.getCode());
         when(fullWeatherService.getByLocation(location)).thenThrow(ex);
@@ -144,7 +161,7 @@ public class FullWeatherControllerTest {
 
         location.setListHourlyWeather(List.of(hourlyForecast1, hourlyForecast2));
 
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
         when(fullWeatherService.getByLocation(location)).thenReturn(location);
 
         String expectedLocation = location.toString();
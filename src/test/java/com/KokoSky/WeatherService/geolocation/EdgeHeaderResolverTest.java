@@ -0,0 +1,54 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.utility.ClientIPExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EdgeHeaderResolverTest {
+
+    private static final NumericIP CLIENT_IP = NumericIP.parse("108.30.178.78");
+
+    private final EdgeHeaderResolver underTest = new EdgeHeaderResolver(true, "X-Client-Country-Code",
+            "X-Client-Region", "X-Client-City", new ClientIPExtractor(List.of("10.0.0.0/8")));
+
+    @Test
+    public void whenPeerTrusted_returnLocationFromHeaders() {
+        MockHttpServletRequest request = edgeRequest("10.0.0.2");
+
+        Location location = underTest.resolve(CLIENT_IP, request);
+
+        assertThat(location.getCountryCode()).isEqualTo("US");
+        assertThat(location.getRegionName()).isEqualTo("New York");
+        assertThat(location.getCityName()).isEqualTo("New York City");
+    }
+
+    @Test
+    public void whenPeerNotTrusted_headersAreIgnored() {
+        assertThat(underTest.resolve(CLIENT_IP, edgeRequest("203.0.113.9"))).isNull();
+    }
+
+    @Test
+    public void whenCountryUnknown_passToNextResolver() {
+        MockHttpServletRequest unknown = new MockHttpServletRequest();
+        unknown.setRemoteAddr("10.0.0.2");
+        unknown.addHeader("X-Client-Country-Code", "XX");
+        unknown.addHeader("X-Client-City", "Unknown");
+
+        assertThat(underTest.resolve(CLIENT_IP, unknown)).isNull();
+        assertThat(underTest.resolve(CLIENT_IP, null)).isNull();
+    }
+
+    private static MockHttpServletRequest edgeRequest(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Client-Country-Code", "US");
+        request.addHeader("X-Client-Region", "New York");
+        request.addHeader("X-Client-City", "New York City");
+        return request;
+    }
+}
@@ -0,0 +1,45 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FailedLookupCacheTest {
+
+    private static final String NOT_FOUND = "Geolocation failed with status: IP_ADDRESS_NOT_FOUND";
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void whenFailureCached_returnMessageUntilTtlElapsed() {
+        FailedLookupCache underTest = new FailedLookupCache(true, 100, Duration.ofSeconds(30), clock::get);
+        NumericIP ip = NumericIP.parse("198.51.100.10");
+
+        underTest.put(ip, NOT_FOUND);
+
+        assertThat(underTest.get(ip)).isEqualTo(NOT_FOUND);
+        assertThat(underTest.get(NumericIP.parse("198.51.100.11"))).isNull();
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThat(underTest.get(ip)).isNull();
+        assertThat(underTest.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenFull_expiredEntriesArePurgedFirst() {
+        FailedLookupCache underTest = new FailedLookupCache(true, 2, Duration.ofSeconds(30), clock::get);
+
+        underTest.put(NumericIP.parse("192.0.2.1"), NOT_FOUND);
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        underTest.put(NumericIP.parse("192.0.2.2"), NOT_FOUND);
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        underTest.put(NumericIP.parse("192.0.2.3"), NOT_FOUND);
+
+        assertThat(underTest.stats().size()).isEqualTo(2);
+        assertThat(underTest.get(NumericIP.parse("192.0.2.2"))).isEqualTo(NOT_FOUND);
+    }
+}
@@ -0,0 +1,91 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GeolocationCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Location newYork = new Location("New York City", "New York", "United States of America", "US");
+
+    @Test
+    public void whenIPv4BlockCached_otherAddressInBlockIsHit() {
+        GeolocationCache underTest = new GeolocationCache(true, 100, Duration.ofMinutes(5), 64, clock::get);
+
+        NumericIP first = NumericIP.parse("203.0.113.5");
+        NumericIP blockStart = NumericIP.parse("203.0.113.0");
+        NumericIP blockEnd = NumericIP.parse("203.0.113.255");
+
+        assertThat(underTest.get(first)).isNull();
+        underTest.put(first, new GeolocationMatch(newYork, blockStart.low(), blockEnd.low()));
+
+        assertThat(underTest.get(NumericIP.parse("203.0.113.77"))).isSameAs(newYork);
+        assertThat(underTest.get(NumericIP.parse("203.0.114.1"))).isNull();
+        assertThat(underTest.stats().hits()).isEqualTo(1);
+        assertThat(underTest.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenIPv6AddressCached_samePrefixIsHit() {
+        GeolocationCache underTest = new GeolocationCache(true, 100, Duration.ofMinutes(5), 64, clock::get);
+
+        underTest.put(NumericIP.parse("2001:db8:1:2::1"), new GeolocationMatch(newYork, -1, -1));
+
+        assertThat(underTest.get(NumericIP.parse("2001:db8:1:2:ffff::9"))).isSameAs(newYork);
+        assertThat(underTest.get(NumericIP.parse("2001:db8:1:3::1"))).isNull();
+    }
+
+    @Test
+    public void whenTtlElapsed_entryIsMiss() {
+        GeolocationCache underTest = new GeolocationCache(true, 100, Duration.ofSeconds(10), 64, clock::get);
+        NumericIP ip = NumericIP.parse("198.51.100.10");
+
+        underTest.put(ip, new GeolocationMatch(newYork, ip.low(), ip.low()));
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThat(underTest.get(ip)).isNull();
+        assertThat(underTest.stats().size()).isZero();
+    }
+
+    @Test
+    public void whenMaximumSizeExceeded_unreferencedEntryIsEvicted() {
+        GeolocationCache underTest = new GeolocationCache(true, 2, Duration.ofMinutes(5), 64, clock::get);
+        NumericIP first = NumericIP.parse("192.0.2.1");
+        NumericIP second = NumericIP.parse("192.0.2.2");
+        NumericIP third = NumericIP.parse("192.0.2.3");
+
+        underTest.put(first, new GeolocationMatch(newYork, first.low(), first.low()));
+        underTest.put(second, new GeolocationMatch(newYork, second.low(), second.low()));
+        underTest.get(first);
+        underTest.put(third, new GeolocationMatch(newYork, third.low(), third.low()));
+
+        assertThat(underTest.get(first)).isSameAs(newYork);
+        assertThat(underTest.get(second)).isNull();
+        assertThat(underTest.get(third)).isSameAs(newYork);
+        assertThat(underTest.stats().evictions()).isEqualTo(1);
+        assertThat(underTest.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenDatabaseReloaded_resultOfPreviousGenerationIsDropped() {
+        GeolocationCache underTest = new GeolocationCache(true, 100, Duration.ofMinutes(5), 64, clock::get);
+        NumericIP ip = NumericIP.parse("198.51.100.10");
+
+        underTest.put(ip, new GeolocationMatch(newYork, ip.low(), ip.low()), 0);
+        underTest.invalidateAll(1);
+
+        assertThat(underTest.get(ip)).isNull();
+
+        underTest.put(ip, new GeolocationMatch(newYork, ip.low(), ip.low()), 0);
+        assertThat(underTest.get(ip)).isNull();
+
+        underTest.put(ip, new GeolocationMatch(newYork, ip.low(), ip.low()), 1);
+        assertThat(underTest.get(ip)).isSameAs(newYork);
+    }
+}
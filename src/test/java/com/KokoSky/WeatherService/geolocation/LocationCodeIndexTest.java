@@ -0,0 +1,93 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LocationCodeIndexTest {
+
+    private static final String DB_PATH = "IP2LOCATION-LITE-DB3.BIN";
+
+    private static final NumericIP NEW_YORK_IP = NumericIP.parse("108.30.178.78");
+    private static final NumericIP DELHI_IP = NumericIP.parse("103.48.198.141");
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    private MappedIP2LocationReader reader;
+
+    private LocationCodeIndex underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        reader = MappedIP2LocationReader.open(new ClassPathResource(DB_PATH));
+        underTest = new LocationCodeIndex(locationRepository, true, new StringDictionary(100));
+    }
+
+    @Test
+    public void whenCityInCatalog_returnLocationWithCode() {
+        Location newYork = Location.builder()
+                .code("NYC_US")
+                .cityName("New York City")
+                .regionName("New York")
+                .countryName("United States of America")
+                .countryCode("US")
+                .enabled(true)
+                .build();
+
+        when(locationRepository.findAllUntrashedLocations()).thenReturn(List.of(newYork));
+
+        underTest.rebuild(reader);
+
+        assertThat(underTest.find(NEW_YORK_IP).getCode()).isEqualTo("NYC_US");
+        assertThat(underTest.find(DELHI_IP)).isNull();
+    }
+
+    @Test
+    public void whenLocationAddedOrDeleted_indexIsUpdatedWithoutRebuild() {
+        Location newYork = Location.builder()
+                .code("NYC_US")
+                .cityName("New York City")
+                .regionName("New York")
+                .countryName("United States of America")
+                .countryCode("US")
+                .enabled(true)
+                .build();
+        Location delhi = Location.builder()
+                .code("DEL_IN")
+                .cityName("Delhi")
+                .regionName("Delhi")
+                .countryName("India")
+                .countryCode("IN")
+                .enabled(true)
+                .build();
+
+        when(locationRepository.findAllUntrashedLocations()).thenReturn(List.of(newYork));
+        underTest.rebuild(reader);
+
+        underTest.onLocationChanged(new LocationChangedEvent("DEL_IN", delhi));
+        underTest.onLocationChanged(new LocationChangedEvent("NYC_US", null));
+
+        assertThat(underTest.find(DELHI_IP).getCode()).isEqualTo("DEL_IN");
+        assertThat(underTest.find(NEW_YORK_IP)).isNull();
+    }
+
+    @Test
+    public void whenIndexNotBuilt_returnNull() {
+        assertThat(underTest.find(NEW_YORK_IP)).isNull();
+    }
+}
@@ -0,0 +1,53 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocationTokenResolverTest {
+
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItbG9jYXRpb24tdG9rZW5zLTMyYg==";
+
+    private static final NumericIP CLIENT_IP = NumericIP.parse("108.30.178.78");
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000L);
+
+    private final LocationTokenResolver underTest = new LocationTokenResolver(true, SECRET, Duration.ofMinutes(10),
+            "X-Location-Token", "location_token", true, new LocationCodeIndex(null, true, new StringDictionary(100)), clock::get);
+
+    @Test
+    public void whenTokenSigned_verifyReturnsLocationCode() {
+        String token = underTest.sign("NYC_US", CLIENT_IP, clock.get() + 600);
+
+        assertThat(underTest.verify(token, CLIENT_IP)).isEqualTo("NYC_US");
+        assertThat(underTest.verify(token, NumericIP.parse("108.30.178.200"))).isEqualTo("NYC_US");
+    }
+
+    @Test
+    public void whenTokenTamperedExpiredOrFromOtherNetwork_verifyReturnsNull() {
+        String token = underTest.sign("NYC_US", CLIENT_IP, clock.get() + 600);
+        char flipped = token.charAt(8) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, 8) + flipped + token.substring(9);
+
+        assertThat(underTest.verify(tampered, CLIENT_IP)).isNull();
+        assertThat(underTest.verify("not a token", CLIENT_IP)).isNull();
+        assertThat(underTest.verify(token, NumericIP.parse("108.30.179.78"))).isNull();
+
+        clock.addAndGet(601);
+        assertThat(underTest.verify(token, CLIENT_IP)).isNull();
+    }
+
+    @Test
+    public void whenRequestCarriesValidToken_resolveToLocationCode() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Location-Token", underTest.sign("NYC_US", CLIENT_IP, clock.get() + 600));
+
+        assertThat(underTest.resolve(CLIENT_IP, request).getCode()).isEqualTo("NYC_US");
+        assertThat(underTest.resolve(CLIENT_IP, new MockHttpServletRequest())).isNull();
+    }
+}
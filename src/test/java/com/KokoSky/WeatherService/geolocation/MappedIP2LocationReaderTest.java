@@ -0,0 +1,91 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.location.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MappedIP2LocationReaderTest {
+
+    private static final String DB_PATH = "IP2LOCATION-LITE-DB3.BIN";
+
+    @Test
+    public void testValidIP_returnsSameCityAsLibrary() throws IOException {
+        ClassPathResource resource = new ClassPathResource(DB_PATH);
+
+        try (GeolocationReader reader = MappedIP2LocationReader.open(resource)) {
+            assertThat(reader.lookup("108.30.178.78").getCityName()).isEqualTo("New York City");
+            assertThat(reader.lookup("103.48.198.141").getCityName()).isEqualTo("Delhi");
+        }
+    }
+
+    @Test
+    public void testInvalidIP_throwsGeolocationException() throws IOException {
+        ClassPathResource resource = new ClassPathResource(DB_PATH);
+
+        try (GeolocationReader reader = MappedIP2LocationReader.open(resource)) {
+            assertThatThrownBy(() -> reader.lookup("abc"))
+                    .isInstanceOf(GeolocationException.class)
+                    .hasMessage("Geolocation failed with status: INVALID_IP_ADDRESS");
+        }
+    }
+
+    @Test
+    public void testStreamWithWrongLength_isLoadedWhole() throws IOException {
+        byte[] bin = new ClassPathResource(DB_PATH).getContentAsByteArray();
+
+        // Reports less than it holds, so the off-heap copy has to grow past the reported length
+        ByteArrayResource resource = new ByteArrayResource(bin) {
+            @Override
+            public long contentLength() {
+                return bin.length / 3;
+            }
+        };
+
+        try (GeolocationReader reader = MappedIP2LocationReader.open(resource)) {
+            assertThat(reader.lookup("108.30.178.78").getCityName()).isEqualTo("New York City");
+            assertThat(reader.lookup("103.48.198.141").getCityName()).isEqualTo("Delhi");
+        }
+    }
+
+    @Test
+    public void testRandomIPs_matchLibraryReader() throws IOException {
+        ClassPathResource resource = new ClassPathResource(DB_PATH);
+        String dbPath = resource.getFile().getAbsolutePath();
+
+        try (GeolocationReader mapped = MappedIP2LocationReader.open(resource);
+             GeolocationReader library = new LibraryIP2LocationReader(dbPath)) {
+
+            for (String ipAddress : randomIPv4Addresses(10_000)) {
+                Location expected = library.lookup(ipAddress);
+                Location actual = mapped.lookup(ipAddress);
+
+                assertThat(actual.getCityName()).isEqualTo(expected.getCityName());
+                assertThat(actual.getRegionName()).isEqualTo(expected.getRegionName());
+                assertThat(actual.getCountryCode()).isEqualTo(expected.getCountryCode());
+                assertThat(actual.getCountryName()).isEqualTo(expected.getCountryName());
+            }
+        }
+    }
+
+    private static List<String> randomIPv4Addresses(int count) {
+        Random random = new Random(42);
+        List<String> ipAddresses = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            ipAddresses.add((1 + random.nextInt(223)) + "." + random.nextInt(256) + "."
+                    + random.nextInt(256) + "." + random.nextInt(256));
+        }
+
+        return ipAddresses;
+    }
+}
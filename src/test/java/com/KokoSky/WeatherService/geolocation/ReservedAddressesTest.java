@@ -0,0 +1,37 @@
+package com.KokoSky.WeatherService.geolocation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReservedAddressesTest {
+
+    @Test
+    public void testReservedIPv4_isReserved() {
+        for (String ipAddress : new String[]{"0.0.0.0", "10.1.2.3", "100.64.0.1", "127.0.0.1", "169.254.10.1",
+                "172.16.0.1", "172.31.255.255", "192.168.1.1", "198.18.0.1", "203.0.113.7", "224.0.0.1",
+                "255.255.255.255"}) {
+            assertThat(ReservedAddresses.isReserved(NumericIP.parse(ipAddress))).isTrue();
+        }
+    }
+
+    @Test
+    public void testPublicIPv4_isNotReserved() {
+        for (String ipAddress : new String[]{"8.8.8.8", "108.30.178.78", "172.32.0.1", "100.128.0.1",
+                "192.169.0.1", "223.255.255.255"}) {
+            assertThat(ReservedAddresses.isReserved(NumericIP.parse(ipAddress))).isFalse();
+        }
+    }
+
+    @Test
+    public void testIPv6_classifiedByPrefixAndEmbeddedIPv4() {
+        for (String ipAddress : new String[]{"::", "::1", "fd12::1", "fe80::1", "ff02::1", "2001:db8::1",
+                "::ffff:192.168.0.1", "2002:0a00:0001::1"}) {
+            assertThat(ReservedAddresses.isReserved(NumericIP.parse(ipAddress))).isTrue();
+        }
+
+        for (String ipAddress : new String[]{"2606:4700::1111", "::ffff:8.8.8.8", "2002:0808:0808::1"}) {
+            assertThat(ReservedAddresses.isReserved(NumericIP.parse(ipAddress))).isFalse();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.KokoSky.WeatherService.heavyHitters.HeavyHitters.Dimension.LOCATION_CODE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HeavyHitterMetricsTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final HeavyHitters heavyHitters = new HeavyHitters(true, 16, 4, 2, Duration.ZERO, null);
+    private final HeavyHitterMetrics underTest = new HeavyHitterMetrics(heavyHitters, 3, Duration.ofSeconds(5), clock::get);
+
+    @Test
+    public void whenGaugesReadWithinRefresh_shareOneRanking() {
+        record("NYC_USA", 3);
+        record("LDN_UK", 2);
+
+        HeavyHitterMetrics.Ranking ranking = underTest.new Ranking(LOCATION_CODE);
+
+        assertThat(ranking.countAt(0)).isEqualTo(3.0);
+        assertThat(ranking.countAt(1)).isEqualTo(2.0);
+        assertThat(ranking.countAt(2)).isEqualTo(0.0);
+
+        // Same scrape: the ranking merged for rank 1 answers every other rank
+        record("LDN_UK", 5);
+        assertThat(ranking.countAt(0)).isEqualTo(3.0);
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(ranking.countAt(0)).isEqualTo(7.0);
+        assertThat(ranking.countAt(1)).isEqualTo(3.0);
+    }
+
+    private void record(String locationCode, int times) {
+        for (int i = 0; i < times; i++) {
+            heavyHitters.record(LOCATION_CODE, locationCode);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.utility.ClientIPExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.KokoSky.WeatherService.heavyHitters.HeavyHitters.Dimension.CLIENT_NETWORK;
+import static com.KokoSky.WeatherService.heavyHitters.HeavyHitters.Dimension.LOCATION_CODE;
+import static com.KokoSky.WeatherService.heavyHitters.HeavyHitters.Dimension.RESOLVED_LOCATION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HeavyHittersTest {
+
+    private final HeavyHitters underTest = new HeavyHitters(true, 16, 4, 2, Duration.ZERO,
+            new ClientIPExtractor(List.of("10.0.0.0/8")));
+
+    @Test
+    public void whenRecordedFromManyThreads_mergeStripesIntoOneRanking() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    underTest.record(LOCATION_CODE, i % 2 == 0 ? "NYC_USA" : i % 4 == 1 ? "LDN_UK" : "KEY_" + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<HeavyHitters.HeavyHitter> top = underTest.top(LOCATION_CODE, 2);
+
+        assertThat(top.size()).isEqualTo(2);
+        assertThat(top.get(0).key()).isEqualTo("NYC_USA");
+        assertThat(top.get(0).count() + top.get(0).error()).isGreaterThanOrEqualTo(4000);
+        assertThat(top.get(0).count() - top.get(0).error()).isLessThanOrEqualTo(4000);
+        assertThat(top.get(1).key()).isEqualTo("LDN_UK");
+        assertThat(underTest.total(LOCATION_CODE)).isEqualTo(8000);
+    }
+
+    @Test
+    public void whenRequestsRecorded_trackCodesClientNetworksAndResolvedLocations() {
+        underTest.recordRequest(request("203.0.113.9", null), "NYC_USA");
+        underTest.recordRequest(request("10.0.0.2", "198.51.100.1"), null);
+        underTest.recordRequest(request("10.0.0.2", "198.51.100.1"), "NYC_USA");
+        underTest.recordRequest(request("10.0.0.2", "198.51.100.200"), null);
+        underTest.recordRequest(request("2001:db8:1:2::1", null), null);
+        underTest.recordRequest(request("not an address", null), "LDN_UK");
+
+        Location resolved = new Location("Boston", "Massachusetts", "United States of America", "US");
+        underTest.recordResolved(resolved);
+
+        assertThat(underTest.top(LOCATION_CODE, 10).get(0).key()).isEqualTo("NYC_USA");
+        assertThat(underTest.top(LOCATION_CODE, 10).get(0).count()).isEqualTo(2);
+        // Recorded by network, never by address
+        assertThat(underTest.top(CLIENT_NETWORK, 10).get(0).key()).isEqualTo("198.51.100.0/24");
+        assertThat(underTest.top(CLIENT_NETWORK, 10).get(0).count()).isEqualTo(3);
+        assertThat(underTest.top(CLIENT_NETWORK, 10).get(1).key()).isEqualTo("2001:db8:1:0:0:0:0:0/48");
+        assertThat(underTest.total(CLIENT_NETWORK)).isEqualTo(5);
+        assertThat(underTest.top(RESOLVED_LOCATION, 10).get(0).key()).isEqualTo("US/Boston");
+
+        HeavyHitters.Stats stats = underTest.stats(null);
+        assertThat(stats.dimensions().get(LOCATION_CODE).top().size()).isEqualTo(2);
+        assertThat(stats.dimensions().get(LOCATION_CODE).total()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenAged_countsHalveAndTotalsStay() {
+        for (int i = 0; i < 10; i++) {
+            underTest.record(LOCATION_CODE, "NYC_USA");
+        }
+
+        underTest.age();
+
+        assertThat(underTest.top(LOCATION_CODE, 1).get(0).count()).isEqualTo(5);
+        assertThat(underTest.total(LOCATION_CODE)).isEqualTo(10);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+
+        return request;
+    }
+}
@@ -0,0 +1,59 @@
+package com.KokoSky.WeatherService.heavyHitters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpaceSavingTest {
+
+    @Test
+    public void whenStreamHasHeavyHitters_trackThemWithBoundedError() {
+        SpaceSaving underTest = new SpaceSaving(8);
+
+        // Every third key is NYC_USA and every fifth LDN_UK, among 200 keys seen once each
+        int unique = 0;
+        for (int i = 0; i < 600; i++) {
+            underTest.offer(i % 3 == 0 ? "NYC_USA" : i % 5 == 0 ? "LDN_UK" : "KEY_" + unique++);
+        }
+
+        Map<String, SpaceSaving.Counter> counters = counters(underTest);
+
+        assertThat(underTest.size()).isEqualTo(8);
+        assertThat(counters.get("NYC_USA").count() - counters.get("NYC_USA").error()).isLessThanOrEqualTo(200);
+        assertThat(counters.get("NYC_USA").count()).isGreaterThanOrEqualTo(200);
+        assertThat(counters.get("LDN_UK").count()).isGreaterThanOrEqualTo(80);
+        assertThat(underTest.missedCount()).isLessThanOrEqualTo(600 / 8);
+    }
+
+    @Test
+    public void whenAged_halveCountsAndKeepReplacingTheSmallest() {
+        SpaceSaving underTest = new SpaceSaving(2);
+
+        for (int i = 0; i < 10; i++) {
+            underTest.offer("NYC_USA");
+        }
+        underTest.offer("LDN_UK");
+        underTest.offer("LDN_UK");
+
+        underTest.age();
+
+        assertThat(counters(underTest).get("NYC_USA").count()).isEqualTo(5);
+        assertThat(underTest.missedCount()).isEqualTo(1);
+
+        underTest.offer("PARIS_FR");
+
+        Map<String, SpaceSaving.Counter> counters = counters(underTest);
+        assertThat(counters.containsKey("LDN_UK")).isFalse();
+        assertThat(counters.get("PARIS_FR").count()).isEqualTo(2);
+        assertThat(counters.get("PARIS_FR").error()).isEqualTo(1);
+    }
+
+    private static Map<String, SpaceSaving.Counter> counters(SpaceSaving summary) {
+        Map<String, SpaceSaving.Counter> counters = new HashMap<>();
+        summary.forEach(counter -> counters.put(counter.key(), counter));
+        return counters;
+    }
+}
@@ -0,0 +1,93 @@
+package com.KokoSky.WeatherService.hourlyWeather;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HourlyForecastStoreTest {
+
+    private final Location location = location();
+
+    @Test
+    public void whenLoaded_returnHoursAfterCurrentHourInOrder() {
+        HourlyForecastStore underTest = new HourlyForecastStore(true, new StringDictionary(100));
+        underTest.put(location, List.of(hourly(15, 20, "Cloudy"), hourly(9, 12, "Sunny"), hourly(10, 14, "Sunny")),
+                underTest.stamp());
+
+        List<HourlyWeather> forecast = underTest.getAfter("NYC_USA", 9);
+
+        assertThat(forecast.size()).isEqualTo(2);
+        assertThat(forecast.get(0).getId().getHourOfDay()).isEqualTo(10);
+        assertThat(forecast.get(0).getTemperature()).isEqualTo(14);
+        assertThat(forecast.get(0).getStatus()).isEqualTo("Sunny");
+        assertThat(forecast.get(1).getId().getHourOfDay()).isEqualTo(15);
+        assertThat(forecast.get(1).getStatus()).isEqualTo("Cloudy");
+        assertThat(forecast.get(1).getId().getLocation().getCode()).isEqualTo("NYC_USA");
+
+        assertThat(underTest.getAfter("NYC_USA", -1).size()).isEqualTo(3);
+        assertThat(underTest.getAfter("NYC_USA", 23).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void whenNotLoaded_returnNull() {
+        HourlyForecastStore underTest = new HourlyForecastStore(true, new StringDictionary(100));
+
+        assertThat(underTest.getAfter("NYC_USA", 9)).isNull();
+    }
+
+    @Test
+    public void whenInvalidatedOrLocationChanged_dropForecast() {
+        HourlyForecastStore underTest = new HourlyForecastStore(true, new StringDictionary(100));
+        underTest.put(location, List.of(hourly(10, 14, "Sunny")), underTest.stamp());
+
+        underTest.invalidate("NYC_USA");
+        assertThat(underTest.getAfter("NYC_USA", 9)).isNull();
+
+        underTest.put(location, List.of(hourly(10, 14, "Sunny")), underTest.stamp());
+        underTest.onLocationChanged(new LocationChangedEvent("NYC_USA", null));
+        assertThat(underTest.getAfter("NYC_USA", 9)).isNull();
+    }
+
+    @Test
+    public void whenInvalidationOverlapsLoad_loadedForecastIsNotStored() {
+        HourlyForecastStore underTest = new HourlyForecastStore(true, new StringDictionary(100));
+        long stamp = underTest.stamp();
+
+        underTest.invalidate("NYC_USA");
+        underTest.put(location, List.of(hourly(10, 14, "Sunny")), stamp);
+
+        assertThat(underTest.getAfter("NYC_USA", 9)).isNull();
+    }
+
+    @Test
+    public void whenStatusCannotBeEncoded_forecastIsNotStored() {
+        StringDictionary dictionary = new StringDictionary(1);
+        HourlyForecastStore underTest = new HourlyForecastStore(true, dictionary);
+
+        underTest.put(location, List.of(hourly(10, 14, "Sunny"), hourly(11, 15, "Cloudy")), underTest.stamp());
+        assertThat(underTest.getAfter("NYC_USA", 9)).isNull();
+
+        underTest.put(location, List.of(hourly(10, 14, "Sunny"), hourly(11, 15, "Sunny")), underTest.stamp());
+        assertThat(underTest.getAfter("NYC_USA", 9).size()).isEqualTo(2);
+    }
+
+    private HourlyWeather hourly(int hour, int temperature, String status) {
+        return HourlyWeather.builder()
+                .id(new HourlyWeatherId(hour, location))
+                .temperature(temperature)
+                .precipitation(40)
+                .status(status)
+                .build();
+    }
+
+    private static Location location() {
+        Location location = new Location("New York City", "New York", "United States of America", "US");
+        location.setCode("NYC_USA");
+        return location;
+    }
+}
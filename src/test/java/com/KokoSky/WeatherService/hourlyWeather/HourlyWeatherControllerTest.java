@@ -3,12 +3,18 @@ package com.KokoSky.WeatherService.hourlyWeather;
 import com.KokoSky.WeatherService.exceptions.GeolocationException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
 import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.hamcrest.CoreMatchers.is;
@@ -27,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(HourlyWeatherController.class)
+@Import(SingleFlightLoader.class)
 public class HourlyWeatherControllerTest {
 
     private static final String X_CURRENT_HOUR = "X-Current-Hour";
@@ -45,6 +52,12 @@ public class HourlyWeatherControllerTest {
     @MockBean
     private GeolocationService geolocationService;
 
+    @MockBean
+    private ResponseBodyCache responseBodyCache;
+
+    @MockBean
+    private HeavyHitters heavyHitters;
+
     @Test
     public void testGetByIPShouldReturn400BadRequestBecauseNoHeaderXCurrentHour() throws Exception {
         mockMvc.perform(get(END_POINT_PATH))
@@ -54,7 +67,7 @@ public class HourlyWeatherControllerTest {
 
     @Test
     public void testGetByIPShouldReturn400BadRequestBecauseGeolocationException() throws Exception {
-        when(geolocationService.getLocation(Mockito.anyString())).thenThrow(GeolocationException.class);
+        when(geolocationService.getLocation(Mockito.any(HttpServletRequest.class), Mockito.any(HttpServletResponse.class))).thenThrow(GeolocationException.class);
 
         mockMvc.perform(get(END_POINT_PATH).header(X_CURRENT_HOUR, "9"))
                 .andExpect(status().isBadRequest())
@@ -66,7 +79,7 @@ public class HourlyWeatherControllerTest {
         int currentHour = 9;
         Location location = Location.builder().code("DELHI_IN").build();
 
-        when(geolocationService.getLocation(Mockito.anyString())).thenReturn(location);
+        when(geolocationService.getLocation(Mockito.any(HttpServletRequest.class), Mockito.any(HttpServletResponse.class))).thenReturn(location);
         when(hourlyWeatherService.getByLocation(location, currentHour)).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get(END_POINT_PATH).header(X_CURRENT_HOUR, String.valueOf(currentHour)))
@@ -114,7 +127,7 @@ public class HourlyWeatherControllerTest {
                 .status("Sunny")
                 .build();
 
-        when(geolocationService.getLocation(Mockito.anyString())).thenReturn(location);
+        when(geolocationService.getLocation(Mockito.any(HttpServletRequest.class), Mockito.any(HttpServletResponse.class))).thenReturn(location);
         when(hourlyWeatherService.getByLocation(location, currentHour)).thenReturn(List.of(forecast1, forecast2));
 
         String expectedLocation = location.toString();
@@ -132,7 +145,7 @@ public class HourlyWeatherControllerTest {
         Location location = Location.builder().code("DELHI_IN").build();
         int currentHour = 9;
 
-        when(geolocationService.getLocation(Mockito.anyString())).thenReturn(location);
+        when(geolocationService.getLocation(Mockito.any(HttpServletRequest.class), Mockito.any(HttpServletResponse.class))).thenReturn(location);
         when(hourlyWeatherService.getByLocation(location, currentHour)).thenThrow(LocationNotFoundException.class);
 
         mockMvc.perform(get(END_POINT_PATH).header(X_CURRENT_HOUR, String.valueOf(currentHour)))
@@ -0,0 +1,116 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InvalidationBusTest {
+
+    private final InJvmInvalidationTransport transport = new InJvmInvalidationTransport();
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+
+    private final List<Object> eventsOnFirst = new ArrayList<>();
+    private final List<Object> eventsOnSecond = new ArrayList<>();
+
+    private InvalidationBus first;
+    private InvalidationBus second;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(entityManagerFactory.getCache()).thenReturn(mock(Cache.class));
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(mock(org.hibernate.Cache.class));
+
+        first = bus(eventsOnFirst);
+        second = bus(eventsOnSecond);
+    }
+
+    @Test
+    public void whenLocationChanged_otherInstancesReplayReloadedLocation() {
+        Location location = new Location("New York City", "New York", "United States of America", "US");
+        location.setCode("NYC_USA");
+        when(locationRepository.findByCode("NYC_USA")).thenReturn(location);
+
+        first.onLocationChanged(new LocationChangedEvent("NYC_USA", location));
+        first.flush();
+
+        assertThat(eventsOnFirst.isEmpty()).isTrue();
+        assertThat(eventsOnSecond.size()).isEqualTo(1);
+
+        LocationChangedEvent replayed = (LocationChangedEvent) eventsOnSecond.get(0);
+        assertThat(replayed.code()).isEqualTo("NYC_USA");
+        assertThat(replayed.location()).isSameAs(location);
+        assertThat(replayed.remote()).isTrue();
+
+        // Replayed events are not sent back out
+        second.onLocationChanged(replayed);
+        second.flush();
+        assertThat(second.stats().published()).isEqualTo(0L);
+        assertThat(eventsOnFirst.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void whenChangesBurst_sendOneEntryPerCode() {
+        first.onWeatherChanged(new WeatherChangedEvent("NYC_USA"));
+        first.onWeatherChanged(new WeatherChangedEvent("NYC_USA"));
+        first.onLocationChanged(new LocationChangedEvent("NYC_USA", null));
+        first.onWeatherChanged(new WeatherChangedEvent("NYC_USA"));
+        first.onWeatherChanged(new WeatherChangedEvent("LDN_UK"));
+        first.flush();
+
+        assertThat(eventsOnSecond.size()).isEqualTo(2);
+        assertThat(first.stats().published()).isEqualTo(5L);
+        assertThat(first.stats().coalesced()).isEqualTo(3L);
+        assertThat(first.stats().batchesSent()).isEqualTo(1L);
+        assertThat(second.stats().received()).isEqualTo(2L);
+
+        LocationChangedEvent location = eventsOnSecond.stream()
+                .filter(LocationChangedEvent.class::isInstance).map(LocationChangedEvent.class::cast)
+                .findFirst().orElseThrow();
+        WeatherChangedEvent weather = eventsOnSecond.stream()
+                .filter(WeatherChangedEvent.class::isInstance).map(WeatherChangedEvent.class::cast)
+                .findFirst().orElseThrow();
+
+        assertThat(location.code()).isEqualTo("NYC_USA");
+        assertThat(location.isDeleted()).isTrue();
+        assertThat(weather.code()).isEqualTo("LDN_UK");
+        assertThat(weather.remote()).isTrue();
+    }
+
+    @Test
+    public void whenNoTransport_keepChangesLocal() {
+        InvalidationBus local = new InvalidationBus(Optional.empty(), Duration.ofHours(1), locationRepository,
+                entityManagerFactory, eventsOnFirst::add);
+
+        local.onWeatherChanged(new WeatherChangedEvent("NYC_USA"));
+        local.flush();
+
+        assertThat(local.stats().enabled()).isFalse();
+        assertThat(local.stats().published()).isEqualTo(0L);
+        assertThat(eventsOnSecond.isEmpty()).isTrue();
+    }
+
+    private InvalidationBus bus(List<Object> events) {
+        // Flushed by the tests, the window only has to outlast them
+        InvalidationBus bus = new InvalidationBus(Optional.of(transport), Duration.ofHours(1), locationRepository,
+                entityManagerFactory, events::add);
+        bus.start();
+        return bus;
+    }
+}
@@ -0,0 +1,40 @@
+package com.KokoSky.WeatherService.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostgresInvalidationTransportTest {
+
+    @Test
+    public void whenBatchExceedsPayloadLimit_splitIntoPartsUnderIt() {
+        List<InvalidationBatch.Change> changes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            changes.add(new InvalidationBatch.Change("CODE_" + i, InvalidationBatch.Kind.WEATHER));
+        }
+
+        List<InvalidationBatch> parts = PostgresInvalidationTransport.split(new InvalidationBatch("node", changes));
+
+        assertThat(parts.size() > 1).isTrue();
+
+        int total = 0;
+        for (InvalidationBatch part : parts) {
+            assertThat(part.encode().getBytes(StandardCharsets.UTF_8).length < 8000).isTrue();
+            total += part.changes().size();
+        }
+        assertThat(total).isEqualTo(2000);
+    }
+
+    @Test
+    public void whenDecoded_matchEncodedBatch() {
+        InvalidationBatch batch = new InvalidationBatch("node", List.of(
+                new InvalidationBatch.Change("NYC_USA", InvalidationBatch.Kind.LOCATION),
+                new InvalidationBatch.Change("LDN_UK", InvalidationBatch.Kind.WEATHER)));
+
+        assertThat(InvalidationBatch.decode(batch.encode())).isEqualTo(batch);
+    }
+}
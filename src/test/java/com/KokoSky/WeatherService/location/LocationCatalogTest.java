@@ -0,0 +1,77 @@
+package com.KokoSky.WeatherService.location;
+
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LocationCatalogTest {
+
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+
+    private LocationCatalog underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(locationRepository.findAllUntrashedLocations()).thenReturn(List.of(
+                location("SAOP_BR", "S\u00e3o  Paulo", "BR"),
+                location("NYC_USA", "New York City", "US"),
+                location("LACA_US", "Los Angeles", "US")));
+
+        underTest = new LocationCatalog(locationRepository, new ModelMapper(), new ObjectMapper(), new StringDictionary(100));
+    }
+
+    @Test
+    public void whenNotLoaded_returnNothing() {
+        assertThat(underTest.isReady()).isFalse();
+        assertThat(underTest.findByCode("NYC_USA")).isNull();
+        assertThat(underTest.getRenderedLocations()).isNull();
+    }
+
+    @Test
+    public void whenLoaded_findByEveryIndex() {
+        underTest.load();
+
+        assertThat(underTest.findByCode("NYC_USA").getCityName()).isEqualTo("New York City");
+        assertThat(underTest.findByCountryCodeAndCityName("br", "sao paulo").getCode()).isEqualTo("SAOP_BR");
+        assertThat(underTest.findByCountryCodeAndCityName("US", "Boston")).isNull();
+        assertThat(underTest.findByCountryCode("US")).hasSize(2);
+        assertThat(underTest.getLocations().get(0).getCode()).isEqualTo("LACA_US");
+
+        String rendered = new String(underTest.getRenderedLocations().body(), StandardCharsets.UTF_8);
+        assertThat(rendered).startsWith("[{\"code\":\"LACA_US\"");
+    }
+
+    @Test
+    public void whenLocationChanged_swapInNewSnapshot() {
+        underTest.load();
+        String etagBefore = underTest.getRenderedLocations().etag();
+
+        underTest.onLocationChanged(new LocationChangedEvent("NYC_USA", null));
+        underTest.onLocationChanged(new LocationChangedEvent("BOS_US", location("BOS_US", "Boston", "US")));
+
+        assertThat(underTest.findByCode("NYC_USA")).isNull();
+        assertThat(underTest.findByCountryCodeAndCityName("US", "New York City")).isNull();
+        assertThat(underTest.findByCountryCodeAndCityName("US", "boston").getCode()).isEqualTo("BOS_US");
+        assertThat(underTest.getRenderedLocations().etag()).isNotEqualTo(etagBefore);
+    }
+
+    private static Location location(String code, String cityName, String countryCode) {
+        return Location.builder()
+                .code(code)
+                .cityName(cityName)
+                .regionName("Region")
+                .countryName("Country")
+                .countryCode(countryCode)
+                .enabled(true)
+                .build();
+    }
+}
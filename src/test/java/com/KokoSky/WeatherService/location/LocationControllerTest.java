@@ -1,6 +1,8 @@
 package com.KokoSky.WeatherService.location;
 
 import com.KokoSky.WeatherService.exceptions.ResourceNotFoundException;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
+import com.KokoSky.WeatherService.responseCache.CachedBody;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,8 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -31,6 +35,12 @@ public class LocationControllerTest {
     @MockBean
     private LocationRepository locationRepository;
 
+    @MockBean
+    private LocationCatalog locationCatalog;
+
+    @MockBean
+    private HeavyHitters heavyHitters;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -136,6 +146,32 @@ public class LocationControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    public void whenCatalogReady_returnRenderedLocationsWithStatusCode200() throws Exception {
+        LocationDTO dto = LocationDTO
+                .builder()
+                .code("LACA_US")
+                .cityName("Los Angeles")
+                .regionName("California")
+                .countryName("United States Of America")
+                .countryCode("US")
+                .enabled(true)
+                .build();
+
+        String ENDPOINT_URI = "/api/v1/locations";
+        when(locationCatalog.isReady()).thenReturn(true);
+        when(locationCatalog.getRenderedLocations()).thenReturn(CachedBody.of(objectMapper, List.of(dto), null));
+
+        mockMvc.perform(get(ENDPOINT_URI))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].city_name").value("Los Angeles"))
+                .andDo(print());
+
+        verify(locationService, never()).getLocations();
+    }
+
     @Test
     public void whenGetLocationByCode_andNoLocation_returnNotFoundWithStatusCode404() throws Exception {
         String nonExistentLocationCode = "LACA_US";
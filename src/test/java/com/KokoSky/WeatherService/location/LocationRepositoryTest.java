@@ -427,4 +427,29 @@ public class LocationRepositoryTest {
         assertThat(updatedLocation.getListDailyWeather()).hasSizeGreaterThanOrEqualTo(2);
     }
 
+    @Test
+    public void whenSoftDeleted_cachedLookupsReturnNull() {
+        Location location = Location
+                .builder()
+                .code("NYC_USA")
+                .cityName("New York City")
+                .regionName("New York")
+                .countryName("United States Of America")
+                .countryCode("US")
+                .enabled(true)
+                .build();
+
+        underTest.save(location);
+
+        // Warm the query and entity caches
+        assertThat(underTest.findByCode("NYC_USA")).isNotNull();
+        assertThat(underTest.findByCountryCodeAndCityName("US", "New York City")).isNotNull();
+
+        underTest.softDeleteByCode("NYC_USA");
+
+        assertThat(underTest.findByCode("NYC_USA")).isNull();
+        assertThat(underTest.findByCountryCodeAndCityName("US", "New York City")).isNull();
+        assertThat(underTest.findById("NYC_USA").orElseThrow().isTrashed()).isTrue();
+    }
+
 }
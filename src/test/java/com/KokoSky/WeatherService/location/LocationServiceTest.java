@@ -3,12 +3,14 @@ package com.KokoSky.WeatherService.location;
 import com.KokoSky.WeatherService.exceptions.DuplicateResourceException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
 import com.KokoSky.WeatherService.exceptions.ResourceNotFoundException;
+import com.KokoSky.WeatherService.readModel.ReadModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +28,12 @@ public class LocationServiceTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private ReadModel readModel;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() {
         locationRepository.deleteAll();
@@ -60,6 +68,7 @@ public class LocationServiceTest {
 
         // Then
         assertThat(newLocation).isNotNull();
+        verify(eventPublisher, times(1)).publishEvent(new LocationChangedEvent(code, location));
     }
 
     @Test
@@ -267,6 +276,7 @@ public class LocationServiceTest {
         // Then
        underTest.deleteLocationByCode(code);
        verify(locationRepository, times(1)).softDeleteByCode(code);
+       verify(eventPublisher, times(1)).publishEvent(new LocationChangedEvent(code, null));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.KokoSky.WeatherService.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UnknownLocationCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    public void whenCodeUnknown_skipRepositoryUntilTtlElapsed() {
+        UnknownLocationCache underTest = new UnknownLocationCache(true, 100, Duration.ofSeconds(30), clock::get);
+
+        assertThat(underTest.findByCode("ABC_XYZ", this::findNothing)).isNull();
+        assertThat(underTest.findByCode("ABC_XYZ", this::findNothing)).isNull();
+        assertThat(underTest.isUnknownCode("ABC_XYZ")).isTrue();
+        assertThat(lookups.get()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThat(underTest.isUnknownCode("ABC_XYZ")).isFalse();
+        underTest.findByCode("ABC_XYZ", this::findNothing);
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenMatchingLocationAdded_forgetCodeAndCity() {
+        UnknownLocationCache underTest = new UnknownLocationCache(true, 100, Duration.ofSeconds(30), clock::get);
+        underTest.findByCode("SAO_BR", this::findNothing);
+        underTest.findByCountryCodeAndCityName("BR", "sao  paulo", (countryCode, cityName) -> null);
+        underTest.findByCountryCodeAndCityName("BR", "Rio de Janeiro", (countryCode, cityName) -> null);
+
+        underTest.onLocationChanged(new LocationChangedEvent("SAO_BR", location("SAO_BR", "S\u00e3o Paulo", "BR")));
+
+        assertThat(underTest.isUnknownCode("SAO_BR")).isFalse();
+        assertThat(underTest.isUnknownCity("BR", "sao  paulo")).isFalse();
+        assertThat(underTest.isUnknownCity("BR", "Rio de Janeiro")).isTrue();
+    }
+
+    @Test
+    public void whenLocationAddedDuringLookup_lookupIsNotRemembered() {
+        UnknownLocationCache underTest = new UnknownLocationCache(true, 100, Duration.ofSeconds(30), clock::get);
+
+        underTest.findByCode("SAO_BR", code -> {
+            underTest.onLocationChanged(new LocationChangedEvent(code, location(code, "Sao Paulo", "BR")));
+            return null;
+        });
+
+        assertThat(underTest.isUnknownCode("SAO_BR")).isFalse();
+    }
+
+    @Test
+    public void whenLocationFound_nothingIsRemembered() {
+        UnknownLocationCache underTest = new UnknownLocationCache(true, 100, Duration.ofSeconds(30), clock::get);
+
+        Location found = underTest.findByCode("SAO_BR", code -> location(code, "Sao Paulo", "BR"));
+
+        assertThat(found.getCode()).isEqualTo("SAO_BR");
+        assertThat(underTest.stats().unknownCodes()).isEqualTo(0);
+    }
+
+    private Location findNothing(String code) {
+        lookups.incrementAndGet();
+        return null;
+    }
+
+    private static Location location(String code, String cityName, String countryCode) {
+        Location location = new Location(cityName, "Region", "Country", countryCode);
+        location.setCode(code);
+        return location;
+    }
+}
@@ -0,0 +1,246 @@
+package com.KokoSky.WeatherService.readModel;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeather;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherId;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherRepository;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherId;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherRepository;
+import com.KokoSky.WeatherService.invalidation.WeatherChangedEvent;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherRepository;
+import com.KokoSky.WeatherService.responseCache.CachedBody;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.FULL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReadModelTest {
+
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final RealtimeWeatherRepository realtimeWeatherRepository = mock(RealtimeWeatherRepository.class);
+    private final HourlyWeatherRepository hourlyWeatherRepository = mock(HourlyWeatherRepository.class);
+    private final DailyWeatherRepository dailyWeatherRepository = mock(DailyWeatherRepository.class);
+    private final ResponseBodyCache responseBodyCache = new ResponseBodyCache(true, DataSize.ofKilobytes(64), Duration.ofMinutes(5));
+
+    private final Location newYork = location("NYC_USA", "New York");
+    private final Location london = location("LDN_UK", "London");
+
+    @TempDir
+    Path directory;
+
+    private ReadModel underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(locationRepository.findAllUntrashedLocations()).thenReturn(List.of(newYork, london));
+        when(realtimeWeatherRepository.findAll()).thenReturn(List.of(realtimeWeather(newYork, 20)));
+        when(hourlyWeatherRepository.findAll()).thenReturn(List.of(
+                hourlyWeather(newYork, 9, 15), hourlyWeather(newYork, 8, 14), hourlyWeather(london, 8, 10)));
+        when(dailyWeatherRepository.findAll()).thenReturn(List.of(dailyWeather(london, 2, 1), dailyWeather(london, 1, 1)));
+
+        underTest = readModel(false);
+    }
+
+    @Test
+    public void whenLoaded_serveDetachedOrderedSnapshots() {
+        assertThat(underTest.isServing("NYC_USA")).isFalse();
+
+        underTest.load();
+
+        assertThat(underTest.isServing("NYC_USA")).isTrue();
+        assertThat(underTest.isResolvingCities()).isTrue();
+        assertThat(underTest.stats().locations()).isEqualTo(2);
+
+        LocationSnapshot snapshot = underTest.get("NYC_USA");
+        assertThat(snapshot.location()).isNotSameAs(newYork);
+        assertThat(snapshot.realtimeWeather().getTemperature()).isEqualTo(20);
+        assertThat(snapshot.realtimeWeather().getLocation()).isSameAs(snapshot.location());
+        assertThat(snapshot.location().getListHourlyWeather()).isSameAs(snapshot.hourlyWeather());
+        assertThat(snapshot.hourlyWeatherAfter(-1).get(0).getId().getHourOfDay()).isEqualTo(8);
+        assertThat(snapshot.hourlyWeatherAfter(8).size()).isEqualTo(1);
+
+        LocationSnapshot londonSnapshot = underTest.get("LDN_UK");
+        assertThat(londonSnapshot.realtimeWeather()).isNull();
+        assertThat(londonSnapshot.dailyWeather().get(0).getId().getDayOfMonth()).isEqualTo(1);
+
+        assertThat(underTest.findCodeByCountryCodeAndCityName("US", "New York")).isEqualTo("NYC_USA");
+        assertThat(underTest.findCodeByCountryCodeAndCityName("US", "Boston")).isNull();
+        assertThat(underTest.get("LACA_USA")).isNull();
+    }
+
+    @Test
+    public void whenWriteCommitted_replaceSnapshotAndDropCachedBodies() {
+        underTest.load();
+        responseBodyCache.put(FULL, "NYC_USA", responseBodyCache.stamp(), new CachedBody(new byte[1], "\"1\"", 0));
+
+        when(locationRepository.findByCode("NYC_USA")).thenReturn(newYork);
+        when(realtimeWeatherRepository.findByLocationCode("NYC_USA")).thenReturn(realtimeWeather(newYork, 25));
+        underTest.onWeatherChanged(new WeatherChangedEvent("NYC_USA", true));
+
+        assertThat(underTest.get("NYC_USA").realtimeWeather().getTemperature()).isEqualTo(25);
+        assertThat(underTest.get("NYC_USA").hourlyWeather()).isEmpty();
+        assertThat(responseBodyCache.get(FULL, "NYC_USA")).isNull();
+
+        underTest.onLocationChanged(new LocationChangedEvent("LDN_UK", null));
+
+        assertThat(underTest.get("LDN_UK")).isNull();
+        assertThat(underTest.findCodeByCountryCodeAndCityName("US", "London")).isNull();
+        assertThat(underTest.stats().reloads()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenReloadFails_readThatLocationFromTheDatabase() {
+        underTest.load();
+
+        when(locationRepository.findByCode("NYC_USA")).thenThrow(new IllegalStateException("Connection refused"));
+        underTest.onWeatherChanged(new WeatherChangedEvent("NYC_USA"));
+
+        assertThat(underTest.isServing("NYC_USA")).isFalse();
+        assertThat(underTest.isServing("LDN_UK")).isTrue();
+        assertThat(underTest.stats().stale()).isEqualTo(1);
+        assertThat(underTest.stats().failures()).isEqualTo(1);
+        // A miss could be the stale location under a new name, so city lookups go to the database too
+        assertThat(underTest.isResolvingCities()).isFalse();
+    }
+
+    @Test
+    public void whenSnapshotRestored_serveItAndReconcileWithTheDatabase() throws InterruptedException {
+        ReadModel previous = readModel(true);
+        previous.load();
+        previous.writeSnapshot();
+        previous.writeSnapshot();
+
+        assertThat(previous.stats().restored()).isFalse();
+        assertThat(previous.stats().snapshotWrites()).isEqualTo(1);
+        assertThat(Files.exists(directory.resolve("read-model.snapshot"))).isTrue();
+
+        // Changed in the database since the snapshot was written
+        when(locationRepository.findAllUntrashedLocations()).thenReturn(List.of(newYork));
+        when(realtimeWeatherRepository.findAll()).thenReturn(List.of(realtimeWeather(newYork, 30)));
+
+        ReadModel restored = readModel(true);
+        responseBodyCache.put(FULL, "NYC_USA", responseBodyCache.stamp(), new CachedBody(new byte[1], "\"1\"", 0));
+        restored.load();
+
+        assertThat(restored.isServing("NYC_USA")).isTrue();
+        assertThat(restored.stats().restored()).isTrue();
+
+        for (int i = 0; i < 100 && restored.stats().reconciled() == 0; i++) {
+            Thread.sleep(20);
+        }
+
+        assertThat(restored.stats().reconciled()).isEqualTo(2);
+        assertThat(restored.get("NYC_USA").realtimeWeather().getTemperature()).isEqualTo(30);
+        assertThat(restored.get("NYC_USA").hourlyWeather().size()).isEqualTo(2);
+        assertThat(restored.get("LDN_UK")).isNull();
+        assertThat(responseBodyCache.get(FULL, "NYC_USA")).isNull();
+        restored.close();
+    }
+
+    @Test
+    public void whenReconcileFails_retryUntilTheDatabaseConfirmsTheSnapshot() throws InterruptedException {
+        ReadModel previous = readModel(true);
+        previous.load();
+        previous.writeSnapshot();
+
+        when(locationRepository.findAllUntrashedLocations())
+                .thenThrow(new IllegalStateException("Connection refused"))
+                .thenReturn(List.of(newYork));
+
+        ReadModel restored = readModel(true);
+        restored.load();
+
+        for (int i = 0; i < 100 && restored.stats().failures() == 0; i++) {
+            Thread.sleep(20);
+        }
+
+        // Still served from the snapshot, but not written back as if the database had confirmed it
+        assertThat(restored.stats().failures()).isEqualTo(1);
+        assertThat(restored.isServing("LDN_UK")).isTrue();
+        restored.writeSnapshot();
+        assertThat(restored.stats().snapshotWrites()).isZero();
+
+        for (int i = 0; i < 150 && restored.get("LDN_UK") != null; i++) {
+            Thread.sleep(20);
+        }
+
+        assertThat(restored.get("LDN_UK")).isNull();
+        assertThat(restored.isServing("NYC_USA")).isTrue();
+        restored.writeSnapshot();
+        assertThat(restored.stats().snapshotWrites()).isEqualTo(1);
+        restored.close();
+    }
+
+    @Test
+    public void whenSnapshotOlderThanMaxAge_loadFromTheDatabase() throws InterruptedException {
+        ReadModel previous = readModel(true);
+        previous.load();
+        previous.writeSnapshot();
+        Thread.sleep(5);
+
+        ReadModel restarted = readModel(true, Duration.ofMillis(1));
+        restarted.load();
+
+        assertThat(restarted.stats().restored()).isFalse();
+        assertThat(restarted.isServing("NYC_USA")).isTrue();
+        restarted.close();
+    }
+
+    private ReadModel readModel(boolean snapshotEnabled) {
+        return readModel(snapshotEnabled, Duration.ofDays(1));
+    }
+
+    private ReadModel readModel(boolean snapshotEnabled, Duration snapshotMaxAge) {
+        return new ReadModel(true, locationRepository, realtimeWeatherRepository, hourlyWeatherRepository,
+                dailyWeatherRepository, responseBodyCache, new StringDictionary(100), mock(PlatformTransactionManager.class),
+                snapshotEnabled, directory.resolve("read-model.snapshot").toString(), Duration.ZERO, snapshotMaxAge);
+    }
+
+    private static Location location(String code, String cityName) {
+        Location location = new Location(cityName, "Region", "Country", "US");
+        location.setCode(code);
+        return location;
+    }
+
+    private static RealtimeWeather realtimeWeather(Location location, int temperature) {
+        RealtimeWeather realtimeWeather = new RealtimeWeather();
+        realtimeWeather.setLocation(location);
+        realtimeWeather.setTemperature(temperature);
+        realtimeWeather.setStatus("Sunny");
+        return realtimeWeather;
+    }
+
+    private static HourlyWeather hourlyWeather(Location location, int hourOfDay, int temperature) {
+        return HourlyWeather.builder()
+                .id(new HourlyWeatherId(hourOfDay, location))
+                .temperature(temperature)
+                .status("Cloudy")
+                .build();
+    }
+
+    private static DailyWeather dailyWeather(Location location, int dayOfMonth, int month) {
+        return DailyWeather.builder()
+                .id(new DailyWeatherId(dayOfMonth, month, location))
+                .minTemp(5)
+                .maxTemp(12)
+                .status("Rainy")
+                .build();
+    }
+}
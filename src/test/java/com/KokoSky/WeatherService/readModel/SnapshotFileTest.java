@@ -0,0 +1,105 @@
+package com.KokoSky.WeatherService.readModel;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeather;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherId;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeather;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherId;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeather;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnapshotFileTest {
+
+    private final StringDictionary dictionary = new StringDictionary(100);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void whenWrittenAndRead_restoreEveryField() throws IOException {
+        LocationSnapshot newYork = newYork();
+        LocationSnapshot london = ReadModel.snapshot(location("LDN_UK", "Lond\u00f4n"), null, List.of(), List.of(), dictionary);
+        Path path = directory.resolve("read-model.snapshot");
+
+        long bytes = SnapshotFile.write(path, List.of(newYork, london), 1_700_000_000_000L);
+        SnapshotFile.Contents contents = SnapshotFile.read(path, dictionary);
+
+        assertThat(Files.size(path)).isEqualTo(bytes);
+        assertThat(contents.createdAt()).isEqualTo(1_700_000_000_000L);
+        assertThat(contents.snapshots().size()).isEqualTo(2);
+
+        LocationSnapshot restored = contents.snapshots().get(0);
+        assertThat(SnapshotFile.encode(restored)).isEqualTo(SnapshotFile.encode(newYork));
+        assertThat(restored.realtimeWeather().getLastUpdated()).isEqualTo(new Date(1_699_999_000_000L));
+        assertThat(restored.realtimeWeather().getLocation()).isSameAs(restored.location());
+        assertThat(restored.hourlyWeather().get(1).getId().getLocation()).isSameAs(restored.location());
+        assertThat(restored.dailyWeather().get(0).getStatus()).isNull();
+        assertThat(restored.hourlyWeather().get(0).getStatus()).isSameAs(restored.realtimeWeather().getStatus());
+        assertThat(restored.location().getRegionName()).isNull();
+
+        assertThat(contents.snapshots().get(1).location().getCityName()).isEqualTo("Lond\u00f4n");
+        assertThat(contents.snapshots().get(1).realtimeWeather()).isNull();
+    }
+
+    @Test
+    public void whenCorruptedOrOfAnotherVersion_rejectTheFile() throws IOException {
+        Path path = directory.resolve("read-model.snapshot");
+        SnapshotFile.write(path, List.of(newYork()), System.currentTimeMillis());
+        byte[] bytes = Files.readAllBytes(path);
+
+        byte[] corrupted = bytes.clone();
+        corrupted[30] ^= 1;
+        assertThatThrownBy(() -> SnapshotFile.decode(ByteBuffer.wrap(corrupted), dictionary))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[5] = 2;
+        assertThatThrownBy(() -> SnapshotFile.decode(ByteBuffer.wrap(otherVersion), dictionary))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version");
+
+        Files.write(path, new byte[]{1, 2, 3});
+        assertThatThrownBy(() -> SnapshotFile.read(path, dictionary)).isInstanceOf(IOException.class);
+    }
+
+    private LocationSnapshot newYork() {
+        Location location = location("NYC_USA", "New York");
+
+        RealtimeWeather realtimeWeather = new RealtimeWeather();
+        realtimeWeather.setLocation(location);
+        realtimeWeather.setTemperature(-4);
+        realtimeWeather.setHumidity(60);
+        realtimeWeather.setPrecipitation(10);
+        realtimeWeather.setWindSpeed(12);
+        realtimeWeather.setStatus("Snowy");
+        realtimeWeather.setLastUpdated(new Date(1_699_999_000_000L));
+
+        List<HourlyWeather> hourlyWeather = List.of(
+                HourlyWeather.builder().id(new HourlyWeatherId(23, location)).temperature(-5).status("Clear").build(),
+                HourlyWeather.builder().id(new HourlyWeatherId(0, location)).temperature(-3).precipitation(40).status("Snowy").build());
+
+        List<DailyWeather> dailyWeather = List.of(
+                DailyWeather.builder().id(new DailyWeatherId(31, 12, location)).minTemp(-8).maxTemp(1).build());
+
+        return ReadModel.snapshot(location, realtimeWeather, hourlyWeather, dailyWeather, dictionary);
+    }
+
+    private static Location location(String code, String cityName) {
+        Location location = new Location(cityName, null, "Country", "US");
+        location.setCode(code);
+        return location;
+    }
+}
@@ -0,0 +1,110 @@
+package com.KokoSky.WeatherService.realtimeWeather;
+
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RealtimeWeatherCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void whenLoadedOnce_serveFromCacheUntilTtlElapsed() {
+        RealtimeWeatherCache underTest = new RealtimeWeatherCache(true, 100, Duration.ofMinutes(5), new StringDictionary(100), clock::get);
+
+        assertThat(underTest.get("NYC_USA", this::load).getTemperature()).isEqualTo(12);
+        assertThat(underTest.get("NYC_USA", this::load).getTemperature()).isEqualTo(12);
+        assertThat(loads.get()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        underTest.get("NYC_USA", this::load);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(underTest.stats().hits()).isEqualTo(1);
+        assertThat(underTest.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenWritten_serveWrittenStateAndEvictOnLocationChange() {
+        RealtimeWeatherCache underTest = new RealtimeWeatherCache(true, 100, Duration.ofMinutes(5), new StringDictionary(100), clock::get);
+        underTest.get("NYC_USA", this::load);
+
+        underTest.put("NYC_USA", weather("NYC_USA", 30));
+        assertThat(underTest.get("NYC_USA", this::load).getTemperature()).isEqualTo(30);
+
+        underTest.onLocationChanged(new LocationChangedEvent("NYC_USA", null));
+        assertThat(underTest.get("NYC_USA", this::load).getTemperature()).isEqualTo(12);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenWriteOverlapsLoad_loadedRowIsNotCached() {
+        RealtimeWeatherCache underTest = new RealtimeWeatherCache(true, 100, Duration.ofMinutes(5), new StringDictionary(100), clock::get);
+
+        RealtimeWeather stale = underTest.get("NYC_USA", code -> {
+            underTest.invalidate(code);
+            return load(code);
+        });
+
+        assertThat(stale).isNotNull();
+        assertThat(underTest.stats().size()).isZero();
+    }
+
+    @Test
+    public void whenFull_evictUnreferencedEntriesFirst() {
+        RealtimeWeatherCache underTest = new RealtimeWeatherCache(true, 2, Duration.ofMinutes(5), new StringDictionary(100), clock::get);
+
+        underTest.get("A", this::load);
+        underTest.get("B", this::load);
+        underTest.get("A", this::load);
+        underTest.get("C", this::load);
+
+        assertThat(underTest.stats().size()).isEqualTo(2);
+        assertThat(underTest.stats().evictions()).isEqualTo(1);
+
+        int loadsBefore = loads.get();
+        underTest.get("A", this::load);
+        assertThat(loads.get()).isEqualTo(loadsBefore);
+    }
+
+    @Test
+    public void whenCached_holdCopiesOfTheLocationAndLastUpdated() {
+        RealtimeWeatherCache underTest = new RealtimeWeatherCache(true, 100, Duration.ofMinutes(5), new StringDictionary(100), clock::get);
+        Location managed = new Location("New York City", "New York", "United States of America", "US");
+        managed.setCode("NYC_USA");
+        managed.setEnabled(true);
+        RealtimeWeather written = weather("NYC_USA", 30);
+        written.setLocation(managed);
+        written.setLastUpdated(new Date(1000));
+
+        underTest.put("NYC_USA", written);
+        written.getLastUpdated().setTime(2000);
+        RealtimeWeather cached = underTest.get("NYC_USA", this::load);
+
+        assertThat(cached.getLocation()).isNotSameAs(managed);
+        assertThat(cached.getLocation().getCode()).isEqualTo("NYC_USA");
+        assertThat(cached.getLocation().getCityName()).isEqualTo("New York City");
+        assertThat(cached.getLocation().isEnabled()).isTrue();
+        assertThat(cached.getLastUpdated().getTime()).isEqualTo(1000);
+    }
+
+    private RealtimeWeather load(String locationCode) {
+        loads.incrementAndGet();
+        return weather(locationCode, 12);
+    }
+
+    private static RealtimeWeather weather(String locationCode, int temperature) {
+        RealtimeWeather realtimeWeather = RealtimeWeather.builder().temperature(temperature).status("Sunny").build();
+        realtimeWeather.setLocation(Location.builder().code(locationCode).build());
+        return realtimeWeather;
+    }
+}
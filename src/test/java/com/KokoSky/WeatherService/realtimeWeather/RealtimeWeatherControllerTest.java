@@ -2,27 +2,41 @@ package com.KokoSky.WeatherService.realtimeWeather;
 
 import com.KokoSky.WeatherService.exceptions.GeolocationException;
 import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import com.KokoSky.WeatherService.geolocation.GeolocationResult;
 import com.KokoSky.WeatherService.geolocation.GeolocationService;
+import com.KokoSky.WeatherService.heavyHitters.HeavyHitters;
 import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.responseCache.RefreshAhead;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.responseCache.SingleFlightLoader;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(RealtimeWeatherController.class)
+@Import(SingleFlightLoader.class)
 public class RealtimeWeatherControllerTest {
 
     @MockBean
@@ -31,6 +45,15 @@ public class RealtimeWeatherControllerTest {
     @MockBean
     private GeolocationService geolocationService;
 
+    @MockBean
+    private ResponseBodyCache responseBodyCache;
+
+    @MockBean
+    private RefreshAhead refreshAhead;
+
+    @MockBean
+    private HeavyHitters heavyHitters;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -41,7 +64,7 @@ public class RealtimeWeatherControllerTest {
 
     @Test
     public void testGETShouldReturnBadRequest_with400StatusCode() throws Exception {
-        when(geolocationService.getLocation(anyString())).thenThrow(GeolocationException.class);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenThrow(GeolocationException.class);
 
         mockMvc.perform(get(END_POINT_PATH))
                 .andExpect(status().isBadRequest())
@@ -52,7 +75,7 @@ public class RealtimeWeatherControllerTest {
     public void testGETShouldReturnNotFound_with404StatusCode_whenLocationNotFound() throws Exception {
         Location location = new Location();
 
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
         when(realtimeWeatherService.getByLocation(location)).thenThrow(LocationNotFoundException.class);
 
         mockMvc.perform(get(END_POINT_PATH))
@@ -97,7 +120,7 @@ public class RealtimeWeatherControllerTest {
         location.setRealtimeWeather(realTimeWeather);
         realTimeWeather.setLocation(location);
 
-        when(geolocationService.getLocation(anyString())).thenReturn(location);
+        when(geolocationService.getLocation(any(HttpServletRequest.class), any(HttpServletResponse.class))).thenReturn(location);
         when(realtimeWeatherService.getByLocation(location)).thenReturn(realTimeWeather);
 
         String expectedLocation = location.getCityName() + ", " + location.getRegionName() + ", " + location.getCountryName();
@@ -173,6 +196,49 @@ public class RealtimeWeatherControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    public void testGetByLocationCodeShouldReturnNotModified_with304StatusCode_whenETagMatches() throws Exception {
+        // Given
+        String locationCode = "LACA_US";
+
+        Location location = Location
+                .builder()
+                .code(locationCode)
+                .cityName("Los Angeles")
+                .regionName("California")
+                .countryName("United States Of America")
+                .countryCode("US")
+                .enabled(true)
+                .build();
+
+        RealtimeWeather realTimeWeather = RealtimeWeather
+                .builder()
+                .temperature(75)
+                .humidity(50)
+                .precipitation(15)
+                .windSpeed(57)
+                .status("Snowy")
+                .lastUpdated(new Date(System.currentTimeMillis() - 60_000))
+                .build();
+        realTimeWeather.setLocation(location);
+
+        when(realtimeWeatherService.getByLocationCode(locationCode)).thenReturn(realTimeWeather);
+
+        String requestURI = END_POINT_PATH + "/" + locationCode;
+
+        MvcResult firstResult = mockMvc.perform(get(requestURI))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = firstResult.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(requestURI).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andDo(print());
+    }
+
     @Test
     public void testUpdateRealtimeWeatherByLocationCode_returnBadRequest_with400StatusCode() throws Exception {
         String locationCode = "ABC_US";
@@ -282,4 +348,59 @@ public class RealtimeWeatherControllerTest {
                 .andDo(print());
     }
 
+
+    @Test
+    public void testPostBatchShouldReturnBadRequest_with400StatusCode_whenNoIPAddresses() throws Exception {
+        String bodyContent = objectMapper.writeValueAsString(new RealtimeWeatherBatchRequest(List.of()));
+
+        mockMvc.perform(post(END_POINT_PATH + "/batch").contentType("application/json").content(bodyContent))
+                .andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @Test
+    public void testPostBatchShouldReturnWeatherAndErrorsPerIP_with200StatusCode() throws Exception {
+        Location location = Location
+                .builder()
+                .code("LACA_US")
+                .cityName("Los Angeles")
+                .regionName("California")
+                .countryName("United States Of America")
+                .countryCode("US")
+                .enabled(true)
+                .build();
+
+        RealtimeWeather realTimeWeather = RealtimeWeather
+                .builder()
+                .temperature(25)
+                .humidity(50)
+                .precipitation(10)
+                .windSpeed(12)
+                .status("Sunny")
+                .lastUpdated(new Date())
+                .build();
+        realTimeWeather.setLocation(location);
+
+        List<String> ipAddresses = List.of("108.30.178.78", "abc", "108.30.178.79");
+        List<GeolocationResult> geolocationResults = List.of(
+                new GeolocationResult("108.30.178.78", location, null),
+                new GeolocationResult("abc", null, "Geolocation failed with status: INVALID_IP_ADDRESS"),
+                new GeolocationResult("108.30.178.79", location, null));
+        Map<Location, RealtimeWeather> realtimeWeatherByLocation = new IdentityHashMap<>();
+        realtimeWeatherByLocation.put(location, realTimeWeather);
+
+        when(geolocationService.getLocations(ipAddresses)).thenReturn(geolocationResults);
+        when(realtimeWeatherService.getByLocations(List.of(location, location))).thenReturn(realtimeWeatherByLocation);
+
+        String bodyContent = objectMapper.writeValueAsString(new RealtimeWeatherBatchRequest(ipAddresses));
+
+        mockMvc.perform(post(END_POINT_PATH + "/batch").contentType("application/json").content(bodyContent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].location_code").value("LACA_US"))
+                .andExpect(jsonPath("$[0].realtime_weather.temperature").value(25))
+                .andExpect(jsonPath("$[1].ip_address").value("abc"))
+                .andExpect(jsonPath("$[1].error").value("Geolocation failed with status: INVALID_IP_ADDRESS"))
+                .andExpect(jsonPath("$[2].location_code").value("LACA_US"))
+                .andDo(print());
+    }
 }
@@ -0,0 +1,53 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachedBodyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void whenSameContent_returnSameETag() {
+        Date lastUpdated = new Date(1_700_000_000_123L);
+
+        CachedBody first = CachedBody.of(objectMapper, Map.of("temperature", 12), lastUpdated);
+        CachedBody second = CachedBody.of(objectMapper, Map.of("temperature", 12), lastUpdated);
+        CachedBody changed = CachedBody.of(objectMapper, Map.of("temperature", 13), lastUpdated);
+
+        assertThat(first.etag()).isEqualTo(second.etag());
+        assertThat(first.etag()).isNotEqualTo(changed.etag());
+        assertThat(first.etag()).startsWith("\"");
+        assertThat(first.lastModified()).isEqualTo(1_700_000_000_000L);
+    }
+
+    @Test
+    public void whenChangeTimeMissingOrInCurrentSecond_omitLastModified() {
+        CachedBody withoutChangeTime = CachedBody.of(objectMapper, Map.of("temperature", 12), null);
+        CachedBody changedJustNow = CachedBody.of(objectMapper, Map.of("temperature", 12), new Date());
+
+        assertThat(withoutChangeTime.lastModified()).isEqualTo(CachedBody.NO_LAST_MODIFIED);
+        assertThat(changedJustNow.lastModified()).isEqualTo(CachedBody.NO_LAST_MODIFIED);
+
+        var response = changedJustNow.toResponse();
+
+        assertThat(response.getHeaders().getETag()).isEqualTo(changedJustNow.etag());
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void whenResponseBuilt_carryValidators() {
+        CachedBody cachedBody = CachedBody.of(objectMapper, Map.of("status", "Sunny"), new Date(1_700_000_000_000L));
+
+        var response = cachedBody.toResponse();
+
+        assertThat(response.getHeaders().getETag()).isEqualTo(cachedBody.etag());
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(1_700_000_000_000L);
+        assertThat(response.getBody()).isEqualTo(cachedBody.body());
+    }
+}
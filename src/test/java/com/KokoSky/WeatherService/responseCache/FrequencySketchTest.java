@@ -0,0 +1,42 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void whenIncremented_estimateIsNeverBelowTheCount() {
+        FrequencySketch underTest = new FrequencySketch(1024);
+
+        for (int i = 0; i < 50; i++) {
+            underTest.increment("NYC_USA");
+        }
+
+        for (int i = 0; i < 500; i++) {
+            underTest.increment("CODE_" + i);
+        }
+
+        assertThat(underTest.estimate("NYC_USA")).isGreaterThanOrEqualTo(50);
+        assertThat(underTest.estimate("NYC_USA")).isLessThan(60);
+        assertThat(underTest.estimate("LDN_UK")).isLessThan(5);
+    }
+
+    @Test
+    public void whenSampleSizeReached_halveEveryCounter() {
+        FrequencySketch underTest = new FrequencySketch(16);
+
+        for (int i = 0; i < 100; i++) {
+            underTest.increment("NYC_USA");
+        }
+
+        // 10 x width increments in total
+        for (int i = 0; i < 60; i++) {
+            underTest.increment("CODE_" + i);
+        }
+
+        assertThat(underTest.estimate("NYC_USA")).isGreaterThanOrEqualTo(50);
+        assertThat(underTest.estimate("NYC_USA")).isLessThan(100);
+    }
+}
@@ -0,0 +1,96 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.FULL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class RefreshAheadTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> loaded = new CopyOnWriteArrayList<>();
+
+    private ResponseBodyCache responseBodyCache;
+    private RefreshAhead underTest;
+
+    @BeforeEach
+    void setUp() {
+        responseBodyCache = new ResponseBodyCache(true, DataSize.ofKilobytes(64), Duration.ofMinutes(5), clock::get);
+        underTest = new RefreshAhead(true, Duration.ofSeconds(30), 3, 64, 1, 4, Duration.ZERO, responseBodyCache,
+                new SingleFlightLoader(true, Duration.ofSeconds(10), responseBodyCache::stamp), mock(PlatformTransactionManager.class));
+        underTest.start();
+
+        underTest.register(FULL, code -> {
+            loaded.add(code);
+            return body(code + "-" + loaded.size());
+        });
+    }
+
+    @Test
+    public void whenHotEntryNearExpiry_reloadItInTheBackground() throws InterruptedException {
+        responseBodyCache.put(FULL, "NYC_USA", responseBodyCache.stamp(), body("NYC_USA-0"));
+        responseBodyCache.put(FULL, "LDN_UK", responseBodyCache.stamp(), body("LDN_UK-0"));
+
+        for (int i = 0; i < 3; i++) {
+            responseBodyCache.get(FULL, "NYC_USA");
+        }
+
+        assertThat(loaded).isEmpty();
+
+        clock.addAndGet(Duration.ofSeconds(280).toNanos());
+        // Still served while the reload runs
+        assertThat(responseBodyCache.get(FULL, "NYC_USA").etag()).isEqualTo("\"NYC_USA-0\"");
+        // Read once only, not hot
+        assertThat(responseBodyCache.get(FULL, "LDN_UK").etag()).isEqualTo("\"LDN_UK-0\"");
+
+        awaitRefreshed(1);
+
+        assertThat(loaded).isEqualTo(List.of("NYC_USA"));
+        assertThat(underTest.stats().nearExpiry()).isEqualTo(1);
+
+        // Past the original expiry
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+        assertThat(responseBodyCache.get(FULL, "NYC_USA").etag()).isEqualTo("\"NYC_USA-1\"");
+        assertThat(responseBodyCache.get(FULL, "LDN_UK")).isNull();
+    }
+
+    @Test
+    public void whenHotLocationInvalidated_reloadItAfterTheWrite() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            responseBodyCache.get(FULL, "NYC_USA");
+        }
+
+        responseBodyCache.invalidate("NYC_USA");
+        responseBodyCache.invalidate("LDN_UK");
+
+        awaitRefreshed(1);
+
+        assertThat(loaded).isEqualTo(List.of("NYC_USA"));
+        assertThat(underTest.stats().afterWrite()).isEqualTo(1);
+        assertThat(responseBodyCache.get(FULL, "NYC_USA").etag()).isEqualTo("\"NYC_USA-1\"");
+    }
+
+    private void awaitRefreshed(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+        while (underTest.stats().refreshed() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(underTest.stats().refreshed()).isEqualTo(count);
+    }
+
+    private static CachedBody body(String value) {
+        return new CachedBody(("{\"value\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8), "\"" + value + "\"", 0);
+    }
+}
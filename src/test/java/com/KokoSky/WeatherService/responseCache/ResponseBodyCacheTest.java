@@ -0,0 +1,79 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import com.KokoSky.WeatherService.location.LocationChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.FULL;
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.HOURLY;
+import static com.KokoSky.WeatherService.responseCache.ResponseBodyCache.Endpoint.REALTIME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseBodyCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void whenInvalidated_dropBodiesOfEveryEndpointOfTheLocation() {
+        ResponseBodyCache underTest = new ResponseBodyCache(true, DataSize.ofKilobytes(64), Duration.ofMinutes(5), clock::get);
+
+        underTest.put(FULL, "NYC_USA", underTest.stamp(), body("full"));
+        underTest.put(HOURLY, "NYC_USA", 7, underTest.stamp(), body("hourly"));
+        underTest.put(FULL, "LACA_USA", underTest.stamp(), body("other"));
+
+        assertThat(underTest.get(HOURLY, "NYC_USA", 7).etag()).isEqualTo("\"hourly\"");
+        assertThat(underTest.get(HOURLY, "NYC_USA", 8)).isNull();
+        assertThat(underTest.get(REALTIME, "NYC_USA")).isNull();
+
+        underTest.invalidate("NYC_USA");
+
+        assertThat(underTest.get(FULL, "NYC_USA")).isNull();
+        assertThat(underTest.get(HOURLY, "NYC_USA", 7)).isNull();
+        assertThat(underTest.get(FULL, "LACA_USA").etag()).isEqualTo("\"other\"");
+
+        underTest.onLocationChanged(new LocationChangedEvent("LACA_USA", null));
+        assertThat(underTest.get(FULL, "LACA_USA")).isNull();
+        assertThat(underTest.stats().bytes()).isZero();
+    }
+
+    @Test
+    public void whenInvalidatedDuringLoad_bodyIsNotCached() {
+        ResponseBodyCache underTest = new ResponseBodyCache(true, DataSize.ofKilobytes(64), Duration.ofMinutes(5), clock::get);
+
+        long stamp = underTest.stamp();
+        underTest.invalidate("NYC_USA");
+        underTest.put(FULL, "NYC_USA", stamp, body("stale"));
+
+        assertThat(underTest.get(FULL, "NYC_USA")).isNull();
+    }
+
+    @Test
+    public void whenOverMaximumSize_evictUnreferencedBodiesFirst() {
+        ResponseBodyCache underTest = new ResponseBodyCache(true, DataSize.ofBytes(100), Duration.ofMinutes(5), clock::get);
+
+        underTest.put(FULL, "A", underTest.stamp(), body(new byte[40]));
+        underTest.put(FULL, "B", underTest.stamp(), body(new byte[40]));
+        underTest.get(FULL, "A");
+        underTest.put(FULL, "C", underTest.stamp(), body(new byte[40]));
+
+        assertThat(underTest.get(FULL, "A")).isNotNull();
+        assertThat(underTest.get(FULL, "B")).isNull();
+        assertThat(underTest.stats().bytes()).isEqualTo(80);
+        assertThat(underTest.stats().evictions()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        assertThat(underTest.get(FULL, "A")).isNull();
+    }
+
+    private static CachedBody body(String value) {
+        return new CachedBody(("{\"value\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8), "\"" + value + "\"", 0);
+    }
+
+    private static CachedBody body(byte[] bytes) {
+        return new CachedBody(bytes, "\"" + bytes.length + "\"", 0);
+    }
+}
@@ -0,0 +1,173 @@
+package com.KokoSky.WeatherService.responseCache;
+
+import com.KokoSky.WeatherService.exceptions.LocationNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightLoaderTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ResponseBodyCache responseBodyCache =
+            new ResponseBodyCache(true, DataSize.ofKilobytes(64), Duration.ofMinutes(5), System::nanoTime);
+
+    @Test
+    public void whenLoadsOverlap_runLoaderOnceAndShareResult() throws Exception {
+        SingleFlightLoader underTest = new SingleFlightLoader(true, Duration.ofSeconds(10), responseBodyCache::stamp);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<String> leader = executor.submit(() -> underTest.load("FULL/NYC_USA", this::blockingLoad));
+            awaitInFlight(underTest);
+
+            Future<String> first = executor.submit(() -> underTest.load("FULL/NYC_USA", this::blockingLoad));
+            Future<String> second = executor.submit(() -> underTest.load("FULL/NYC_USA", this::blockingLoad));
+            awaitCoalesced(underTest, 2);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(underTest.stats().loads()).isEqualTo(1L);
+        assertThat(underTest.stats().coalesced()).isEqualTo(2L);
+        assertThat(underTest.stats().inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenSharedLoadFails_rethrowToEveryCaller() throws Exception {
+        SingleFlightLoader underTest = new SingleFlightLoader(true, Duration.ofSeconds(10), responseBodyCache::stamp);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> leader = executor.submit(() -> underTest.load("FULL/ABC_XYZ", this::blockingFailure));
+            awaitInFlight(underTest);
+
+            Future<String> waiter = executor.submit(() -> underTest.load("FULL/ABC_XYZ", this::blockingFailure));
+            awaitCoalesced(underTest, 1);
+            release.countDown();
+
+            assertThat(failureOf(leader)).isInstanceOf(LocationNotFoundException.class);
+            assertThat(failureOf(waiter)).isInstanceOf(LocationNotFoundException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(underTest.stats().failures()).isEqualTo(1L);
+    }
+
+    @Test
+    public void whenWaitExceedsMaximum_runOwnLoad() throws Exception {
+        SingleFlightLoader underTest = new SingleFlightLoader(true, Duration.ofMillis(50), responseBodyCache::stamp);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<String> leader = executor.submit(() -> underTest.load("DAILY/NYC_USA", this::blockingLoad));
+            awaitInFlight(underTest);
+
+            assertThat(underTest.load("DAILY/NYC_USA", () -> "own")).isEqualTo("own");
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(underTest.stats().timeouts()).isEqualTo(1L);
+        assertThat(underTest.stats().loads()).isEqualTo(2L);
+    }
+
+    @Test
+    public void whenInvalidatedDuringLoad_laterCallerRunsANewLoad() throws Exception {
+        SingleFlightLoader underTest = new SingleFlightLoader(true, Duration.ofSeconds(10), responseBodyCache::stamp);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // A GET that read the location before the PUT below committed
+            Future<String> beforeWrite = executor.submit(() -> underTest.load("FULL/NYC_USA", this::blockingLoad));
+            awaitInFlight(underTest);
+
+            // The PUT invalidates, and the GET that follows must see the written state
+            responseBodyCache.invalidate("NYC_USA");
+            assertThat(underTest.load("FULL/NYC_USA", () -> "written")).isEqualTo("written");
+
+            release.countDown();
+            assertThat(beforeWrite.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(underTest.stats().superseded()).isEqualTo(1L);
+        assertThat(underTest.stats().coalesced()).isEqualTo(0L);
+        assertThat(underTest.stats().loads()).isEqualTo(2L);
+        assertThat(underTest.stats().inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenLoadsDoNotOverlap_runEachOne() {
+        SingleFlightLoader underTest = new SingleFlightLoader(true, Duration.ofSeconds(10), responseBodyCache::stamp);
+
+        underTest.load("REALTIME/NYC_USA", loads::incrementAndGet);
+        underTest.load("REALTIME/NYC_USA", loads::incrementAndGet);
+        underTest.load(null, loads::incrementAndGet);
+
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(underTest.stats().coalesced()).isEqualTo(0L);
+    }
+
+    private String blockingLoad() {
+        loads.incrementAndGet();
+        await();
+        return "loaded";
+    }
+
+    private String blockingFailure() {
+        loads.incrementAndGet();
+        await();
+        throw new LocationNotFoundException("ABC_XYZ");
+    }
+
+    private void await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Throwable failureOf(Future<?> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (Exception ex) {
+            return ex.getCause();
+        }
+    }
+
+    private static void awaitInFlight(SingleFlightLoader underTest) throws InterruptedException {
+        while (underTest.stats().inFlight() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitCoalesced(SingleFlightLoader underTest, long expected) throws InterruptedException {
+        while (underTest.stats().coalesced() < expected) {
+            Thread.sleep(1);
+        }
+    }
+}
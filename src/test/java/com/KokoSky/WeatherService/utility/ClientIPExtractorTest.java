@@ -0,0 +1,80 @@
+package com.KokoSky.WeatherService.utility;
+
+import com.KokoSky.WeatherService.exceptions.GeolocationException;
+import com.KokoSky.WeatherService.geolocation.NumericIP;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ClientIPExtractorTest {
+
+    private final ClientIPExtractor underTest = new ClientIPExtractor(List.of("10.0.0.0/8", "2001:db8::/32"));
+
+    @Test
+    public void whenPeerNotTrusted_forwardingHeadersAreIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.9");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+
+        assertThat(underTest.extract(request)).isEqualTo(NumericIP.parse("203.0.113.9"));
+    }
+
+    @Test
+    public void whenPeerTrusted_returnFirstUntrustedHopFromTheRight() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("X-Forwarded-For", "192.0.2.66, 198.51.100.1, unknown, [2001:db8::5]:443, 10.1.1.1:8080");
+
+        assertThat(underTest.extract(request)).isEqualTo(NumericIP.parse("198.51.100.1"));
+    }
+
+    @Test
+    public void whenEveryHopTrusted_returnLeftmostHop() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("X-Forwarded-For", "10.9.9.9, 10.1.1.1");
+
+        assertThat(underTest.extract(request)).isEqualTo(NumericIP.parse("10.9.9.9"));
+    }
+
+    @Test
+    public void whenRepeatedForwardedForHeaders_lastHeaderIsNearest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("X-Forwarded-For", "198.51.100.7");
+        request.addHeader("X-Forwarded-For", "10.1.1.1");
+
+        assertThat(underTest.extract(request)).isEqualTo(NumericIP.parse("198.51.100.7"));
+    }
+
+    @Test
+    public void whenNoForwardedFor_fallBackToProxyClientIP() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("WL-Proxy-Client-IP", "198.51.100.3");
+
+        assertThat(underTest.extract(request)).isEqualTo(NumericIP.parse("198.51.100.3"));
+    }
+
+    @Test
+    public void whenIPv6Loopback_returnIPv4Loopback() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("0:0:0:0:0:0:0:1");
+
+        assertThat(underTest.extract(request)).isEqualTo(NumericIP.parse("127.0.0.1"));
+    }
+
+    @Test
+    public void whenRemoteAddressInvalid_throwGeolocationException() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("unknown");
+
+        assertThatThrownBy(() -> underTest.extract(request))
+                .isInstanceOf(GeolocationException.class)
+                .hasMessage("Geolocation failed with status: INVALID_IP_ADDRESS");
+    }
+}
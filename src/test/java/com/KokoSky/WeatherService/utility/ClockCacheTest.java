@@ -0,0 +1,76 @@
+package com.KokoSky.WeatherService.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClockCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void whenReplacedRemovedOrExpired_entryLeavesTheClock() {
+        ClockCache<String, String> underTest = new ClockCache<>(100, value -> 1, Duration.ofSeconds(10), clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            underTest.put("NYC_USA", "v" + i);
+        }
+        underTest.put("LDN_UK", "London");
+        underTest.put("PARIS_FR", "Paris");
+        underTest.remove("LDN_UK");
+
+        assertThat(underTest.size()).isEqualTo(2);
+        assertThat(underTest.linked()).isEqualTo(2);
+        assertThat(underTest.get("NYC_USA")).isEqualTo("v999");
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThat(underTest.get("NYC_USA")).isNull();
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.linked()).isEqualTo(1);
+        assertThat(underTest.weight()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenOverCapacity_evictUnreferencedEntriesFirst() {
+        ClockCache<String, byte[]> underTest = new ClockCache<>(100, value -> value.length, Duration.ofMinutes(5), clock::get);
+
+        underTest.put("NYC_USA", new byte[40]);
+        underTest.put("LDN_UK", new byte[40]);
+        underTest.get("NYC_USA");
+        underTest.put("PARIS_FR", new byte[40]);
+
+        assertThat(underTest.get("NYC_USA")).isNotNull();
+        assertThat(underTest.get("LDN_UK")).isNull();
+        assertThat(underTest.get("PARIS_FR")).isNotNull();
+        assertThat(underTest.weight()).isEqualTo(80);
+        assertThat(underTest.evictions()).isEqualTo(1);
+        assertThat(underTest.linked()).isEqualTo(2);
+
+        underTest.put("NYC_USA", new byte[101]);
+
+        assertThat(underTest.get("NYC_USA")).isNull();
+        assertThat(underTest.weight()).isEqualTo(40);
+        assertThat(underTest.linked()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenSorted_floorFindsTheEntryCoveringTheKey() {
+        ClockCache<Long, String> underTest = ClockCache.sorted(100, value -> 1, Duration.ofMinutes(5), clock::get);
+
+        underTest.put(100L, "first block");
+        underTest.put(200L, "second block");
+
+        assertThat(underTest.floor(150L).value()).isEqualTo("first block");
+        assertThat(underTest.floor(200L).key()).isEqualTo(200L);
+        assertThat(underTest.floor(99L)).isNull();
+
+        underTest.clear();
+
+        assertThat(underTest.floor(150L)).isNull();
+        assertThat(underTest.linked()).isZero();
+    }
+}
@@ -0,0 +1,50 @@
+package com.KokoSky.WeatherService.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void whenValueRepeats_returnSameIdAndInstance() {
+        StringDictionary underTest = new StringDictionary(100);
+
+        String partlyCloudy = new String("Partly Cloudy");
+        int id = underTest.id(partlyCloudy);
+
+        assertThat(underTest.id(new String("Partly Cloudy"))).isEqualTo(id);
+        assertThat(underTest.intern(new String("Partly Cloudy"))).isSameAs(partlyCloudy);
+        assertThat(underTest.value(id)).isSameAs(partlyCloudy);
+        assertThat(underTest.id("Light Rain")).isEqualTo(id + 1);
+        assertThat(underTest.size()).isEqualTo(2);
+
+        assertThat(underTest.id(null)).isEqualTo(StringDictionary.NOT_ENCODED);
+        assertThat(underTest.intern(null)).isNull();
+        assertThat(underTest.value(StringDictionary.NOT_ENCODED)).isNull();
+    }
+
+    @Test
+    public void whenGrownPastInitialCapacity_keepEveryValue() {
+        StringDictionary underTest = new StringDictionary(100);
+
+        for (int i = 0; i < 40; i++) {
+            assertThat(underTest.id("Status " + i)).isEqualTo(i);
+        }
+
+        assertThat(underTest.value(0)).isEqualTo("Status 0");
+        assertThat(underTest.value(39)).isEqualTo("Status 39");
+    }
+
+    @Test
+    public void whenFull_newValuesAreNotEncoded() {
+        StringDictionary underTest = new StringDictionary(1);
+
+        assertThat(underTest.id("Sunny")).isEqualTo(0);
+        assertThat(underTest.id("Cloudy")).isEqualTo(StringDictionary.NOT_ENCODED);
+
+        String cloudy = new String("Cloudy");
+        assertThat(underTest.intern(cloudy)).isSameAs(cloudy);
+        assertThat(underTest.id("Sunny")).isEqualTo(0);
+    }
+}
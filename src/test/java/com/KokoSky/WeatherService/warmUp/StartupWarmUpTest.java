@@ -0,0 +1,110 @@
+package com.KokoSky.WeatherService.warmUp;
+
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherRepository;
+import com.KokoSky.WeatherService.dailyWeather.DailyWeatherService;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyForecastStore;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherRepository;
+import com.KokoSky.WeatherService.hourlyWeather.HourlyWeatherService;
+import com.KokoSky.WeatherService.location.Location;
+import com.KokoSky.WeatherService.location.LocationCatalog;
+import com.KokoSky.WeatherService.location.LocationRepository;
+import com.KokoSky.WeatherService.location.UnknownLocationCache;
+import com.KokoSky.WeatherService.readModel.ReadModel;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherCache;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherRepository;
+import com.KokoSky.WeatherService.realtimeWeather.RealtimeWeatherService;
+import com.KokoSky.WeatherService.responseCache.ResponseBodyCache;
+import com.KokoSky.WeatherService.utility.StringDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StartupWarmUpTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final RealtimeWeatherRepository realtimeWeatherRepository = mock(RealtimeWeatherRepository.class);
+    private final HourlyWeatherRepository hourlyWeatherRepository = mock(HourlyWeatherRepository.class);
+    private final DailyWeatherRepository dailyWeatherRepository = mock(DailyWeatherRepository.class);
+
+    private final StringDictionary dictionary = new StringDictionary(100);
+    private final ResponseBodyCache responseBodyCache = new ResponseBodyCache(true, DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+    private final UnknownLocationCache unknownLocationCache = new UnknownLocationCache(true, 100, Duration.ofSeconds(30));
+    private final HourlyForecastStore hourlyForecastStore = new HourlyForecastStore(true, dictionary);
+    private final ReadModel readModel = new ReadModel(false, locationRepository, realtimeWeatherRepository,
+            hourlyWeatherRepository, dailyWeatherRepository, responseBodyCache, dictionary, null,
+            false, "data/read-model.snapshot", Duration.ZERO, Duration.ofDays(1));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Location newYork = location("NYC_USA");
+        Location london = location("LDN_UK");
+
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        when(locationRepository.findAllUntrashedLocations()).thenReturn(List.of(newYork, london));
+        when(locationRepository.findByCode("NYC_USA")).thenReturn(newYork);
+        when(locationRepository.findByCode("LDN_UK")).thenReturn(london);
+    }
+
+    @Test
+    public void whenLocationLimitReached_preloadFirstLocationsOnlyAndReport() {
+        StartupWarmUp underTest = warmUp(1);
+
+        underTest.warmUp();
+
+        StartupWarmUp.WarmUpReport report = underTest.getReport();
+        assertThat(report.completed()).isTrue();
+        assertThat(report.connections()).isEqualTo(3);
+        assertThat(report.catalogSize()).isEqualTo(2);
+        assertThat(report.locations()).isEqualTo(1);
+        assertThat(report.hourly()).isEqualTo(1);
+        assertThat(report.daily()).isEqualTo(1);
+        // No realtime weather reported yet, which is not a failure
+        assertThat(report.realtime()).isEqualTo(0);
+        assertThat(report.queries()).isEqualTo(6);
+        assertThat(report.failures()).isEqualTo(0);
+
+        assertThat(hourlyForecastStore.getAfter("NYC_USA", -1)).isNotNull();
+        assertThat(hourlyForecastStore.getAfter("LDN_UK", -1)).isNull();
+    }
+
+    @Test
+    public void whenNoLimit_preloadEveryLocation() {
+        StartupWarmUp underTest = warmUp(0);
+
+        underTest.warmUp();
+
+        assertThat(underTest.getReport().locations()).isEqualTo(2);
+        assertThat(hourlyForecastStore.getAfter("LDN_UK", -1)).isNotNull();
+    }
+
+    private StartupWarmUp warmUp(int maximumLocations) {
+        RealtimeWeatherService realtimeWeatherService = new RealtimeWeatherService(realtimeWeatherRepository,
+                locationRepository, new RealtimeWeatherCache(true, 100, Duration.ofMinutes(5), dictionary), responseBodyCache,
+                unknownLocationCache, readModel, event -> { });
+        HourlyWeatherService hourlyWeatherService = new HourlyWeatherService(hourlyWeatherRepository,
+                locationRepository, responseBodyCache, hourlyForecastStore, unknownLocationCache, readModel,
+                event -> { });
+        DailyWeatherService dailyWeatherService = new DailyWeatherService(dailyWeatherRepository,
+                locationRepository, responseBodyCache, unknownLocationCache, readModel, event -> { });
+
+        return new StartupWarmUp(true, 3, maximumLocations, Duration.ofMinutes(1), dataSource,
+                new LocationCatalog(locationRepository, null, null, dictionary), locationRepository, realtimeWeatherRepository,
+                realtimeWeatherService, hourlyWeatherService, dailyWeatherService);
+    }
+
+    private static Location location(String code) {
+        Location location = new Location("City " + code, "Region", "Country", "US");
+        location.setCode(code);
+        return location;
+    }
+}